@@ -0,0 +1,133 @@
+package nl.tudelft.jpacman;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.level.LevelFactory;
+import nl.tudelft.jpacman.level.MapParser;
+import nl.tudelft.jpacman.npc.ghost.GhostFactory;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+/**
+ * Generates maps of any size for the benchmarks, so that they can measure
+ * how the code scales with the size of the board.
+ * <p>
+ * A map of size <code>n</code> is a square of <code>n</code> by
+ * <code>n</code> with walls around it and pillars on every square with even
+ * coordinates inside, so that there are many paths of equal length between
+ * two squares. The player starts in the top left corner and four ghosts in
+ * the bottom right corner. Every other square holds a pellet.
+ */
+public final class BenchmarkMaps {
+
+	/**
+	 * The board sizes measured by default.
+	 */
+	public static final String[] SIZES = { "32", "128", "512" };
+
+	private BenchmarkMaps() {
+	}
+
+	/**
+	 * Generates a map.
+	 *
+	 * @param size
+	 *            The width and height of the map, at least 6.
+	 * @return The rows of the map, top row first.
+	 */
+	public static List<String> generate(int size) {
+		assert size >= 6;
+		List<String> rows = new ArrayList<>(size);
+		for (int y = 0; y < size; y++) {
+			StringBuilder row = new StringBuilder(size);
+			for (int x = 0; x < size; x++) {
+				row.append(squareAt(size, x, y));
+			}
+			rows.add(row.toString());
+		}
+		return rows;
+	}
+
+	/**
+	 * Writes a generated map to a file, one row at a time, so that maps too
+	 * large to hold in memory as text can be written.
+	 *
+	 * @param size
+	 *            The width and height of the map, at least 6.
+	 * @param file
+	 *            The file to write.
+	 * @throws IOException
+	 *             When the file could not be written.
+	 */
+	public static void write(int size, Path file) throws IOException {
+		assert size >= 6;
+		try (Writer out = Files.newBufferedWriter(file,
+				StandardCharsets.US_ASCII)) {
+			char[] row = new char[size];
+			for (int y = 0; y < size; y++) {
+				for (int x = 0; x < size; x++) {
+					row[x] = squareAt(size, x, y);
+				}
+				out.write(row);
+				out.write('\n');
+			}
+		}
+	}
+
+	/**
+	 * Reads the rows of a map.
+	 *
+	 * @param source
+	 *            The UTF-8 text of the map.
+	 * @return The rows of the map, top row first.
+	 * @throws IOException
+	 *             When the text could not be read.
+	 */
+	public static List<String> readLines(InputStream source)
+			throws IOException {
+		List<String> rows = new ArrayList<>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(
+				source, StandardCharsets.UTF_8));
+		String row = reader.readLine();
+		while (row != null) {
+			rows.add(row);
+			row = reader.readLine();
+		}
+		return rows;
+	}
+
+	private static char squareAt(int size, int x, int y) {
+		int last = size - 2;
+		if (x == 0 || y == 0 || x > last || y > last) {
+			return '#';
+		}
+		if (x % 2 == 0 && y % 2 == 0) {
+			return '#';
+		}
+		if (x == 1 && y == 1) {
+			return 'P';
+		}
+		if (y == last && x > last - 8 && x % 2 == 1) {
+			return 'G';
+		}
+		return '.';
+	}
+
+	/**
+	 * @return A new parser creating levels with the default sprites.
+	 */
+	public static MapParser createParser() {
+		PacManSprites sprites = new PacManSprites();
+		return new MapParser(new LevelFactory(sprites,
+				new GhostFactory(sprites)), new BoardFactory(sprites));
+	}
+}
@@ -0,0 +1,67 @@
+package nl.tudelft.jpacman.board;
+
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.jpacman.BenchmarkMaps;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how long it takes {@link BoardFactory#createBoard(Square[][])} to
+ * number and link the squares of a grid.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardFactoryBenchmark {
+
+	/**
+	 * The width and height of the grid.
+	 */
+	@Param({ "32", "128", "512" })
+	private int size;
+
+	private BoardFactory factory;
+
+	private Square[][] grid;
+
+	/**
+	 * Creates the squares of the grid. Linking them again replaces the
+	 * previous links, so the same grid is used for every invocation.
+	 */
+	@Setup
+	public void createGrid() {
+		Board board = BenchmarkMaps.createParser()
+				.parseMap(BenchmarkMaps.generate(size)).getBoard();
+		grid = new Square[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				grid[x][y] = board.squareAt(x, y);
+			}
+		}
+		factory = new BoardFactory(null);
+	}
+
+	/**
+	 * Creates a board from the grid.
+	 *
+	 * @return The board.
+	 */
+	@Benchmark
+	public Board createBoard() {
+		return factory.createBoard(grid);
+	}
+}
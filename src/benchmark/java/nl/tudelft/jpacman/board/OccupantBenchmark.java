@@ -0,0 +1,167 @@
+package nl.tudelft.jpacman.board;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.jpacman.level.LevelFactory;
+import nl.tudelft.jpacman.level.MapParser;
+import nl.tudelft.jpacman.level.Pellet;
+import nl.tudelft.jpacman.npc.ghost.GhostFactory;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares reading the occupants of every square of the default board
+ * through the copying {@link Square#getOccupants()} with the non-copying
+ * {@link Square#getOccupantsView()} and {@link Square#findOccupant(Class)},
+ * the way a frame is rendered and pellets are counted, and measures changing
+ * the occupants as units move. Run with <code>-prof gc</code> to see the
+ * allocation rate of each; {@link nl.tudelft.jpacman.level.LevelBenchmark}
+ * measures whole moves including the collisions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OccupantBenchmark {
+
+	private Board board;
+
+	private Unit unit;
+
+	private Square empty;
+
+	private Square other;
+
+	private Square occupied;
+
+	/**
+	 * Reads the default board.
+	 *
+	 * @throws IOException
+	 *             When the board could not be read.
+	 */
+	@Setup
+	public void createBoard() throws IOException {
+		PacManSprites sprites = new PacManSprites();
+		MapParser parser = new MapParser(new LevelFactory(sprites,
+				new GhostFactory(sprites)), new BoardFactory(sprites));
+		try (InputStream map = OccupantBenchmark.class
+				.getResourceAsStream("/board.txt")) {
+			board = parser.parseMap(map).getBoard();
+		}
+		BoardFactory factory = new BoardFactory(sprites);
+		empty = factory.createGround();
+		other = factory.createGround();
+		occupied = factory.createGround();
+		new Pellet(10, null).occupy(occupied);
+		unit = new Pellet(10, null);
+		unit.occupy(empty);
+	}
+
+	/**
+	 * Moves a unit back and forth between two squares it occupies alone.
+	 *
+	 * @return The unit.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(2)
+	public Unit moveAlone() {
+		unit.occupy(other);
+		unit.occupy(empty);
+		return unit;
+	}
+
+	/**
+	 * Moves a unit onto a square with another unit and back.
+	 *
+	 * @return The unit.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(2)
+	public Unit moveOntoOccupied() {
+		unit.occupy(occupied);
+		unit.occupy(empty);
+		return unit;
+	}
+
+	/**
+	 * Visits all occupants through copies of the occupant lists.
+	 *
+	 * @param blackhole
+	 *            Consumes the occupants.
+	 */
+	@Benchmark
+	public void iterateCopies(Blackhole blackhole) {
+		for (int i = 0; i < board.getSquareCount(); i++) {
+			for (Unit unit : board.squareAt(i).getOccupants()) {
+				blackhole.consume(unit);
+			}
+		}
+	}
+
+	/**
+	 * Visits all occupants through the views on the occupant lists.
+	 *
+	 * @param blackhole
+	 *            Consumes the occupants.
+	 */
+	@Benchmark
+	public void iterateViews(Blackhole blackhole) {
+		for (int i = 0; i < board.getSquareCount(); i++) {
+			for (Unit unit : board.squareAt(i).getOccupantsView()) {
+				blackhole.consume(unit);
+			}
+		}
+	}
+
+	/**
+	 * Counts the pellets by searching copies of the occupant lists.
+	 *
+	 * @return The number of pellets.
+	 */
+	@Benchmark
+	public int countPelletsInCopies() {
+		int pellets = 0;
+		for (int i = 0; i < board.getSquareCount(); i++) {
+			for (Unit unit : board.squareAt(i).getOccupants()) {
+				if (unit instanceof Pellet) {
+					pellets++;
+					break;
+				}
+			}
+		}
+		return pellets;
+	}
+
+	/**
+	 * Counts the pellets by searching the occupant lists in place.
+	 *
+	 * @return The number of pellets.
+	 */
+	@Benchmark
+	public int countPelletsInPlace() {
+		int pellets = 0;
+		for (int i = 0; i < board.getSquareCount(); i++) {
+			if (board.squareAt(i).hasOccupantOfType(Pellet.class)) {
+				pellets++;
+			}
+		}
+		return pellets;
+	}
+}
@@ -0,0 +1,106 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.jpacman.npc.ghost.Ghost;
+import nl.tudelft.jpacman.npc.ghost.GhostFactory;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the dispatch of collisions by the {@link CollisionInteractionMap}
+ * behind {@link DefaultPlayerInteractionMap}, for a collision with a handler,
+ * a collision whose handler is found for the reversed pair, and a collision
+ * without a handler. The same collisions are dispatched by the
+ * <code>instanceof</code> checks of {@link PlayerCollisions} for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+
+	private CollisionMap collisions;
+
+	private CollisionMap instanceofCollisions;
+
+	private Player player;
+
+	private Ghost ghost;
+
+	private Pellet pellet;
+
+	/**
+	 * Creates the units.
+	 */
+	@Setup
+	public void createUnits() {
+		PacManSprites sprites = new PacManSprites();
+		collisions = new DefaultPlayerInteractionMap();
+		instanceofCollisions = new PlayerCollisions();
+		player = new PlayerFactory(sprites).createPacMan();
+		ghost = new GhostFactory(sprites).createBlinky();
+		pellet = new Pellet(0, sprites.getPelletSprite());
+	}
+
+	/**
+	 * A player running into a pellet, which has a handler.
+	 */
+	@Benchmark
+	public void playerOnPellet() {
+		collisions.collide(player, pellet);
+	}
+
+	/**
+	 * A ghost running into a player, handled by the player versus ghost
+	 * handler.
+	 */
+	@Benchmark
+	public void ghostOnPlayer() {
+		collisions.collide(ghost, player);
+	}
+
+	/**
+	 * A ghost running into a pellet, which has no handler.
+	 */
+	@Benchmark
+	public void ghostOnPellet() {
+		collisions.collide(ghost, pellet);
+	}
+
+	/**
+	 * A player running into a pellet, dispatched by {@link PlayerCollisions}.
+	 */
+	@Benchmark
+	public void playerOnPelletInstanceof() {
+		instanceofCollisions.collide(player, pellet);
+	}
+
+	/**
+	 * A ghost running into a player, dispatched by {@link PlayerCollisions}.
+	 */
+	@Benchmark
+	public void ghostOnPlayerInstanceof() {
+		instanceofCollisions.collide(ghost, player);
+	}
+
+	/**
+	 * A ghost running into a pellet, dispatched by {@link PlayerCollisions}.
+	 */
+	@Benchmark
+	public void ghostOnPelletInstanceof() {
+		instanceofCollisions.collide(ghost, pellet);
+	}
+}
@@ -0,0 +1,87 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.jpacman.BenchmarkMaps;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures stepping game states, both playing on from the state just stepped
+ * to, as a rollout does, and branching from the same state, as expanding a
+ * node of a search tree does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateBenchmark {
+
+	/**
+	 * The width and height of the board.
+	 */
+	@Param({ "32", "128" })
+	private int size;
+
+	private GameRules rules;
+
+	private GameState start;
+
+	private GameState rollout;
+
+	private final Random random = new Random(1L);
+
+	private final Direction[] directions = Direction.values();
+
+	/**
+	 * Creates the rules and the state to branch from.
+	 */
+	@Setup
+	public void createRules() {
+		LevelTemplate template = BenchmarkMaps.createParser().parseTemplate(
+				BenchmarkMaps.generate(size));
+		rules = new GameRules(template, new PlayerFactory(new PacManSprites()));
+		start = rules.step(rules.getInitialState(), Direction.EAST);
+		rollout = start;
+	}
+
+	/**
+	 * Steps on from the previous state, starting over when the game is over.
+	 *
+	 * @return The new state.
+	 */
+	@Benchmark
+	public GameState rolloutStep() {
+		if (rollout.isOver()) {
+			rollout = start;
+		}
+		rollout = rules.step(rollout,
+				directions[random.nextInt(directions.length)]);
+		return rollout;
+	}
+
+	/**
+	 * Steps from the same state every time.
+	 *
+	 * @return The new state.
+	 */
+	@Benchmark
+	public GameState branchStep() {
+		return rules.step(start, directions[random.nextInt(directions.length)]);
+	}
+}
@@ -0,0 +1,96 @@
+package nl.tudelft.jpacman.level;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.jpacman.BenchmarkMaps;
+import nl.tudelft.jpacman.board.CompactBoard;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reading map files of up to 10,000 by 10,000 squares, too large to
+ * create a square object for every position, into a {@link CompactBoard}:
+ * from a stream and through a memory mapping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class HugeMapBenchmark {
+
+	/**
+	 * The width and height of the map.
+	 */
+	@Param({ "2048", "10000" })
+	private int size;
+
+	private MapParser parser;
+
+	private Path file;
+
+	/**
+	 * Writes the map file.
+	 *
+	 * @throws IOException
+	 *             When the file could not be written.
+	 */
+	@Setup
+	public void writeMap() throws IOException {
+		parser = BenchmarkMaps.createParser();
+		file = Files.createTempFile("map", ".txt");
+		BenchmarkMaps.write(size, file);
+	}
+
+	/**
+	 * Deletes the map file.
+	 *
+	 * @throws IOException
+	 *             When the file could not be deleted.
+	 */
+	@TearDown
+	public void deleteMap() throws IOException {
+		Files.delete(file);
+	}
+
+	/**
+	 * Reads the map from a stream.
+	 *
+	 * @return The board.
+	 * @throws IOException
+	 *             When the file could not be read.
+	 */
+	@Benchmark
+	public CompactBoard stream() throws IOException {
+		return parser.parseCompactBoard(new BufferedInputStream(
+				Files.newInputStream(file)));
+	}
+
+	/**
+	 * Reads the map through a memory mapping.
+	 *
+	 * @return The board.
+	 * @throws IOException
+	 *             When the file could not be read.
+	 */
+	@Benchmark
+	public CompactBoard mapped() throws IOException {
+		return parser.parseCompactBoard(file);
+	}
+}
@@ -0,0 +1,87 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.jpacman.BenchmarkMaps;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link Level#move(nl.tudelft.jpacman.board.Unit, Direction)},
+ * including the collisions and the observer updates that follow every move,
+ * and {@link Level#remainingPellets()}. The ghosts stand still, since the
+ * level is not advanced in time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelBenchmark {
+
+	/**
+	 * The width and height of the board.
+	 */
+	@Param({ "32", "128", "512" })
+	private int size;
+
+	private Level level;
+
+	private Player player;
+
+	/**
+	 * Creates and starts the level.
+	 */
+	@Setup
+	public void createLevel() {
+		level = BenchmarkMaps.createParser().parseMap(
+				BenchmarkMaps.generate(size));
+		level.setDriver(null);
+		player = new PlayerFactory(new PacManSprites()).createPacMan();
+		level.registerPlayer(player);
+		level.start();
+	}
+
+	/**
+	 * Stops the level.
+	 */
+	@TearDown
+	public void stopLevel() {
+		level.stop();
+	}
+
+	/**
+	 * Moves the player one square east and back.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(2)
+	public void move() {
+		level.move(player, Direction.EAST);
+		level.move(player, Direction.WEST);
+	}
+
+	/**
+	 * Asks for the number of pellets left.
+	 *
+	 * @return The number of pellets.
+	 */
+	@Benchmark
+	public int remainingPellets() {
+		return level.remainingPellets();
+	}
+}
@@ -0,0 +1,160 @@
+package nl.tudelft.jpacman.level;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.level.Level.LevelObserver;
+import nl.tudelft.jpacman.npc.ghost.GhostFactory;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many games per second a {@link LevelHost} completes, for a
+ * varying number of worker threads. Every game is played on the default
+ * board by a player that stands still until the ghosts catch him, or until
+ * {@value #MAX_TICKS} ticks (one minute of game time) have passed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class LevelHostBenchmark {
+
+	/**
+	 * The number of games played per invocation.
+	 */
+	private static final int GAMES = 64;
+
+	/**
+	 * The maximum duration of a game in ticks.
+	 */
+	private static final int MAX_TICKS = 6000;
+
+	/**
+	 * The number of worker threads of the host.
+	 */
+	@Param({ "1", "2", "4", "8" })
+	private int threads;
+
+	private final PacManSprites sprites = new PacManSprites();
+
+	private LevelHost host;
+
+	private final List<Level> levels = new ArrayList<>();
+
+	/**
+	 * Creates the host.
+	 */
+	@Setup(org.openjdk.jmh.annotations.Level.Trial)
+	public void createHost() {
+		host = new LevelHost(threads, GAMES, new SimulatedClock(),
+				TickScheduler.DEFAULT_TICK_MILLIS);
+	}
+
+	/**
+	 * Creates and starts a fresh batch of games.
+	 *
+	 * @throws IOException
+	 *             When the board could not be read.
+	 */
+	@Setup(org.openjdk.jmh.annotations.Level.Invocation)
+	public void createGames() throws IOException {
+		MapParser parser = new MapParser(new LevelFactory(sprites,
+				new GhostFactory(sprites)), new BoardFactory(sprites));
+		PlayerFactory players = new PlayerFactory(sprites);
+		levels.clear();
+		for (int i = 0; i < GAMES; i++) {
+			try (InputStream board = LevelHostBenchmark.class
+					.getResourceAsStream("/board.txt")) {
+				Level level = parser.parseMap(board);
+				level.registerPlayer(players.createPacMan());
+				level.addObserver(new StopWhenOver(level));
+				level.setDriver(host);
+				levels.add(level);
+			}
+		}
+		for (Level level : levels) {
+			level.start();
+		}
+	}
+
+	/**
+	 * Stops the games that did not finish.
+	 */
+	@TearDown(org.openjdk.jmh.annotations.Level.Invocation)
+	public void stopGames() {
+		for (Level level : levels) {
+			level.stop();
+		}
+	}
+
+	/**
+	 * Releases the worker threads.
+	 */
+	@TearDown(org.openjdk.jmh.annotations.Level.Trial)
+	public void shutdownHost() {
+		host.shutdown();
+	}
+
+	/**
+	 * Plays all games of the batch to the end.
+	 *
+	 * @return The number of ticks it took.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(GAMES)
+	public int playGames() {
+		int ticks = 0;
+		while (host.getLevelCount() > 0 && ticks < MAX_TICKS) {
+			host.step();
+			ticks++;
+		}
+		return ticks;
+	}
+
+	/**
+	 * Stops a level as soon as it has been won or lost, like a game does.
+	 */
+	private static final class StopWhenOver implements LevelObserver {
+
+		private final Level level;
+
+		private StopWhenOver(Level l) {
+			this.level = l;
+		}
+
+		@Override
+		public void levelWon() {
+			level.stop();
+		}
+
+		@Override
+		public void levelLost() {
+			level.stop();
+		}
+
+		@Override
+		public void levelFailed(Throwable cause) {
+			// the level has been stopped already
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.jpacman.BenchmarkMaps;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures taking a snapshot of a level with moving ghosts, and rewinding
+ * the level to it after a few moves, as a search-based bot would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelSnapshotBenchmark {
+
+	/**
+	 * The width and height of the board.
+	 */
+	@Param({ "32", "128" })
+	private int size;
+
+	private Level level;
+
+	private Player player;
+
+	private LevelSnapshot start;
+
+	/**
+	 * Creates and starts the level, and takes the snapshot to rewind to.
+	 */
+	@Setup
+	public void createLevel() {
+		level = BenchmarkMaps.createParser().parseMap(
+				BenchmarkMaps.generate(size));
+		level.setDriver(null);
+		player = new PlayerFactory(new PacManSprites()).createPacMan();
+		level.registerPlayer(player);
+		level.start();
+		for (int i = 0; i < 100; i++) {
+			level.tick();
+		}
+		start = level.snapshot();
+	}
+
+	/**
+	 * Stops the level.
+	 */
+	@TearDown
+	public void stopLevel() {
+		level.stop();
+	}
+
+	/**
+	 * Takes a snapshot.
+	 *
+	 * @return The snapshot.
+	 */
+	@Benchmark
+	public LevelSnapshot snapshot() {
+		return level.snapshot();
+	}
+
+	/**
+	 * Eats two pellets and rewinds the level.
+	 *
+	 * @return The level.
+	 */
+	@Benchmark
+	public Level moveAndRestore() {
+		level.move(player, Direction.EAST);
+		level.move(player, Direction.EAST);
+		level.restore(start);
+		return level;
+	}
+}
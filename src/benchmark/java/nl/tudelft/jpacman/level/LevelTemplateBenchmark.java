@@ -0,0 +1,93 @@
+package nl.tudelft.jpacman.level;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.jpacman.BenchmarkMaps;
+import nl.tudelft.jpacman.game.Game;
+import nl.tudelft.jpacman.game.GameFactory;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many new single player games can be created per second of
+ * the same map, by parsing the map for every game and by creating the level
+ * from a {@link LevelTemplate}. A size of 0 stands for the default
+ * <code>board.txt</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelTemplateBenchmark {
+
+	/**
+	 * The width and height of the map, or 0 for the default board.
+	 */
+	@Param({ "0", "32", "128" })
+	private int size;
+
+	private MapParser parser;
+
+	private List<String> map;
+
+	private LevelTemplate template;
+
+	private GameFactory games;
+
+	/**
+	 * Reads or generates the map and parses its template.
+	 *
+	 * @throws IOException
+	 *             When the default board could not be read.
+	 */
+	@Setup
+	public void createTemplate() throws IOException {
+		parser = BenchmarkMaps.createParser();
+		if (size == 0) {
+			try (InputStream board = LevelTemplateBenchmark.class
+					.getResourceAsStream("/board.txt")) {
+				map = BenchmarkMaps.readLines(board);
+			}
+		} else {
+			map = BenchmarkMaps.generate(size);
+		}
+		template = parser.parseTemplate(map);
+		games = new GameFactory(new PlayerFactory(new PacManSprites()));
+	}
+
+	/**
+	 * Creates a game, parsing its map.
+	 *
+	 * @return The game.
+	 */
+	@Benchmark
+	public Game parseEachGame() {
+		return games.createSinglePlayerGame(parser.parseMap(map));
+	}
+
+	/**
+	 * Creates a game from the template.
+	 *
+	 * @return The game.
+	 */
+	@Benchmark
+	public Game fromTemplate() {
+		return games.createSinglePlayerGame(template.createLevel());
+	}
+}
@@ -0,0 +1,98 @@
+package nl.tudelft.jpacman.level;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.jpacman.BenchmarkMaps;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how long it takes {@link MapParser} to turn the text of a map into
+ * a level, including creating and linking the board and its units, from a
+ * list of rows, from a stream and from the {@link BinaryMapFormat}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapParserBenchmark {
+
+	/**
+	 * The width and height of the map.
+	 */
+	@Param({ "32", "128", "512" })
+	private int size;
+
+	private MapParser parser;
+
+	private List<String> map;
+
+	private byte[] text;
+
+	private ByteBuffer binary;
+
+	/**
+	 * Generates the map.
+	 */
+	@Setup
+	public void generateMap() {
+		parser = BenchmarkMaps.createParser();
+		map = BenchmarkMaps.generate(size);
+		StringBuilder builder = new StringBuilder();
+		for (String row : map) {
+			builder.append(row).append('\n');
+		}
+		text = builder.toString().getBytes(StandardCharsets.US_ASCII);
+		binary = ByteBuffer.wrap(BinaryMapFormat.toBytes(map));
+	}
+
+	/**
+	 * Parses the map.
+	 *
+	 * @return The level.
+	 */
+	@Benchmark
+	public Level parseMap() {
+		return parser.parseMap(map);
+	}
+
+	/**
+	 * Parses the map from a stream of its text.
+	 *
+	 * @return The level.
+	 * @throws IOException
+	 *             Never, the stream is in memory.
+	 */
+	@Benchmark
+	public Level parseStream() throws IOException {
+		return parser.parseMap(new ByteArrayInputStream(text));
+	}
+
+	/**
+	 * Reads the map from its binary representation.
+	 *
+	 * @return The level.
+	 */
+	@Benchmark
+	public Level parseBinary() {
+		binary.rewind();
+		return parser.parseBinaryMap(binary);
+	}
+}
@@ -0,0 +1,110 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import nl.tudelft.jpacman.BenchmarkMaps;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the total move throughput of many players moving at the same time
+ * on one level, each in a corridor of its own, with all moves executed one at
+ * a time or with striped locking. Run with <code>-t</code> set to different
+ * thread counts to see how each scales with the number of cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class MoveContentionBenchmark {
+
+	/**
+	 * The width and height of the board.
+	 */
+	private static final int SIZE = 128;
+
+	/**
+	 * Whether the level uses striped locking.
+	 */
+	@Param({ "false", "true" })
+	private boolean striped;
+
+	private Level level;
+
+	private final AtomicInteger corridors = new AtomicInteger();
+
+	/**
+	 * Creates and starts the level.
+	 */
+	@Setup
+	public void createLevel() {
+		level = BenchmarkMaps.createParser().parseMap(
+				BenchmarkMaps.generate(SIZE));
+		level.setDriver(null);
+		level.setStripedLocking(striped);
+		level.start();
+	}
+
+	/**
+	 * Stops the level.
+	 */
+	@TearDown
+	public void stopLevel() {
+		level.stop();
+	}
+
+	/**
+	 * A player of one of the benchmark threads.
+	 */
+	@State(Scope.Thread)
+	public static class Mover {
+
+		private Player player;
+
+		/**
+		 * Places the player at the start of a corridor of its own.
+		 *
+		 * @param benchmark
+		 *            The shared level.
+		 */
+		@Setup
+		public void placePlayer(MoveContentionBenchmark benchmark) {
+			int corridor = benchmark.corridors.getAndIncrement();
+			int row = (1 + corridor * 2) % (SIZE - 2);
+			player = new PlayerFactory(new PacManSprites()).createPacMan();
+			player.occupy(benchmark.level.getBoard().squareAt(1, row));
+		}
+	}
+
+	/**
+	 * Moves the thread's player one square east and back.
+	 *
+	 * @param mover
+	 *            The player of this thread.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(2)
+	public void move(Mover mover) {
+		level.move(mover.player, Direction.EAST);
+		level.move(mover.player, Direction.WEST);
+	}
+}
@@ -0,0 +1,81 @@
+package nl.tudelft.jpacman.npc.ghost;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.jpacman.BenchmarkMaps;
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.board.Unit;
+import nl.tudelft.jpacman.level.Pellet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the searches of {@link Navigation} across a whole board: the
+ * shortest path between opposite corners and the nearest ghost as seen from
+ * the player's corner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NavigationBenchmark {
+
+	/**
+	 * The width and height of the board.
+	 */
+	@Param({ "32", "128", "512" })
+	private int size;
+
+	private Square topLeft;
+
+	private Square bottomRight;
+
+	private Unit traveller;
+
+	/**
+	 * Creates the board.
+	 */
+	@Setup
+	public void createBoard() {
+		Board board = BenchmarkMaps.createParser()
+				.parseMap(BenchmarkMaps.generate(size)).getBoard();
+		topLeft = board.squareAt(1, 1);
+		bottomRight = board.squareAt(size - 3, size - 3);
+		traveller = new Pellet(0, null);
+	}
+
+	/**
+	 * Finds the shortest path between opposite corners.
+	 *
+	 * @return The path.
+	 */
+	@Benchmark
+	public List<Direction> shortestPath() {
+		return Navigation.shortestPath(topLeft, bottomRight, traveller);
+	}
+
+	/**
+	 * Finds the ghost nearest to the top left corner.
+	 *
+	 * @return The ghost.
+	 */
+	@Benchmark
+	public Unit findNearest() {
+		return Navigation.findNearest(Ghost.class, topLeft);
+	}
+}
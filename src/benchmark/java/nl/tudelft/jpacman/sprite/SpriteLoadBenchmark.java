@@ -0,0 +1,57 @@
+package nl.tudelft.jpacman.sprite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.jpacman.npc.ghost.GhostColor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how long a new {@link PacManSprites} store takes to load all
+ * sprites and animations of the game, with and without a texture atlas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpriteLoadBenchmark {
+
+	/**
+	 * Whether the sprites are packed into a texture atlas.
+	 */
+	@Param({ "false", "true" })
+	private boolean atlas;
+
+	/**
+	 * Loads all sprites.
+	 *
+	 * @return The sprites.
+	 */
+	@Benchmark
+	public List<Object> loadAll() {
+		PacManSprites sprites = new PacManSprites(atlas);
+		List<Object> loaded = new ArrayList<>();
+		loaded.add(sprites.getPacmanSprites());
+		loaded.add(sprites.getPacManDeathAnimation());
+		for (GhostColor color : GhostColor.values()) {
+			loaded.add(sprites.getGhostSprite(color));
+		}
+		loaded.add(sprites.getWallSprite());
+		loaded.add(sprites.getGroundSprite());
+		loaded.add(sprites.getPelletSprite());
+		return loaded;
+	}
+}
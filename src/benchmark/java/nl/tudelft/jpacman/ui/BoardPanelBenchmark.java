@@ -0,0 +1,123 @@
+package nl.tudelft.jpacman.ui;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.jpacman.BenchmarkMaps;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.game.Game;
+import nl.tudelft.jpacman.game.GameFactory;
+import nl.tudelft.jpacman.level.Level;
+import nl.tudelft.jpacman.level.PlayerFactory;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how long {@link BoardPanel} takes to render a frame into an
+ * offscreen image, at {@value #CELL_SIZE} pixels per square: the whole board,
+ * and only the squares changed by a move of the player.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardPanelBenchmark {
+
+	/**
+	 * The size of a square in pixels, kept small so that the frames of large
+	 * boards fit in memory.
+	 */
+	private static final int CELL_SIZE = 4;
+
+	/**
+	 * The width and height of the board.
+	 */
+	@Param({ "32", "128", "512" })
+	private int size;
+
+	private BoardPanel panel;
+
+	private Level level;
+
+	private Game game;
+
+	private Direction next;
+
+	private Graphics graphics;
+
+	/**
+	 * Creates the panel and the image to render on.
+	 */
+	@Setup
+	public void createPanel() {
+		// without ghosts, so that the player survives the measurements
+		List<String> map = new ArrayList<>();
+		for (String row : BenchmarkMaps.generate(size)) {
+			map.add(row.replace('G', '.'));
+		}
+		level = BenchmarkMaps.createParser().parseMap(map);
+		level.setDriver(null);
+		PacManSprites sprites = new PacManSprites();
+		game = new GameFactory(new PlayerFactory(sprites))
+				.createSinglePlayerGame(level);
+		panel = new BoardPanel(game);
+		int pixels = size * CELL_SIZE;
+		panel.setSize(pixels, pixels);
+		graphics = new BufferedImage(pixels, pixels,
+				BufferedImage.TYPE_INT_RGB).getGraphics();
+		game.start();
+		next = Direction.SOUTH;
+		panel.paint(graphics);
+	}
+
+	/**
+	 * Releases the graphics context.
+	 */
+	@TearDown
+	public void disposeGraphics() {
+		game.stop();
+		graphics.dispose();
+	}
+
+	/**
+	 * Renders the whole board.
+	 */
+	@Benchmark
+	public void render() {
+		panel.markAllChanged();
+		panel.paint(graphics);
+	}
+
+	/**
+	 * Moves the player back and forth, advances the level a tick and renders
+	 * the squares that changed.
+	 */
+	@Benchmark
+	public void renderAfterMove() {
+		game.move(game.getPlayers().get(0), next);
+		if (next == Direction.SOUTH) {
+			next = Direction.NORTH;
+		} else {
+			next = Direction.SOUTH;
+		}
+		level.tick();
+		panel.paint(graphics);
+	}
+}
@@ -4,6 +4,9 @@ import java.awt.event.KeyEvent;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
 
 import nl.tudelft.jpacman.board.BoardFactory;
 import nl.tudelft.jpacman.board.Direction;
@@ -11,6 +14,7 @@ import nl.tudelft.jpacman.game.Game;
 import nl.tudelft.jpacman.game.GameFactory;
 import nl.tudelft.jpacman.level.Level;
 import nl.tudelft.jpacman.level.LevelFactory;
+import nl.tudelft.jpacman.level.LevelTemplate;
 import nl.tudelft.jpacman.level.MapParser;
 import nl.tudelft.jpacman.level.Player;
 import nl.tudelft.jpacman.level.PlayerFactory;
@@ -29,8 +33,16 @@ public class Launcher {
 
 	private static final PacManSprites SPRITE_STORE = new PacManSprites();
 
+	/**
+	 * The logger reporting how fast the game starts and is drawn.
+	 */
+	private static final Logger LOGGER = Logger.getLogger(Launcher.class
+			.getName());
+
 	private PacManUI pacManUI;
 	private Game game;
+	private long startupNanos;
+	private LevelTemplate levelTemplate;
 
 	/**
 	 * @return The game object this launcher will start when {@link #launch()}
@@ -52,19 +64,34 @@ public class Launcher {
 	}
 
 	/**
-	 * Creates a new level. By default this method will use the map parser to
-	 * parse the default board stored in the <code>board.txt</code> resource.
+	 * Creates a new level. By default this method will create it from the
+	 * template of {@link #getLevelTemplate()}.
 	 * 
 	 * @return A new level.
 	 */
 	public Level makeLevel() {
-		MapParser parser = getMapParser();
-		try (InputStream boardStream = Launcher.class
-				.getResourceAsStream("/board.txt")) {
-			return parser.parseMap(boardStream);
-		} catch (IOException e) {
-			throw new PacmanConfigurationException("Unable to create level.", e);
+		return getLevelTemplate().createLevel();
+	}
+
+	/**
+	 * Returns the template of the default level. The map parser parses the
+	 * default board stored in the <code>board.txt</code> resource the first
+	 * time this method is called, so that later games do not read it again.
+	 * 
+	 * @return The template of the default level.
+	 */
+	protected synchronized LevelTemplate getLevelTemplate() {
+		if (levelTemplate == null) {
+			MapParser parser = getMapParser();
+			try (InputStream boardStream = Launcher.class
+					.getResourceAsStream("/board.txt")) {
+				levelTemplate = parser.parseTemplate(boardStream);
+			} catch (IOException e) {
+				throw new PacmanConfigurationException(
+						"Unable to create level.", e);
+			}
 		}
+		return levelTemplate;
 	}
 
 	/**
@@ -143,25 +170,25 @@ public class Launcher {
 
 			@Override
 			public void doAction() {
-				game.move(p1, Direction.NORTH);
+				game.queueMove(p1, Direction.NORTH);
 			}
 		}).addKey(KeyEvent.VK_DOWN, new Action() {
 
 			@Override
 			public void doAction() {
-				game.move(p1, Direction.SOUTH);
+				game.queueMove(p1, Direction.SOUTH);
 			}
 		}).addKey(KeyEvent.VK_LEFT, new Action() {
 
 			@Override
 			public void doAction() {
-				game.move(p1, Direction.WEST);
+				game.queueMove(p1, Direction.WEST);
 			}
 		}).addKey(KeyEvent.VK_RIGHT, new Action() {
 
 			@Override
 			public void doAction() {
-				game.move(p1, Direction.EAST);
+				game.queueMove(p1, Direction.EAST);
 			}
 		});
 
@@ -176,20 +203,59 @@ public class Launcher {
 	}
 
 	/**
-	 * Creates and starts a JPac-Man game.
+	 * @return The time the last {@link #launch()} took, in nanoseconds. The
+	 *         part of it spent decoding sprites is reported by
+	 *         {@link nl.tudelft.jpacman.sprite.SpriteStore#getDecodeNanos()}.
+	 */
+	public long getStartupNanos() {
+		return startupNanos;
+	}
+
+	/**
+	 * Creates and starts a JPac-Man game. The sprites are decoded in parallel
+	 * while the game is created. The time the start took and the part of it
+	 * spent decoding sprites are logged.
 	 */
 	public void launch() {
+		long start = System.nanoTime();
+		PacManSprites sprites = getSpriteStore();
+		Future<Void> preload = sprites.preloadAll(sprites.getResources());
 		game = makeGame();
+		awaitSprites(preload);
 		PacManUiBuilder builder = new PacManUiBuilder().withDefaultButtons();
 		addSinglePlayerKeys(builder, game);
 		pacManUI = builder.build(game);
 		pacManUI.start();
+		startupNanos = System.nanoTime() - start;
+		LOGGER.info(String.format("Started in %.1f ms; decoding %d images "
+				+ "took %.1f ms, summed over the loading threads.",
+				startupNanos / 1e6, sprites.getDecodeCount(),
+				sprites.getDecodeNanos() / 1e6));
+	}
+
+	/**
+	 * Waits until all sprites are loaded.
+	 * 
+	 * @param preload
+	 *            The loading sprites.
+	 */
+	private static void awaitSprites(Future<Void> preload) {
+		try {
+			preload.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new PacmanConfigurationException("Unable to load sprites.",
+					e.getCause());
+		}
 	}
 
 	/**
-	 * Disposes of the UI. For more information see {@link javax.swing.JFrame#dispose()}.
+	 * Disposes of the UI, after logging the statistics of the frames it drew.
+	 * For more information see {@link javax.swing.JFrame#dispose()}.
 	 */
 	public void dispose() {
+		LOGGER.info("Frames drawn: " + pacManUI.getFrameStats());
 		pacManUI.dispose();
 	}
 
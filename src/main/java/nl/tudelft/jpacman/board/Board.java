@@ -12,6 +12,22 @@ public class Board {
 	 */
 	private final Square[][] board;
 
+	/**
+	 * The squares of the grid by index, see {@link Square#getIndex()}, or
+	 * <code>null</code> for subclasses without a grid.
+	 */
+	private final Square[] squares;
+
+	/**
+	 * Creates a new board without a grid, for subclasses that provide their
+	 * squares in another way. Such subclasses override {@link #getWidth()},
+	 * {@link #getHeight()} and {@link #squareAt(int, int)}.
+	 */
+	Board() {
+		this.board = null;
+		this.squares = null;
+	}
+
 	/**
 	 * Creates a new board.
 	 * 
@@ -23,6 +39,14 @@ public class Board {
 		assert grid != null;
 		this.board = grid;
 		assert invariant() : "Initial grid cannot contain null squares";
+		this.squares = new Square[getSquareCount()];
+		for (int x = 0; x < getWidth(); x++) {
+			for (int y = 0; y < getHeight(); y++) {
+				int index = y * getWidth() + x;
+				board[x][y].setPosition(this, x, y, index);
+				squares[index] = board[x][y];
+			}
+		}
 	}
 	
 	/**
@@ -58,6 +82,17 @@ public class Board {
 		return board[0].length;
 	}
 
+	/**
+	 * Returns the number of squares on this board. Every square on this board
+	 * has an index (see {@link Square#getIndex()}) between 0 (inclusive) and
+	 * this number (exclusive).
+	 * 
+	 * @return The number of squares on this board.
+	 */
+	public int getSquareCount() {
+		return getWidth() * getHeight();
+	}
+
 	/**
 	 * Returns the square at the given <code>x,y</code> position.
 	 * 
@@ -74,6 +109,67 @@ public class Board {
 		return result;
 	}
 
+	/**
+	 * Returns the square with the given index, see {@link Square#getIndex()}.
+	 * 
+	 * @param index
+	 *            The index of the requested square, between 0 (inclusive) and
+	 *            {@link #getSquareCount()} (exclusive).
+	 * @return The square with the given index (never null).
+	 */
+	public Square squareAt(int index) {
+		assert index >= 0 && index < getSquareCount();
+		if (squares != null) {
+			return squares[index];
+		}
+		return squareAt(index % getWidth(), index / getWidth());
+	}
+
+	/**
+	 * Returns the index of the square adjacent to a square, so that the board
+	 * can be searched without going through its squares.
+	 * 
+	 * @param index
+	 *            The index of the square.
+	 * @param direction
+	 *            The direction of the adjacent square.
+	 * @return The index of the adjacent square.
+	 */
+	public int neighbour(int index, Direction direction) {
+		return squareAt(index).getSquareAt(direction).getIndex();
+	}
+
+	/**
+	 * Determines whether a unit is allowed to occupy a square, see
+	 * {@link Square#isAccessibleTo(Unit)}.
+	 * 
+	 * @param index
+	 *            The index of the square.
+	 * @param unit
+	 *            The unit to grant or deny access.
+	 * @return <code>true</code> iff the unit is allowed to occupy the square.
+	 */
+	public boolean isAccessibleTo(int index, Unit unit) {
+		return squareAt(index).isAccessibleTo(unit);
+	}
+
+	/**
+	 * Returns the oldest unit of a certain type occupying a square, see
+	 * {@link Square#findOccupant(Class)}.
+	 * 
+	 * @param index
+	 *            The index of the square.
+	 * @param type
+	 *            The type of unit to search for.
+	 * @param <T>
+	 *            The type of unit to search for.
+	 * @return The oldest occupant of the given type, or <code>null</code> if
+	 *         there is none.
+	 */
+	public <T extends Unit> T findOccupant(int index, Class<T> type) {
+		return squareAt(index).findOccupant(type);
+	}
+
 	/**
 	 * Determines whether the given <code>x,y</code> position is on this board.
 	 * 
@@ -1,5 +1,7 @@
 package nl.tudelft.jpacman.board;
 
+import java.util.BitSet;
+
 import nl.tudelft.jpacman.sprite.PacManSprites;
 import nl.tudelft.jpacman.sprite.Sprite;
 
@@ -57,6 +59,30 @@ public class BoardFactory {
 		return board;
 	}
 
+	/**
+	 * Creates a new compact board, which stores its terrain and pellets
+	 * instead of a square per position. Meant for mazes that are too large to
+	 * create every square of.
+	 * 
+	 * @param width
+	 *            The width of the board.
+	 * @param height
+	 *            The height of the board.
+	 * @param terrain
+	 *            The terrain of every square, being either
+	 *            {@link CompactBoard#GROUND} or {@link CompactBoard#WALL}, with
+	 *            terrain[y * width + x] corresponding to position x,y.
+	 * @param pellets
+	 *            The indices of the squares holding a pellet.
+	 * @return A new compact board.
+	 */
+	public CompactBoard createCompactBoard(int width, int height,
+			byte[] terrain, BitSet pellets) {
+		assert terrain != null && pellets != null;
+		return new CompactBoard(width, height, terrain, pellets,
+				sprites.getGroundSprite(), sprites.getWallSprite());
+	}
+
 	/**
 	 * Creates a new square that can be occupied by any unit.
 	 * 
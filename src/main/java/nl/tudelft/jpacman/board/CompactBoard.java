@@ -0,0 +1,598 @@
+package nl.tudelft.jpacman.board;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import nl.tudelft.jpacman.sprite.Sprite;
+
+/**
+ * A board for very large mazes that does not keep a {@link Square} object per
+ * position. The terrain is stored as one byte per square, neighbours are
+ * computed from the square indices with the same wraparound as
+ * {@link BoardFactory#createBoard(Square[][])}, and pellets are stored as a
+ * single bit per square.
+ * <p>
+ * {@link Square} objects are only created when they are asked for. A square
+ * stays the same object for as long as anything refers to it, such as a unit
+ * occupying it, and is discarded once nothing does.
+ * The squares in use are kept in a hash table keyed by the primitive square
+ * index, so looking up a square in use allocates nothing. Searches should
+ * use the index based methods of the board, such as
+ * {@link #neighbour(int, Direction)}, which create no squares at all.
+ * <p>
+ * Pellets on a compact board are not units: they do not appear among the
+ * occupants of its squares, and are queried and eaten through
+ * {@link #hasPellet(int)} and {@link #removePellet(int)} instead.
+ * {@link nl.tudelft.jpacman.level.Level} does so for a level on a compact
+ * board.
+ */
+public class CompactBoard extends Board {
+
+	/**
+	 * The terrain of a square that can be occupied by any unit.
+	 */
+	public static final byte GROUND = 0;
+
+	/**
+	 * The terrain of a square that cannot be occupied by any unit.
+	 */
+	public static final byte WALL = 1;
+
+	/**
+	 * The number of directions, by which links are keyed.
+	 */
+	private static final int DIRECTIONS = Direction.values().length;
+
+	/**
+	 * The width of this board.
+	 */
+	private final int width;
+
+	/**
+	 * The height of this board.
+	 */
+	private final int height;
+
+	/**
+	 * The terrain of every square, by index.
+	 */
+	private final byte[] terrain;
+
+	/**
+	 * The squares that hold a pellet, by index.
+	 */
+	private final BitSet pellets;
+
+	/**
+	 * The number of pellets remaining.
+	 */
+	private int pelletCount;
+
+	/**
+	 * The sprites for every terrain type, by terrain.
+	 */
+	private final Sprite[] sprites;
+
+	/**
+	 * The squares handed out and still possibly in use, by index.
+	 */
+	private final SquareTable views;
+
+	/**
+	 * The queue of squares that are no longer in use.
+	 */
+	private final ReferenceQueue<Square> released;
+
+	/**
+	 * The indices of the squares linked to another square than the one next
+	 * to them, keyed by {@link #linkKey(int, Direction)}, or <code>null</code>
+	 * if there are none. Replaced on every change, so that it is read without
+	 * locking.
+	 */
+	private volatile Map<Long, Integer> links;
+
+	/**
+	 * Creates a new compact board.
+	 *
+	 * @param columns
+	 *            The width of the board.
+	 * @param rows
+	 *            The height of the board.
+	 * @param terrainTypes
+	 *            The terrain of every square, by index, being either
+	 *            {@link #GROUND} or {@link #WALL}.
+	 * @param pelletSquares
+	 *            The indices of the squares that hold a pellet.
+	 * @param groundSprite
+	 *            The background for ground squares.
+	 * @param wallSprite
+	 *            The background for wall squares.
+	 */
+	CompactBoard(int columns, int rows, byte[] terrainTypes,
+			BitSet pelletSquares, Sprite groundSprite, Sprite wallSprite) {
+		super();
+		assert columns > 0 && rows > 0;
+		assert terrainTypes.length == columns * rows;
+		this.width = columns;
+		this.height = rows;
+		this.terrain = terrainTypes;
+		this.pellets = (BitSet) pelletSquares.clone();
+		this.pelletCount = pellets.cardinality();
+		this.sprites = new Sprite[] {groundSprite, wallSprite};
+		this.views = new SquareTable();
+		this.released = new ReferenceQueue<>();
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the square at the given <code>x,y</code> position, creating it if
+	 * it is not in use.
+	 *
+	 * @param x
+	 *            The <code>x</code> position (column) of the requested square.
+	 * @param y
+	 *            The <code>y</code> position (row) of the requested square.
+	 * @return The square at the given <code>x,y</code> position (never null).
+	 */
+	@Override
+	public synchronized Square squareAt(int x, int y) {
+		assert x >= 0 && x < width && y >= 0 && y < height;
+		expungeReleased();
+		int index = indexOf(x, y);
+		SquareReference reference = views.get(index);
+		Square square = reference == null ? null : reference.get();
+		if (square == null) {
+			square = new CompactSquare(index);
+			square.setPosition(this, x, y, index);
+			views.put(new SquareReference(square, index, released));
+		}
+		return square;
+	}
+
+	/**
+	 * Returns the index of the square at the given <code>x,y</code> position.
+	 *
+	 * @param x
+	 *            The <code>x</code> position (column) of the square.
+	 * @param y
+	 *            The <code>y</code> position (row) of the square.
+	 * @return The index of the square.
+	 */
+	public int indexOf(int x, int y) {
+		return y * width + x;
+	}
+
+	/**
+	 * Returns the square with the given index if it is in use, without
+	 * creating it.
+	 *
+	 * @param index
+	 *            The index of the square.
+	 * @return The square, or <code>null</code> if it is not in use.
+	 */
+	private synchronized Square squareInUse(int index) {
+		SquareReference reference = views.get(index);
+		if (reference == null) {
+			return null;
+		}
+		return reference.get();
+	}
+
+	/**
+	 * Returns the index of the square adjacent to a square, wrapping around
+	 * the edges of the board, unless the square was linked to another one.
+	 *
+	 * @param index
+	 *            The index of the square.
+	 * @param direction
+	 *            The direction of the adjacent square.
+	 * @return The index of the adjacent square.
+	 */
+	@Override
+	public int neighbour(int index, Direction direction) {
+		Map<Long, Integer> linked = links;
+		if (linked != null) {
+			Integer other = linked.get(linkKey(index, direction));
+			if (other != null) {
+				return other;
+			}
+		}
+		int x = (width + index % width + direction.getDeltaX()) % width;
+		int y = (height + index / width + direction.getDeltaY()) % height;
+		return indexOf(x, y);
+	}
+
+	/**
+	 * Links a square to another one in the given direction, instead of the
+	 * square next to it. Like {@link Square#link(Square, Direction)}, this
+	 * is a one-way connection.
+	 *
+	 * @param index
+	 *            The index of the square.
+	 * @param direction
+	 *            The direction the other square is in, as seen from the
+	 *            square.
+	 * @param other
+	 *            The index of the other square.
+	 */
+	public synchronized void link(int index, Direction direction, int other) {
+		assert index >= 0 && index < terrain.length;
+		assert other >= 0 && other < terrain.length;
+		Map<Long, Integer> linked = new HashMap<>();
+		if (links != null) {
+			linked.putAll(links);
+		}
+		linked.put(linkKey(index, direction), other);
+		links = linked;
+	}
+
+	/**
+	 * @param index
+	 *            The index of a square.
+	 * @param direction
+	 *            A direction.
+	 * @return The key of the link of the square in the direction.
+	 */
+	private static long linkKey(int index, Direction direction) {
+		return (long) index * DIRECTIONS + direction.ordinal();
+	}
+
+	/**
+	 * @param index
+	 *            The index of the square.
+	 * @return The terrain of the square, either {@link #GROUND} or
+	 *         {@link #WALL}.
+	 */
+	public byte getTerrain(int index) {
+		return terrain[index];
+	}
+
+	/**
+	 * @param index
+	 *            The index of the square.
+	 * @return <code>true</code> iff units may occupy the square.
+	 */
+	public boolean isAccessible(int index) {
+		return terrain[index] != WALL;
+	}
+
+	/**
+	 * Determines whether units may occupy a square. All units have the same
+	 * access on a compact board.
+	 *
+	 * @param index
+	 *            The index of the square.
+	 * @param unit
+	 *            The unit to grant or deny access.
+	 * @return <code>true</code> iff units may occupy the square.
+	 */
+	@Override
+	public boolean isAccessibleTo(int index, Unit unit) {
+		return isAccessible(index);
+	}
+
+	/**
+	 * Returns the oldest unit of a certain type occupying a square, without
+	 * creating the square. A square that is not in use has no occupants,
+	 * since units refer to the square they occupy.
+	 *
+	 * @param index
+	 *            The index of the square.
+	 * @param type
+	 *            The type of unit to search for.
+	 * @param <T>
+	 *            The type of unit to search for.
+	 * @return The oldest occupant of the given type, or <code>null</code> if
+	 *         there is none.
+	 */
+	@Override
+	public <T extends Unit> T findOccupant(int index, Class<T> type) {
+		Square square = squareInUse(index);
+		if (square == null) {
+			return null;
+		}
+		return square.findOccupant(type);
+	}
+
+	/**
+	 * @param index
+	 *            The index of the square.
+	 * @return <code>true</code> iff the square holds a pellet.
+	 */
+	public synchronized boolean hasPellet(int index) {
+		return pellets.get(index);
+	}
+
+	/**
+	 * Removes the pellet from a square, if there is one.
+	 *
+	 * @param index
+	 *            The index of the square.
+	 * @return <code>true</code> iff the square held a pellet.
+	 */
+	public synchronized boolean removePellet(int index) {
+		if (!pellets.get(index)) {
+			return false;
+		}
+		pellets.clear(index);
+		pelletCount--;
+		return true;
+	}
+
+	/**
+	 * Puts a pellet back on a square, if it has none.
+	 *
+	 * @param index
+	 *            The index of the square.
+	 * @return <code>true</code> iff the square held no pellet.
+	 */
+	public synchronized boolean putPellet(int index) {
+		assert isAccessible(index);
+		if (pellets.get(index)) {
+			return false;
+		}
+		pellets.set(index);
+		pelletCount++;
+		return true;
+	}
+
+	/**
+	 * Returns the first square holding a pellet from a given index on.
+	 *
+	 * @param from
+	 *            The index to start from.
+	 * @return The index of the square, or -1 if there are no more pellets.
+	 */
+	public synchronized int nextPellet(int from) {
+		return pellets.nextSetBit(from);
+	}
+
+	/**
+	 * @return The number of pellets remaining on this board.
+	 */
+	public synchronized int getPelletCount() {
+		return pelletCount;
+	}
+
+	/**
+	 * @return The number of squares currently in use.
+	 */
+	public synchronized int getSquaresInUse() {
+		expungeReleased();
+		return views.size();
+	}
+
+	/**
+	 * Forgets the squares that are no longer in use.
+	 */
+	private void expungeReleased() {
+		SquareReference reference = (SquareReference) released.poll();
+		while (reference != null) {
+			views.remove(reference);
+			reference = (SquareReference) released.poll();
+		}
+	}
+
+	/**
+	 * A reference to a square handed out by this board, which does not keep
+	 * the square from being discarded.
+	 */
+	static final class SquareReference extends WeakReference<Square> {
+
+		/**
+		 * The index of the square.
+		 */
+		private final int index;
+
+		/**
+		 * Creates a new reference.
+		 *
+		 * @param square
+		 *            The square to refer to.
+		 * @param squareIndex
+		 *            The index of the square.
+		 * @param queue
+		 *            The queue to put the reference on once the square has
+		 *            been discarded.
+		 */
+		SquareReference(Square square, int squareIndex,
+				ReferenceQueue<Square> queue) {
+			super(square, queue);
+			this.index = squareIndex;
+		}
+	}
+
+	/**
+	 * An open addressing hash table of the squares in use, by index, with
+	 * linear probing.
+	 */
+	static final class SquareTable {
+
+		/**
+		 * The initial number of slots, a power of two.
+		 */
+		private static final int INITIAL_CAPACITY = 64;
+
+		/**
+		 * The factor spreading consecutive indices over the slots.
+		 */
+		private static final int MIX = 0x9E3779B9;
+
+		/**
+		 * The references in use, or <code>null</code> for an empty slot.
+		 */
+		private SquareReference[] slots;
+
+		/**
+		 * The number of references in the table.
+		 */
+		private int size;
+
+		/**
+		 * Creates an empty table.
+		 */
+		SquareTable() {
+			this.slots = new SquareReference[INITIAL_CAPACITY];
+		}
+
+		/**
+		 * @param index
+		 *            The index of a square.
+		 * @return The preferred slot of the square.
+		 */
+		private int home(int index) {
+			int hash = index * MIX;
+			return (hash ^ hash >>> 16) & (slots.length - 1);
+		}
+
+		/**
+		 * @param index
+		 *            The index of a square.
+		 * @return The reference to the square, or <code>null</code>.
+		 */
+		SquareReference get(int index) {
+			int mask = slots.length - 1;
+			for (int slot = home(index); slots[slot] != null;
+					slot = (slot + 1) & mask) {
+				if (slots[slot].index == index) {
+					return slots[slot];
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Adds or replaces the reference to a square.
+		 *
+		 * @param reference
+		 *            The reference.
+		 */
+		void put(SquareReference reference) {
+			if (4 * (size + 1) > 3 * slots.length) {
+				SquareReference[] old = slots;
+				slots = new SquareReference[old.length * 2];
+				size = 0;
+				for (SquareReference r : old) {
+					if (r != null) {
+						put(r);
+					}
+				}
+			}
+			int mask = slots.length - 1;
+			int slot = home(reference.index);
+			while (slots[slot] != null
+					&& slots[slot].index != reference.index) {
+				slot = (slot + 1) & mask;
+			}
+			if (slots[slot] == null) {
+				size++;
+			}
+			slots[slot] = reference;
+		}
+
+		/**
+		 * Removes a reference, if it is still the one for its square.
+		 *
+		 * @param reference
+		 *            The reference.
+		 */
+		void remove(SquareReference reference) {
+			int mask = slots.length - 1;
+			int slot = home(reference.index);
+			while (slots[slot] != null && slots[slot] != reference) {
+				slot = (slot + 1) & mask;
+			}
+			if (slots[slot] == null) {
+				return;
+			}
+			// shift back the entries that probed past the emptied slot
+			int next = slot;
+			while (true) {
+				next = (next + 1) & mask;
+				SquareReference moved = slots[next];
+				if (moved == null) {
+					break;
+				}
+				int preferred = home(moved.index);
+				boolean between;
+				if (slot <= next) {
+					between = slot < preferred && preferred <= next;
+				} else {
+					between = slot < preferred || preferred <= next;
+				}
+				if (!between) {
+					slots[slot] = moved;
+					slot = next;
+				}
+			}
+			slots[slot] = null;
+			size--;
+		}
+
+		/**
+		 * @return The number of references in the table.
+		 */
+		int size() {
+			return size;
+		}
+	}
+
+	/**
+	 * A square of a compact board, which looks up its terrain and neighbours
+	 * in the board.
+	 */
+	private final class CompactSquare extends Square {
+
+		/**
+		 * The index of this square.
+		 */
+		private final int position;
+
+		/**
+		 * Creates a new square.
+		 *
+		 * @param squareIndex
+		 *            The index of this square.
+		 */
+		private CompactSquare(int squareIndex) {
+			this.position = squareIndex;
+		}
+
+		@Override
+		public Square getSquareAt(Direction direction) {
+			int other = neighbour(position, direction);
+			return squareAt(other % width, other / width);
+		}
+
+		@Override
+		public void link(Square neighbour, Direction direction) {
+			if (neighbour.getBoard() != CompactBoard.this) {
+				throw new IllegalArgumentException(
+						"Can only link squares of the same compact board.");
+			}
+			CompactBoard.this.link(position, direction, neighbour.getIndex());
+		}
+
+		@Override
+		public boolean isAccessibleTo(Unit unit) {
+			return isAccessible(position);
+		}
+
+		@Override
+		public Sprite getSprite() {
+			return sprites[terrain[position]];
+		}
+	}
+}
@@ -1,9 +1,12 @@
 package nl.tudelft.jpacman.board;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
 
 import com.google.common.collect.ImmutableList;
 
@@ -18,21 +21,121 @@ import nl.tudelft.jpacman.sprite.Sprite;
 public abstract class Square {
 
 	/**
-	 * The units occupying this square, in order of appearance.
+	 * The occupants of an empty square.
 	 */
-	private final List<Unit> occupants;
+	private static final Unit[] EMPTY = new Unit[0];
 
 	/**
-	 * The collection of squares adjacent to this square.
+	 * The units occupying this square, in order of appearance. The array is
+	 * never changed but replaced on every change, so readers need no lock.
+	 * Changes are not synchronised by the square: units only move under the
+	 * locks of their level, which never lets two threads change the
+	 * occupants of a square at the same time.
+	 * A square without occupants shares {@link #EMPTY}, and a square with a
+	 * single occupant shares {@link Unit#getAlone()}, so that a unit moving
+	 * between squares it occupies alone creates no objects.
 	 */
-	private final Map<Direction, Square> neighbours;
+	private volatile Unit[] occupants;
+
+	/**
+	 * The unmodifiable view on {@link #occupants} handed out to readers.
+	 */
+	private final List<Unit> occupantsView;
+
+	/**
+	 * The collection of squares adjacent to this square, or <code>null</code>
+	 * until a neighbour is linked. Squares that look up their neighbours in
+	 * another way never create it.
+	 */
+	private Map<Direction, Square> neighbours;
+
+	/**
+	 * The board this square is on, or <code>null</code> if it is not on a
+	 * board.
+	 */
+	private Board board;
+
+	/**
+	 * The position of this square in the board's numbering, or -1 if this
+	 * square is not on a board.
+	 */
+	private int index;
+
+	/**
+	 * The column of this square on its board, or -1 if this square is not on
+	 * a board.
+	 */
+	private int x;
+
+	/**
+	 * The row of this square on its board, or -1 if this square is not on a
+	 * board.
+	 */
+	private int y;
 
 	/**
 	 * Creates a new, empty square.
 	 */
 	protected Square() {
-		this.occupants = new ArrayList<>();
-		this.neighbours = new EnumMap<>(Direction.class);
+		this.occupants = EMPTY;
+		this.occupantsView = new OccupantsView();
+		this.index = -1;
+		this.x = -1;
+		this.y = -1;
+	}
+
+	/**
+	 * @return The board this square is on, or <code>null</code> if it is not
+	 *         on a board.
+	 */
+	public Board getBoard() {
+		return board;
+	}
+
+	/**
+	 * Returns the number of this square on its board. Squares on a board are
+	 * numbered densely from 0, so the index can be used to look up data about
+	 * a square in an array.
+	 * 
+	 * @return The index of this square, or -1 if it is not on a board.
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * @return The column of this square on its board, or -1 if it is not on a
+	 *         board.
+	 */
+	public int getX() {
+		return x;
+	}
+
+	/**
+	 * @return The row of this square on its board, or -1 if it is not on a
+	 *         board.
+	 */
+	public int getY() {
+		return y;
+	}
+
+	/**
+	 * Sets the position of this square on its board.
+	 * 
+	 * @param owner
+	 *            The board this square is on.
+	 * @param column
+	 *            The column of this square.
+	 * @param row
+	 *            The row of this square.
+	 * @param boardIndex
+	 *            The index of this square on its board.
+	 */
+	void setPosition(Board owner, int column, int row, int boardIndex) {
+		this.board = owner;
+		this.x = column;
+		this.y = row;
+		this.index = boardIndex;
 	}
 
 	/**
@@ -43,7 +146,11 @@ public abstract class Square {
 	 * @return The adjacent square in the given direction.
 	 */
 	public Square getSquareAt(Direction direction) {
-		return neighbours.get(direction);
+		Map<Direction, Square> linked = neighbours;
+		if (linked == null) {
+			return null;
+		}
+		return linked.get(direction);
 	}
 
 	/**
@@ -56,6 +163,9 @@ public abstract class Square {
 	 *            The direction the new neighbour is in, as seen from this cell.
 	 */
 	public void link(Square neighbour, Direction direction) {
+		if (neighbours == null) {
+			neighbours = new EnumMap<>(Direction.class);
+		}
 		neighbours.put(direction, neighbour);
 	}
 
@@ -70,6 +180,72 @@ public abstract class Square {
 		return ImmutableList.copyOf(occupants);
 	}
 
+	/**
+	 * Returns an unmodifiable view on the units occupying this square, in the
+	 * order in which they occupied this square (i.e. oldest first.) Unlike
+	 * {@link #getOccupants()}, this does not copy the occupants. The view
+	 * reflects later changes, but every iteration over it sees the occupants
+	 * as they were when the iteration started, so units may enter and leave
+	 * this square while iterating.
+	 * 
+	 * @return An unmodifiable view on the units occupying this square.
+	 */
+	public List<Unit> getOccupantsView() {
+		return occupantsView;
+	}
+
+	/**
+	 * Performs an action for every unit occupying this square, oldest first,
+	 * without copying the occupants.
+	 * 
+	 * @param action
+	 *            The action to perform.
+	 */
+	public void forEachOccupant(Consumer<? super Unit> action) {
+		assert action != null;
+		for (Unit occupant : occupants) {
+			action.accept(occupant);
+		}
+	}
+
+	/**
+	 * @return The number of units occupying this square.
+	 */
+	public int getOccupantCount() {
+		return occupants.length;
+	}
+
+	/**
+	 * Returns the oldest unit of a certain type occupying this square.
+	 * 
+	 * @param type
+	 *            The type of unit to search for.
+	 * @param <T>
+	 *            The type of unit to search for.
+	 * @return The oldest occupant of the given type, or <code>null</code> if
+	 *         no such unit occupies this square.
+	 */
+	public <T extends Unit> T findOccupant(Class<T> type) {
+		for (Unit occupant : occupants) {
+			if (type.isInstance(occupant)) {
+				return type.cast(occupant);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Determines whether a unit of a certain type occupies this square.
+	 * 
+	 * @param type
+	 *            The type of unit to search for.
+	 * @return <code>true</code> iff a unit of the given type occupies this
+	 *         square.
+	 */
+	public boolean hasOccupantOfType(Class<? extends Unit> type) {
+		return findOccupant(type) != null;
+	}
+
 	/**
 	 * Adds a new occupant to this square. If the occupant was already present,
 	 * nothing changed.
@@ -80,11 +256,19 @@ public abstract class Square {
 	 */
 	boolean put(Unit occupant) {
 		assert occupant != null;
-		if (!occupants.contains(occupant)) {
-			occupants.add(occupant);
-			return true;
+		Unit[] current = occupants;
+		if (indexOf(current, occupant) >= 0) {
+			return false;
 		}
-		return false;
+		if (current.length == 0) {
+			occupants = occupant.getAlone();
+		} else {
+			Unit[] more = new Unit[current.length + 1];
+			System.arraycopy(current, 0, more, 0, current.length);
+			more[current.length] = occupant;
+			occupants = more;
+		}
+		return true;
 	}
 
 	/**
@@ -95,7 +279,38 @@ public abstract class Square {
 	 */
 	void remove(Unit occupant) {
 		assert occupant != null;
-		occupants.remove(occupant);
+		Unit[] current = occupants;
+		int position = indexOf(current, occupant);
+		if (position < 0) {
+			return;
+		}
+		if (current.length == 1) {
+			occupants = EMPTY;
+		} else if (current.length == 2) {
+			occupants = current[1 - position].getAlone();
+		} else {
+			Unit[] fewer = new Unit[current.length - 1];
+			System.arraycopy(current, 0, fewer, 0, position);
+			System.arraycopy(current, position + 1, fewer, position,
+					fewer.length - position);
+			occupants = fewer;
+		}
+	}
+
+	/**
+	 * @param units
+	 *            The occupants of a square.
+	 * @param unit
+	 *            The unit to search for.
+	 * @return The position of the unit among the occupants, or -1.
+	 */
+	private static int indexOf(Unit[] units, Unit unit) {
+		for (int i = 0; i < units.length; i++) {
+			if (units[i] == unit) {
+				return i;
+			}
+		}
+		return -1;
 	}
 
 	/**
@@ -130,4 +345,70 @@ public abstract class Square {
 	 */
 	public abstract Sprite getSprite();
 
+	/**
+	 * The unmodifiable view on the occupants. Its iterators walk the array of
+	 * occupants as it was when they were created.
+	 */
+	private final class OccupantsView extends AbstractList<Unit> {
+
+		@Override
+		public Unit get(int position) {
+			return occupants[position];
+		}
+
+		@Override
+		public int size() {
+			return occupants.length;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return o instanceof Unit && Square.indexOf(occupants, (Unit) o) >= 0;
+		}
+
+		@Override
+		public Iterator<Unit> iterator() {
+			return new OccupantIterator(occupants);
+		}
+	}
+
+	/**
+	 * An iterator over an array of occupants, which does not support
+	 * removal.
+	 */
+	private static final class OccupantIterator implements Iterator<Unit> {
+
+		/**
+		 * The occupants to iterate over.
+		 */
+		private final Unit[] units;
+
+		/**
+		 * The position of the next occupant.
+		 */
+		private int next;
+
+		/**
+		 * Creates a new iterator.
+		 *
+		 * @param occupantArray
+		 *            The occupants to iterate over, which are never changed.
+		 */
+		private OccupantIterator(Unit[] occupantArray) {
+			this.units = occupantArray;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < units.length;
+		}
+
+		@Override
+		public Unit next() {
+			if (next >= units.length) {
+				throw new NoSuchElementException();
+			}
+			return units[next++];
+		}
+	}
 }
@@ -19,12 +19,27 @@ public abstract class Unit {
 	 */
 	private Direction direction;
 
+	/**
+	 * The occupants of a square occupied by this unit alone. Squares share
+	 * this array, which is never changed, so that moving a unit between empty
+	 * squares creates no objects.
+	 */
+	private final Unit[] alone = {this};
+
 	/**
 	 * Creates a unit that is facing east.
 	 */
 	protected Unit() {
 		this.direction = Direction.EAST;
 	}
+
+	/**
+	 * @return The occupants of a square occupied by this unit alone, which
+	 *         must not be changed.
+	 */
+	Unit[] getAlone() {
+		return alone;
+	}
 	
 	/**
 	 * Sets this unit to face the new direction.
@@ -90,7 +105,7 @@ public abstract class Unit {
 	 *         not occupying any square.
 	 */
 	protected boolean invariant() {
-		return square == null || square.getOccupants().contains(this);
+		return square == null || square.getOccupantsView().contains(this);
 	}
 
 	/**
@@ -92,6 +92,23 @@ public abstract class Game implements LevelObserver {
 			getLevel().move(player, direction);
 		}
 	}
+
+	/**
+	 * Queues a move of the specified player one square in the given
+	 * direction, to be executed at the next tick of the level. Unlike
+	 * {@link #move(Player, Direction)}, this never waits for other moves in
+	 * progress, so it is suited for calling from input threads.
+	 * 
+	 * @param player
+	 *            The player to move.
+	 * @param direction
+	 *            The direction to move in.
+	 */
+	public void queueMove(Player player, Direction direction) {
+		if (isInProgress()) {
+			getLevel().getInputQueue().offer(player, direction);
+		}
+	}
 	
 	@Override
 	public void levelWon() {
@@ -102,4 +119,9 @@ public abstract class Game implements LevelObserver {
 	public void levelLost() {
 		stop();
 	}
+
+	@Override
+	public void levelFailed(Throwable cause) {
+		stop();
+	}
 }
@@ -1,6 +1,10 @@
 package nl.tudelft.jpacman.game;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import nl.tudelft.jpacman.level.Level;
+import nl.tudelft.jpacman.level.Player;
 import nl.tudelft.jpacman.level.PlayerFactory;
 
 /**
@@ -36,6 +40,24 @@ public class GameFactory {
 		return new SinglePlayerGame(playerFact.createPacMan(), level);
 	}
 
+	/**
+	 * Creates a game for a single level with several players.
+	 * 
+	 * @param level
+	 *            The level to create a game for.
+	 * @param playerCount
+	 *            The number of players.
+	 * @return A new multi player game.
+	 */
+	public Game createMultiPlayerGame(Level level, int playerCount) {
+		assert playerCount > 0;
+		List<Player> players = new ArrayList<>(playerCount);
+		for (int i = 0; i < playerCount; i++) {
+			players.add(playerFact.createPacMan());
+		}
+		return new MultiPlayerGame(players, level);
+	}
+
 	/**
 	 * Returns the player factory associated with this game factory.
 	 * @return the player factory associated with this game factory.
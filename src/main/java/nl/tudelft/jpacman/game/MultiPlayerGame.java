@@ -0,0 +1,98 @@
+package nl.tudelft.jpacman.game;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.level.InputQueue;
+import nl.tudelft.jpacman.level.Level;
+import nl.tudelft.jpacman.level.Player;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A game with any number of players on a single level. Every player has an
+ * input queue of its own, so that a player sending many moves cannot crowd
+ * out the moves of the others. The game is lost once all players have died.
+ */
+public class MultiPlayerGame extends Game {
+
+	/**
+	 * The players of this game.
+	 */
+	private final List<Player> players;
+
+	/**
+	 * The level of this game.
+	 */
+	private final Level level;
+
+	/**
+	 * The input queue of every player.
+	 */
+	private final Map<Player, InputQueue> inputs;
+
+	/**
+	 * Create a new multi player game for the provided level and players.
+	 *
+	 * @param ps
+	 *            The players.
+	 * @param l
+	 *            The level.
+	 */
+	protected MultiPlayerGame(List<Player> ps, Level l) {
+		assert ps != null && !ps.isEmpty();
+		assert l != null;
+
+		this.players = ImmutableList.copyOf(ps);
+		this.level = l;
+		this.inputs = new HashMap<>();
+		for (Player p : players) {
+			level.registerPlayer(p);
+			InputQueue queue = new InputQueue();
+			inputs.put(p, queue);
+			level.addInputQueue(queue);
+		}
+	}
+
+	@Override
+	public List<Player> getPlayers() {
+		return players;
+	}
+
+	@Override
+	public Level getLevel() {
+		return level;
+	}
+
+	/**
+	 * Queues a move of the specified player in the player's own input queue,
+	 * to be executed at the next tick of the level.
+	 *
+	 * @param player
+	 *            The player to move.
+	 * @param direction
+	 *            The direction to move in.
+	 */
+	@Override
+	public void queueMove(Player player, Direction direction) {
+		InputQueue queue = inputs.get(player);
+		assert queue != null : "Player is not part of this game.";
+		if (isInProgress()) {
+			queue.offer(player, direction);
+		}
+	}
+
+	/**
+	 * Returns the input queue of a player, for instance to read its latency
+	 * statistics.
+	 *
+	 * @param player
+	 *            A player of this game.
+	 * @return The input queue of the player.
+	 */
+	public InputQueue getInputQueue(Player player) {
+		return inputs.get(player);
+	}
+}
@@ -0,0 +1,211 @@
+package nl.tudelft.jpacman.level;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import nl.tudelft.jpacman.PacmanConfigurationException;
+
+/**
+ * A compact binary representation of maps, which can be read into levels much
+ * faster than text, see {@link MapParser#parseBinaryMap(java.nio.ByteBuffer)}.
+ * <p>
+ * All numbers are big endian. A map consists of:
+ * <ul>
+ * <li>the magic number {@value #MAGIC} and the version {@value #VERSION}, as
+ * an <code>int</code> and a <code>short</code>, followed by a reserved
+ * <code>short</code> that is 0;</li>
+ * <li>the width and height of the map, as <code>int</code>s;</li>
+ * <li>the terrain, as runs of squares of the same terrain in order of their
+ * index (row by row). Every run is an unsigned LEB128 number holding the
+ * length of the run shifted left by one, with the lowest bit set for walls;
+ * </li>
+ * <li>the pellet bitmap, with a bit per square that is set if the square holds
+ * a pellet. Bit <code>i % 8</code> of byte <code>i / 8</code> is the bit of
+ * square <code>i</code>;</li>
+ * <li>the ghost squares and the player start squares, each as an
+ * <code>int</code> count followed by the <code>int</code> indices of the
+ * squares, in the order the ghosts are created and the start squares are
+ * used.</li>
+ * </ul>
+ * Several maps can be stored one after the other in the same file.
+ */
+public final class BinaryMapFormat {
+
+	/**
+	 * The first four bytes of every map, "JPMB".
+	 */
+	public static final int MAGIC = 0x4A504D42;
+
+	/**
+	 * The version of the format written.
+	 */
+	public static final short VERSION = 1;
+
+	/**
+	 * The number of bits of a run length in a byte of its LEB128 encoding.
+	 */
+	static final int RUN_BITS = 7;
+
+	/**
+	 * The bit of a LEB128 byte that is set when more bytes follow.
+	 */
+	static final int MORE = 0x80;
+
+	private BinaryMapFormat() {
+	}
+
+	/**
+	 * Converts the text representation of a map into its binary
+	 * representation, see {@link MapParser#parseMap(char[][])} for the
+	 * supported characters.
+	 *
+	 * @param text
+	 *            The rows of the map, all of the same width, with the first
+	 *            element being the top row.
+	 * @return The binary representation of the map.
+	 * @throws PacmanConfigurationException
+	 *             If the text is not a valid map.
+	 */
+	public static byte[] toBytes(List<String> text) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try {
+			write(text, bytes);
+		} catch (IOException e) {
+			throw new AssertionError("Byte arrays are always written.", e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Writes the binary representation of a map, see
+	 * {@link MapParser#parseMap(char[][])} for the supported characters.
+	 *
+	 * @param text
+	 *            The rows of the map, all of the same width, with the first
+	 *            element being the top row.
+	 * @param destination
+	 *            The stream to write the map to, which is not closed.
+	 * @throws IOException
+	 *             When the stream could not be written.
+	 * @throws PacmanConfigurationException
+	 *             If the text is not a valid map.
+	 */
+	public static void write(List<String> text, OutputStream destination)
+			throws IOException {
+		MapParser.checkMapFormat(text);
+		int width = text.get(0).length();
+		int height = text.size();
+		if ((long) width * height > Integer.MAX_VALUE) {
+			throw new PacmanConfigurationException("Map of " + width + "x"
+					+ height + " squares is too large.");
+		}
+
+		DataOutputStream out = new DataOutputStream(destination);
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+		out.writeShort(0);
+		out.writeInt(width);
+		out.writeInt(height);
+
+		byte[] pellets = new byte[(width * height + Byte.SIZE - 1)
+				/ Byte.SIZE];
+		boolean wall = false;
+		long run = 0;
+		for (int y = 0; y < height; y++) {
+			String row = text.get(y);
+			for (int x = 0; x < width; x++) {
+				char c = row.charAt(x);
+				if (!isSupported(c)) {
+					throw new PacmanConfigurationException(
+							"Invalid character at " + x + "," + y + ": " + c);
+				}
+				if ((c == '#') != wall) {
+					writeRun(out, run, wall);
+					wall = !wall;
+					run = 0;
+				}
+				run++;
+				if (c == '.') {
+					int index = y * width + x;
+					pellets[index / Byte.SIZE] |= 1 << (index % Byte.SIZE);
+				}
+			}
+		}
+		writeRun(out, run, wall);
+		out.write(pellets);
+
+		writeSquares(out, text, 'G');
+		writeSquares(out, text, 'P');
+		out.flush();
+	}
+
+	/**
+	 * @param c
+	 *            A character of a map.
+	 * @return <code>true</code> iff the character stands for a square.
+	 */
+	private static boolean isSupported(char c) {
+		return c == ' ' || c == '#' || c == '.' || c == 'G' || c == 'P';
+	}
+
+	/**
+	 * Writes a run of squares of the same terrain. The run is empty only when
+	 * the map starts with a wall.
+	 *
+	 * @param out
+	 *            The stream to write to.
+	 * @param length
+	 *            The number of squares in the run.
+	 * @param wall
+	 *            Whether the squares are walls.
+	 * @throws IOException
+	 *             When the stream could not be written.
+	 */
+	private static void writeRun(DataOutputStream out, long length,
+			boolean wall) throws IOException {
+		long value = length << 1;
+		if (wall) {
+			value |= 1;
+		}
+		while (value >= MORE) {
+			out.writeByte((int) (value & (MORE - 1)) | MORE);
+			value >>>= RUN_BITS;
+		}
+		out.writeByte((int) value);
+	}
+
+	/**
+	 * Writes the indices of all squares of a kind, by column and then by row,
+	 * which is the order in which the text parser creates ghosts and uses
+	 * start squares.
+	 *
+	 * @param out
+	 *            The stream to write to.
+	 * @param text
+	 *            The rows of the map.
+	 * @param kind
+	 *            The character of the squares.
+	 * @throws IOException
+	 *             When the stream could not be written.
+	 */
+	private static void writeSquares(DataOutputStream out, List<String> text,
+			char kind) throws IOException {
+		int width = text.get(0).length();
+		List<Integer> indices = new ArrayList<>();
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < text.size(); y++) {
+				if (text.get(y).charAt(x) == kind) {
+					indices.add(y * width + x);
+				}
+			}
+		}
+		out.writeInt(indices.size());
+		for (int index : indices) {
+			out.writeInt(index);
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package nl.tudelft.jpacman.level;
+
+/**
+ * A source of time for the {@link GameLoop}. Replacing the clock allows the
+ * simulation to run in real time, or as fast as the CPU allows.
+ */
+public interface Clock {
+
+	/**
+	 * Returns the current time of this clock. The value is only meaningful
+	 * relative to other values returned by the same clock.
+	 *
+	 * @return The current time in milliseconds.
+	 */
+	long currentTimeMillis();
+
+	/**
+	 * Blocks until this clock has reached the given time. Returns immediately
+	 * if that time has already passed.
+	 *
+	 * @param timeMillis
+	 *            The time to wait for, as returned by
+	 *            {@link #currentTimeMillis()}.
+	 * @throws InterruptedException
+	 *             When the waiting thread is interrupted.
+	 */
+	void sleepUntil(long timeMillis) throws InterruptedException;
+}
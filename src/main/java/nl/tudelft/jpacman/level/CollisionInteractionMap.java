@@ -9,12 +9,30 @@ import nl.tudelft.jpacman.board.Unit;
 
 /**
  * A map of possible collisions and their handlers.
+ * <p>
+ * Finding the handler for a pair of units means searching the class hierarchy
+ * of both. The outcome only depends on the classes of the units, so it is
+ * remembered per pair of classes in {@link ClassValue}s until a new handler
+ * is added. Remembered handlers do not keep the classes of the units from
+ * being unloaded.
  * 
  * @author Michael de Jong
  * @author Jeroen Roosen 
  */
 public class CollisionInteractionMap implements CollisionMap {
 
+	/**
+	 * The handler remembered for pairs of classes without a handler, which
+	 * does nothing.
+	 */
+	private static final CollisionHandler<Unit, Unit> NO_COLLISION =
+			new CollisionHandler<Unit, Unit>() {
+				@Override
+				public void handleCollision(Unit collider, Unit collidee) {
+					// nothing happens
+				}
+			};
+
 	/**
 	 * The collection of collision handlers.
 	 */
@@ -23,6 +41,13 @@ public class CollisionInteractionMap implements CollisionMap {
 			Map<Class<? extends Unit>, CollisionHandler<?, ?>>
 	> handlers;
 
+	/**
+	 * The handlers found for the pairs of classes that collided so far, by
+	 * collider class and then collidee class. Replaced by an empty cache
+	 * whenever a handler is added.
+	 */
+	private volatile ClassValue<ClassValue<CollisionHandler<?, ?>>> resolved;
+
 	/**
 	 * Creates a new, empty collision map.
 	 */
@@ -32,6 +57,7 @@ public class CollisionInteractionMap implements CollisionMap {
 				Class<? extends Unit>,
 				Map<Class<? extends Unit>, CollisionHandler<?, ?>>
 		>();
+		this.resolved = newCache();
 	}
 
 	/**
@@ -108,6 +134,33 @@ public class CollisionInteractionMap implements CollisionMap {
 		Map<Class<? extends Unit>, CollisionHandler<?, ?>> map = handlers
 				.get(collider);
 		map.put(collidee, handler);
+		resolved = newCache();
+	}
+
+	/**
+	 * Creates an empty cache of handlers, which looks up the handler of a
+	 * pair of classes the first time the pair collides.
+	 *
+	 * @return An empty cache of handlers.
+	 */
+	private ClassValue<ClassValue<CollisionHandler<?, ?>>> newCache() {
+		return new ClassValue<ClassValue<CollisionHandler<?, ?>>>() {
+			@Override
+			@SuppressWarnings("unchecked")
+			protected ClassValue<CollisionHandler<?, ?>> computeValue(
+					Class<?> colliderClass) {
+				final Class<? extends Unit> collider =
+						(Class<? extends Unit>) colliderClass;
+				return new ClassValue<CollisionHandler<?, ?>>() {
+					@Override
+					protected CollisionHandler<?, ?> computeValue(
+							Class<?> collideeClass) {
+						return findHandler(collider,
+								(Class<? extends Unit>) collideeClass);
+					}
+				};
+			}
+		};
 	}
 
 	/**
@@ -128,27 +181,51 @@ public class CollisionInteractionMap implements CollisionMap {
 	@Override
 	public <C1 extends Unit, C2 extends Unit> void collide(C1 collider,
 			C2 collidee) {
+		CollisionHandler<C1, C2> collisionHandler = (CollisionHandler<C1, C2>) resolved
+				.get(collider.getClass()).get(collidee.getClass());
+		collisionHandler.handleCollision(collider, collidee);
+	}
+
+	/**
+	 * Finds the handler for the collision between two classes of units.
+	 * 
+	 * @param <C1>
+	 *            The collider type.
+	 * @param <C2>
+	 *            The collidee (unit that was moved into) type.
+	 * 
+	 * @param colliderClass
+	 *            The class of the collider.
+	 * @param collideeClass
+	 *            The class of the collidee.
+	 * @return The handler for the collision, or a handler that does nothing
+	 *         if no suitable handler is listed.
+	 */
+	@SuppressWarnings("unchecked")
+	private <C1 extends Unit, C2 extends Unit> CollisionHandler<C1, C2> findHandler(
+			Class<? extends Unit> colliderClass,
+			Class<? extends Unit> collideeClass) {
+		CollisionHandler<?, ?> none = NO_COLLISION;
 		Class<? extends Unit> colliderKey = getMostSpecificClass(handlers,
-				collider.getClass());
+				colliderClass);
 		if (colliderKey == null) {
-			return;
+			return (CollisionHandler<C1, C2>) none;
 		}
 
 		Map<Class<? extends Unit>, CollisionHandler<?, ?>> map = handlers
 				.get(colliderKey);
 		Class<? extends Unit> collideeKey = getMostSpecificClass(map,
-				collidee.getClass());
+				collideeClass);
 		if (collideeKey == null) {
-			return;
+			return (CollisionHandler<C1, C2>) none;
 		}
 
 		CollisionHandler<C1, C2> collisionHandler = (CollisionHandler<C1, C2>) map
 				.get(collideeKey);
 		if (collisionHandler == null) {
-			return;
+			return (CollisionHandler<C1, C2>) none;
 		}
-
-		collisionHandler.handleCollision(collider, collidee);
+		return collisionHandler;
 	}
 
 	/**
@@ -0,0 +1,180 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * A fixed time step simulation loop. A single thread advances all levels
+ * attached to this loop by one tick every
+ * {@link TickScheduler#getTickMillis()} milliseconds, as measured by the
+ * provided {@link Clock}. Any number of levels can share one loop, so the
+ * amount of threads does not grow with the number of levels or NPCs.
+ * <p>
+ * The thread is started when the first level is added and stopped once the
+ * last level is removed. A level whose tick throws is logged and stopped, so
+ * that it can not stop the other levels, and its observers are told it
+ * failed.
+ */
+public class GameLoop implements LevelDriver {
+
+	/**
+	 * The maximum number of ticks the loop will try to catch up on when it
+	 * falls behind. Any further delay is dropped, slowing the game down
+	 * instead of making it stutter.
+	 */
+	private static final int MAX_CATCH_UP_TICKS = 10;
+
+	/**
+	 * The logger reporting levels that failed.
+	 */
+	private static final Logger LOGGER = Logger.getLogger(GameLoop.class
+			.getName());
+
+	/**
+	 * The clock determining when the next tick is due.
+	 */
+	private final Clock clock;
+
+	/**
+	 * The duration of a single tick in milliseconds.
+	 */
+	private final long tickMillis;
+
+	/**
+	 * The levels being driven by this loop.
+	 */
+	private final List<Level> levels;
+
+	/**
+	 * The lock that ensures adding and removing levels can't interfere with
+	 * starting and stopping the thread.
+	 */
+	private final Object lifecycleLock = new Object();
+
+	/**
+	 * The service running the loop, or <code>null</code> if it is not
+	 * running.
+	 */
+	private ExecutorService service;
+
+	/**
+	 * Creates a new loop with ticks of
+	 * {@value TickScheduler#DEFAULT_TICK_MILLIS} milliseconds.
+	 *
+	 * @param c
+	 *            The clock determining when the next tick is due.
+	 */
+	public GameLoop(Clock c) {
+		this(c, TickScheduler.DEFAULT_TICK_MILLIS);
+	}
+
+	/**
+	 * Creates a new loop.
+	 *
+	 * @param c
+	 *            The clock determining when the next tick is due.
+	 * @param tickDuration
+	 *            The duration of a single tick in milliseconds.
+	 */
+	public GameLoop(Clock c, long tickDuration) {
+		assert c != null;
+		assert tickDuration > 0;
+		this.clock = c;
+		this.tickMillis = tickDuration;
+		this.levels = new CopyOnWriteArrayList<>();
+	}
+
+	/**
+	 * Adds a level to be driven by this loop, starting the loop if needed.
+	 *
+	 * @param level
+	 *            The level to drive.
+	 */
+	@Override
+	public void add(Level level) {
+		assert level != null;
+		synchronized (lifecycleLock) {
+			if (levels.contains(level)) {
+				return;
+			}
+			levels.add(level);
+			if (service == null) {
+				service = Executors.newSingleThreadExecutor();
+				service.execute(new Loop());
+			}
+		}
+	}
+
+	/**
+	 * Removes a level from this loop, stopping the loop if no levels remain.
+	 *
+	 * @param level
+	 *            The level to remove.
+	 */
+	@Override
+	public void remove(Level level) {
+		synchronized (lifecycleLock) {
+			levels.remove(level);
+			if (levels.isEmpty() && service != null) {
+				service.shutdownNow();
+				service = null;
+			}
+		}
+	}
+
+	/**
+	 * @return <code>true</code> iff the loop thread is running.
+	 */
+	public boolean isRunning() {
+		synchronized (lifecycleLock) {
+			return service != null;
+		}
+	}
+
+	/**
+	 * The body of the loop thread.
+	 */
+	private final class Loop implements Runnable {
+
+		@Override
+		public void run() {
+			long next = clock.currentTimeMillis();
+			try {
+				while (!Thread.currentThread().isInterrupted()) {
+					tickAll();
+					next += tickMillis;
+					long behind = clock.currentTimeMillis() - next;
+					if (behind > MAX_CATCH_UP_TICKS * tickMillis) {
+						next += behind;
+					}
+					clock.sleepUntil(next);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		/**
+		 * Advances every level by one tick, unless this loop has been stopped
+		 * in the meantime. Levels whose tick fails are stopped.
+		 */
+		private void tickAll() {
+			for (Level level : levels) {
+				if (Thread.currentThread().isInterrupted()) {
+					return;
+				}
+				try {
+					level.tick();
+				} catch (RuntimeException | AssertionError e) {
+					LOGGER.log(java.util.logging.Level.SEVERE,
+							"Level tick failed, stopping the level.", e);
+					remove(level);
+					level.fail(e);
+				}
+			}
+		}
+	}
+}
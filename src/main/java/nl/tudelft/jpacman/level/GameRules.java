@@ -0,0 +1,215 @@
+package nl.tudelft.jpacman.level;
+
+import nl.tudelft.jpacman.board.Direction;
+
+/**
+ * Plays single player games of a map as a function from one
+ * {@link GameState} to the next, so that many possible continuations of a
+ * game can be explored, also by many threads in parallel, without copying a
+ * level for every one of them.
+ * <p>
+ * Every thread steps states on a level of its own, created once from the
+ * template of the map. The level is put in the state to step from and
+ * played with the regular rules: the collisions of {@link PlayerCollisions}
+ * and the ghost strategies and timers of {@link Level}. The state it ends up
+ * in is returned as a new state. Only the units and pellets that differ
+ * from the previous state of the level are put back, so stepping on from
+ * the state just returned is cheapest.
+ * <p>
+ * Ghosts wait a random time between moves and sometimes move at random, as
+ * they do on any level, so stepping the same state twice may give different
+ * states.
+ */
+public class GameRules {
+
+	/**
+	 * The default number of ticks a step lasts, 200 ms at the default tick
+	 * duration, which is a little less than the time between two moves of a
+	 * ghost.
+	 */
+	public static final int DEFAULT_TICKS_PER_STEP = 20;
+
+	/**
+	 * The template of the map.
+	 */
+	private final LevelTemplate template;
+
+	/**
+	 * The factory creating the player of every level.
+	 */
+	private final PlayerFactory playerFactory;
+
+	/**
+	 * The number of ticks a step lasts.
+	 */
+	private final int ticksPerStep;
+
+	/**
+	 * The level of every thread.
+	 */
+	private final ThreadLocal<Simulation> simulations;
+
+	/**
+	 * The state every game starts in, or <code>null</code> until asked for.
+	 */
+	private volatile GameState initial;
+
+	/**
+	 * Creates new rules with steps of {@value #DEFAULT_TICKS_PER_STEP} ticks.
+	 *
+	 * @param map
+	 *            The template of the map to play.
+	 * @param players
+	 *            The factory creating the player.
+	 */
+	public GameRules(LevelTemplate map, PlayerFactory players) {
+		this(map, players, DEFAULT_TICKS_PER_STEP);
+	}
+
+	/**
+	 * Creates new rules.
+	 *
+	 * @param map
+	 *            The template of the map to play.
+	 * @param players
+	 *            The factory creating the player.
+	 * @param ticks
+	 *            The number of ticks a step lasts, at least 1.
+	 */
+	public GameRules(LevelTemplate map, PlayerFactory players, int ticks) {
+		assert map != null;
+		assert players != null;
+		assert ticks > 0;
+		this.template = map;
+		this.playerFactory = players;
+		this.ticksPerStep = ticks;
+		this.simulations = new ThreadLocal<Simulation>() {
+			@Override
+			protected Simulation initialValue() {
+				return new Simulation();
+			}
+		};
+	}
+
+	/**
+	 * @return The number of ticks a step lasts.
+	 */
+	public int getTicksPerStep() {
+		return ticksPerStep;
+	}
+
+	/**
+	 * @return The width of the map.
+	 */
+	int getWidth() {
+		return template.getWidth();
+	}
+
+	/**
+	 * Returns the state every game starts in, with the player on the first
+	 * start square and the ghosts about to start moving.
+	 *
+	 * @return The initial state.
+	 */
+	public GameState getInitialState() {
+		GameState state = initial;
+		if (state == null) {
+			synchronized (this) {
+				state = initial;
+				if (state == null) {
+					state = new GameState(this, new Simulation().current);
+					initial = state;
+				}
+			}
+		}
+		return state;
+	}
+
+	/**
+	 * Computes the state following another, in which the player moved in a
+	 * direction and then the ghosts moved for the duration of a step. The
+	 * step ends early when the player dies or eats the last pellet. The given
+	 * state is not changed. May be called from any thread.
+	 *
+	 * @param state
+	 *            The state to step from, created by these rules.
+	 * @param playerDirection
+	 *            The direction to move the player in, or <code>null</code> to
+	 *            leave the player where it is.
+	 * @return The next state, or the given state if its game is over.
+	 */
+	public GameState step(GameState state, Direction playerDirection) {
+		assert state != null && state.getRules() == this;
+		if (state.isOver()) {
+			return state;
+		}
+		LevelSnapshot next = simulations.get().step(state.getSnapshot(),
+				playerDirection);
+		return new GameState(this, next);
+	}
+
+	/**
+	 * A level and its player, used by a single thread to step states.
+	 */
+	private final class Simulation {
+
+		/**
+		 * The level.
+		 */
+		private final Level level;
+
+		/**
+		 * The player on the level.
+		 */
+		private final Player player;
+
+		/**
+		 * The state the level is in.
+		 */
+		private LevelSnapshot current;
+
+		/**
+		 * Creates a level of the map and starts it.
+		 */
+		private Simulation() {
+			this.level = template.createLevel();
+			level.setDriver(null);
+			this.player = playerFactory.createPacMan();
+			level.registerPlayer(player);
+			level.trackEatenPellets();
+			level.start();
+			this.current = level.snapshot();
+		}
+
+		/**
+		 * Plays a step from a state.
+		 *
+		 * @param from
+		 *            The state to step from.
+		 * @param direction
+		 *            The direction to move the player in, or
+		 *            <code>null</code>.
+		 * @return The state after the step.
+		 */
+		private LevelSnapshot step(LevelSnapshot from, Direction direction) {
+			if (from != current) {
+				level.restore(from, current);
+			}
+			if (direction != null) {
+				level.move(player, direction);
+			}
+			for (int i = 0; i < ticksPerStep && !isOver(); i++) {
+				level.tick();
+			}
+			current = level.snapshot(from);
+			return current;
+		}
+
+		/**
+		 * @return <code>true</code> iff the player died or ate all pellets.
+		 */
+		private boolean isOver() {
+			return !player.isAlive() || level.remainingPellets() == 0;
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package nl.tudelft.jpacman.level;
+
+/**
+ * An immutable state of a single player game, for searching through the
+ * possible games, see {@link GameRules#step(GameState,
+ * nl.tudelft.jpacman.board.Direction)}. A state can be read and stepped from
+ * by any number of threads at the same time.
+ * <p>
+ * States hold no squares or units, only the primitive arrays of a
+ * {@link LevelSnapshot}. A state and the states stepped from it share the
+ * chunks of pellet bits in which no pellet was eaten, so a long game does
+ * not copy all pellets on every step.
+ */
+public final class GameState {
+
+	/**
+	 * The rules this state follows.
+	 */
+	private final GameRules rules;
+
+	/**
+	 * The state of the level, never changed.
+	 */
+	private final LevelSnapshot snapshot;
+
+	/**
+	 * Creates a new state.
+	 *
+	 * @param r
+	 *            The rules the state follows.
+	 * @param s
+	 *            The state of the level, which must not be changed anymore.
+	 */
+	GameState(GameRules r, LevelSnapshot s) {
+		assert r != null;
+		assert s != null && s.getPlayerCount() == 1;
+		this.rules = r;
+		this.snapshot = s;
+	}
+
+	/**
+	 * @return The rules this state follows.
+	 */
+	GameRules getRules() {
+		return rules;
+	}
+
+	/**
+	 * @return The state of the level.
+	 */
+	LevelSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * @return The number of ticks that have passed since the game started.
+	 */
+	public long getTick() {
+		return snapshot.getTick();
+	}
+
+	/**
+	 * @return The score of the player.
+	 */
+	public int getScore() {
+		return snapshot.getScore(0);
+	}
+
+	/**
+	 * @return <code>true</code> iff the player is alive.
+	 */
+	public boolean isPlayerAlive() {
+		return snapshot.alive[0];
+	}
+
+	/**
+	 * @return The number of pellets left on the board.
+	 */
+	public int getRemainingPellets() {
+		return snapshot.getRemainingPellets();
+	}
+
+	/**
+	 * @return <code>true</code> iff all pellets have been eaten.
+	 */
+	public boolean isWon() {
+		return getRemainingPellets() == 0;
+	}
+
+	/**
+	 * @return <code>true</code> iff the game is over, because the player
+	 *         died or all pellets have been eaten.
+	 */
+	public boolean isOver() {
+		return !isPlayerAlive() || isWon();
+	}
+
+	/**
+	 * @return The x position of the player.
+	 */
+	public int getPlayerX() {
+		return snapshot.playerSquares[0] % rules.getWidth();
+	}
+
+	/**
+	 * @return The y position of the player.
+	 */
+	public int getPlayerY() {
+		return snapshot.playerSquares[0] / rules.getWidth();
+	}
+
+	/**
+	 * @return The number of ghosts.
+	 */
+	public int getGhostCount() {
+		return snapshot.getGhostCount();
+	}
+
+	/**
+	 * @param ghost
+	 *            The number of the ghost, in the order the ghosts were
+	 *            created.
+	 * @return The x position of the ghost.
+	 */
+	public int getGhostX(int ghost) {
+		return snapshot.ghostSquares[ghost] % rules.getWidth();
+	}
+
+	/**
+	 * @param ghost
+	 *            The number of the ghost, in the order the ghosts were
+	 *            created.
+	 * @return The y position of the ghost.
+	 */
+	public int getGhostY(int ghost) {
+		return snapshot.ghostSquares[ghost] / rules.getWidth();
+	}
+}
@@ -0,0 +1,235 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Unit;
+
+/**
+ * A bounded queue of move commands for a level, into which any number of
+ * threads (key listeners, remote or bot controllers) can put commands
+ * without blocking, and from which the level applies them at its next tick.
+ * Input therefore never waits for a move in progress, and all moves of a
+ * level are executed by the thread that advances it.
+ * <p>
+ * Commands are applied in the order in which they were queued. When a unit
+ * has been given the same direction several times in a row since the last
+ * tick, such as by a held down key, it is moved only once. When the queue is
+ * full, new commands are dropped.
+ * <p>
+ * The queue keeps statistics on the commands, including the latency from
+ * queueing a command until it is applied.
+ */
+public class InputQueue {
+
+	/**
+	 * The default maximum number of commands waiting to be applied.
+	 */
+	public static final int DEFAULT_CAPACITY = 256;
+
+	/**
+	 * The commands waiting to be applied.
+	 */
+	private final RingBuffer<Command> commands;
+
+	/**
+	 * The last direction each unit was given in the commands applied during
+	 * the current drain, used to skip repetitions. Only used by the consumer.
+	 */
+	private final Map<Unit, Direction> lastDirections;
+
+	/**
+	 * The number of commands that were dropped because the queue was full.
+	 */
+	private final AtomicLong dropped;
+
+	/**
+	 * The number of commands applied.
+	 */
+	private volatile long applied;
+
+	/**
+	 * The number of commands skipped as repetitions.
+	 */
+	private volatile long coalesced;
+
+	/**
+	 * The sum of the latencies of all applied commands, in nanoseconds.
+	 */
+	private volatile long totalLatency;
+
+	/**
+	 * The largest latency of an applied command, in nanoseconds.
+	 */
+	private volatile long maxLatency;
+
+	/**
+	 * Creates a new queue holding up to {@value #DEFAULT_CAPACITY} commands.
+	 */
+	public InputQueue() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a new queue.
+	 *
+	 * @param capacity
+	 *            The maximum number of commands waiting to be applied,
+	 *            rounded up to a power of two.
+	 */
+	public InputQueue(int capacity) {
+		this.commands = new RingBuffer<>(capacity);
+		this.lastDirections = new IdentityHashMap<>();
+		this.dropped = new AtomicLong();
+	}
+
+	/**
+	 * Queues a command to move a unit. Never blocks and may be called from
+	 * any thread.
+	 *
+	 * @param unit
+	 *            The unit to move.
+	 * @param direction
+	 *            The direction to move the unit in.
+	 * @return <code>true</code> iff the command was queued,
+	 *         <code>false</code> if it was dropped because the queue is full.
+	 */
+	public boolean offer(Unit unit, Direction direction) {
+		assert unit != null;
+		assert direction != null;
+		if (!commands.offer(new Command(unit, direction, System.nanoTime()))) {
+			dropped.incrementAndGet();
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Applies all queued commands to a level. Must only be called by one
+	 * thread at a time, which is the case for the ticks of a level.
+	 *
+	 * @param level
+	 *            The level to move the units on.
+	 * @return The number of commands applied.
+	 */
+	int drain(Level level) {
+		int count = 0;
+		Command command;
+		// a command claimed but not filled yet is applied at the next tick
+		while ((command = commands.poll()) != null) {
+			if (lastDirections.put(command.unit, command.direction)
+					== command.direction) {
+				coalesced++;
+				continue;
+			}
+			level.move(command.unit, command.direction);
+			record(System.nanoTime() - command.queued);
+			count++;
+		}
+		lastDirections.clear();
+		return count;
+	}
+
+	/**
+	 * Records that a command was applied.
+	 *
+	 * @param latency
+	 *            The time from queueing to applying the command, in
+	 *            nanoseconds.
+	 */
+	private void record(long latency) {
+		applied++;
+		totalLatency += latency;
+		if (latency > maxLatency) {
+			maxLatency = latency;
+		}
+	}
+
+	/**
+	 * @return The number of commands waiting to be applied.
+	 */
+	public int size() {
+		return commands.size();
+	}
+
+	/**
+	 * @return The number of commands applied so far.
+	 */
+	public long getAppliedCount() {
+		return applied;
+	}
+
+	/**
+	 * @return The number of commands skipped because they repeated the
+	 *         previous command for the same unit.
+	 */
+	public long getCoalescedCount() {
+		return coalesced;
+	}
+
+	/**
+	 * @return The number of commands dropped because the queue was full.
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	/**
+	 * @return The average time from queueing a command until it was
+	 *         applied, in nanoseconds, or 0 if none was applied.
+	 */
+	public long getAverageLatencyNanos() {
+		long count = applied;
+		if (count == 0) {
+			return 0L;
+		}
+		return totalLatency / count;
+	}
+
+	/**
+	 * @return The longest time from queueing a command until it was applied,
+	 *         in nanoseconds.
+	 */
+	public long getMaxLatencyNanos() {
+		return maxLatency;
+	}
+
+	/**
+	 * A queued command to move a unit.
+	 */
+	private static final class Command {
+
+		/**
+		 * The unit to move.
+		 */
+		private final Unit unit;
+
+		/**
+		 * The direction to move in.
+		 */
+		private final Direction direction;
+
+		/**
+		 * The time the command was queued, see {@link System#nanoTime()}.
+		 */
+		private final long queued;
+
+		/**
+		 * Creates a new command.
+		 *
+		 * @param u
+		 *            The unit to move.
+		 * @param d
+		 *            The direction to move in.
+		 * @param time
+		 *            The time the command was queued.
+		 */
+		private Command(Unit u, Direction d, long time) {
+			this.unit = u;
+			this.direction = d;
+			this.queued = time;
+		}
+	}
+}
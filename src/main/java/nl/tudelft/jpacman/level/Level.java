@@ -1,18 +1,26 @@
 package nl.tudelft.jpacman.level;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.CompactBoard;
 import nl.tudelft.jpacman.board.Direction;
 import nl.tudelft.jpacman.board.Square;
 import nl.tudelft.jpacman.board.Unit;
+import nl.tudelft.jpacman.level.Player.PlayerObserver;
 import nl.tudelft.jpacman.npc.NPC;
 import nl.tudelft.jpacman.npc.ghost.Ghost;
 import nl.tudelft.jpacman.npc.ghost.strategy.Strategy;
@@ -20,21 +28,40 @@ import nl.tudelft.jpacman.npc.ghost.strategy.Strategy;
 /**
  * A level of Pac-Man. A level consists of the board with the players and the
  * AIs on it.
+ * <p>
+ * On a {@link CompactBoard} the pellets are bits of the board rather than
+ * units. Players eat them when they enter their square, scoring them through
+ * the collision map as if they collided with the pellet given when this
+ * level was created, and snapshots number them by square index.
  * 
  * @author Jeroen Roosen 
  */
 public class Level {
 
+	/**
+	 * The maximum number of events recorded during a single tick. Further
+	 * events are dropped.
+	 */
+	private static final int EVENT_CAPACITY = 4096;
+
 	/**
 	 * The board of this level.
 	 */
 	private final Board board;
 
 	/**
-	 * The lock that ensures moves are executed sequential.
+	 * The lock that ensures moves are executed sequential, unless striped
+	 * locking is used.
 	 */
 	private final Object moveLock = new Object();
 
+	/**
+	 * The locks guarding the squares of the board when moves only lock the
+	 * squares they affect, or <code>null</code> if all moves are executed
+	 * sequentially under {@link #moveLock}.
+	 */
+	private volatile SquareLocks squareLocks;
+
 	/**
 	 * The lock that ensures starting and stopping can't interfere with each
 	 * other.
@@ -42,20 +69,94 @@ public class Level {
 	private final Object startStopLock = new Object();
 
 	/**
-	 * The NPCs of this level and, if they are running, their schedules.
+	 * The lock that ensures ticks are executed one at a time, also when a
+	 * driver that was stopped is still finishing a tick while another one
+	 * already starts advancing this level.
+	 */
+	private final Object tickLock = new Object();
+
+	/**
+	 * The NPCs of this level and, if they are running, their move tasks.
+	 */
+	private final Map<NPC, NpcMoveTask> npcs;
+
+	/**
+	 * The NPCs of this level, in a fixed order for snapshots.
+	 */
+	private final List<NPC> ghostOrder;
+
+	/**
+	 * The board of this level if it is a compact board, holding the pellets
+	 * as bits, or <code>null</code> if the pellets are units.
+	 */
+	private final CompactBoard compactBoard;
+
+	/**
+	 * The pellet standing for every pellet of a compact board, or
+	 * <code>null</code> if the pellets are units.
+	 */
+	private final Pellet boardPellet;
+
+	/**
+	 * The pellets this level started with, none on a compact board.
+	 */
+	private final Pellet[] pellets;
+
+	/**
+	 * The square every pellet started on.
+	 */
+	private final Square[] pelletSquares;
+
+	/**
+	 * The number of the pellet on every square, by square index, or
+	 * <code>null</code> unless eaten pellets are tracked.
 	 */
-	private final Map<NPC, ScheduledExecutorService> npcs;
+	private int[] pelletNumbers;
+
+	/**
+	 * The pellets eaten since the last snapshot or restore, or
+	 * <code>null</code> unless eaten pellets are tracked.
+	 */
+	private BitSet eatenPellets;
+
+	/**
+	 * The scheduler executing the NPC moves in logical time.
+	 */
+	private final TickScheduler scheduler;
+
+	/**
+	 * The queue of moves to apply at the next tick.
+	 */
+	private final InputQueue inputs;
+
+	/**
+	 * All queues of moves to apply at the next tick, starting with
+	 * {@link #inputs}.
+	 */
+	private final List<InputQueue> inputQueues;
+
+	/**
+	 * The driver advancing this level in time while it is in progress, or
+	 * <code>null</code> if this level is advanced manually through
+	 * {@link #tick()}.
+	 */
+	private LevelDriver driver;
 
 	/**
 	 * The possible strategies used by ghosts during the game.
 	 */
 	private final Map<String, Strategy> strategies;
+
+	/**
+	 * The sorted names of the strategies, by which snapshots refer to them.
+	 */
+	private final String[] strategyNames;
 	
 	/**
 	 * <code>true</code> iff this level is currently in progress, i.e. players
 	 * and NPCs can move.
 	 */
-	private boolean inProgress;
+	private volatile boolean inProgress;
 
 	/**
 	 * The squares from which players can start this game.
@@ -70,7 +171,55 @@ public class Level {
 	/**
 	 * The players on this level.
 	 */
-	private final List<Player> players;
+	private final Set<Player> players;
+
+	/**
+	 * The players on this level, in the order they were registered.
+	 */
+	private final List<Player> playerOrder;
+
+	/**
+	 * The number of registered players that are alive, kept up to date by
+	 * the players' deaths and revivals, so that moves do not need to check
+	 * every player.
+	 */
+	private final AtomicInteger alivePlayers;
+
+	/**
+	 * Keeps {@link #alivePlayers} up to date, and tells the observers this
+	 * level is lost as soon as the last player dies.
+	 */
+	private final PlayerObserver lifecycle = new PlayerObserver() {
+
+		@Override
+		public void playerDied(Player player) {
+			if (isRecording()) {
+				record(LevelEvent.playerDied(scheduler.getCurrentTick(),
+						player));
+			}
+			if (alivePlayers.decrementAndGet() == 0 && isInProgress()) {
+				notifyLost();
+			}
+		}
+
+		@Override
+		public void playerRevived(Player player) {
+			if (alivePlayers.getAndIncrement() == 0) {
+				lost.set(false);
+			}
+		}
+	};
+
+	/**
+	 * <code>true</code> iff the observers have been told this level is lost,
+	 * reset when a player comes back to life.
+	 */
+	private final AtomicBoolean lost;
+
+	/**
+	 * <code>true</code> iff the observers have been told this level is won.
+	 */
+	private final AtomicBoolean won;
 
 	/**
 	 * The table of possible collisions between units.
@@ -82,6 +231,27 @@ public class Level {
 	 */
 	private final List<LevelObserver> observers;
 
+	/**
+	 * The subscribers receiving the events of every tick.
+	 */
+	private final List<LevelEventListener> subscribers;
+
+	/**
+	 * The events recorded since the last tick.
+	 */
+	private final RingBuffer<LevelEvent> events;
+
+	/**
+	 * The number of events dropped because too many happened during a tick.
+	 */
+	private final AtomicLong droppedEvents;
+
+	/**
+	 * The number of pellets remaining on the board, counted once when this
+	 * level is created and kept up to date by {@link #move(Unit, Direction)}.
+	 */
+	private final AtomicInteger pelletCount;
+
 	/**
 	 * Creates a new level for the board.
 	 * 
@@ -96,9 +266,31 @@ public class Level {
 	 */
 	public Level(Board b, List<NPC> ghosts, Map<String, Strategy> strategies, List<Square> startPositions,
 			CollisionMap collisionMap) {
+		this(b, ghosts, strategies, startPositions, collisionMap, null);
+	}
+
+	/**
+	 * Creates a new level for the board, which may be a compact board.
+	 * 
+	 * @param b
+	 *            The board for the level.
+	 * @param ghosts
+	 *            The ghosts on the board.
+	 * @param startPositions
+	 *            The squares on which players start on this board.
+	 * @param collisionMap
+	 *            The collection of collisions that should be handled.
+	 * @param pellet
+	 *            The pellet standing for every pellet of the board if it is a
+	 *            {@link CompactBoard}, not on any square. Ignored for other
+	 *            boards.
+	 */
+	public Level(Board b, List<NPC> ghosts, Map<String, Strategy> strategies, List<Square> startPositions,
+			CollisionMap collisionMap, Pellet pellet) {
 		assert b != null;
 		assert ghosts != null;
 		assert startPositions != null;
+		assert !(b instanceof CompactBoard) || pellet != null;
 
 		this.board = b;
 		this.inProgress = false;
@@ -106,12 +298,57 @@ public class Level {
 		for (NPC g : ghosts) {
 			npcs.put(g, null);
 		}
+		this.ghostOrder = new ArrayList<>(ghosts);
+		this.scheduler = new TickScheduler();
+		this.inputs = new InputQueue();
+		this.inputQueues = new CopyOnWriteArrayList<>();
+		inputQueues.add(inputs);
+		this.driver = new GameLoop(new SystemClock(),
+				scheduler.getTickMillis());
 		this.strategies = strategies;
+		this.strategyNames = strategies.keySet().toArray(new String[0]);
+		Arrays.sort(strategyNames);
 		this.startSquares = startPositions;
 		this.startSquareIndex = 0;
-		this.players = new ArrayList<>();
+		this.players = Collections.newSetFromMap(
+				new ConcurrentHashMap<Player, Boolean>());
+		this.playerOrder = new CopyOnWriteArrayList<>();
+		this.alivePlayers = new AtomicInteger();
+		this.lost = new AtomicBoolean();
+		this.won = new AtomicBoolean();
 		this.collisions = collisionMap;
-		this.observers = new ArrayList<>();
+		this.observers = new CopyOnWriteArrayList<>();
+		this.subscribers = new CopyOnWriteArrayList<>();
+		this.events = new RingBuffer<>(EVENT_CAPACITY);
+		this.droppedEvents = new AtomicLong();
+		if (b instanceof CompactBoard) {
+			// creating every square of the board to look for pellets
+			// would defeat the compact board
+			this.compactBoard = (CompactBoard) b;
+			this.boardPellet = pellet;
+			this.pellets = new Pellet[0];
+			this.pelletSquares = new Square[0];
+			this.pelletCount = new AtomicInteger(
+					compactBoard.getPelletCount());
+			return;
+		}
+		this.compactBoard = null;
+		this.boardPellet = null;
+		List<Pellet> initial = new ArrayList<>();
+		List<Square> initialSquares = new ArrayList<>();
+		for (int index = 0; index < b.getSquareCount(); index++) {
+			Square square = b.squareAt(index);
+			for (Unit u : square.getOccupantsView()) {
+				if (u instanceof Pellet) {
+					initial.add((Pellet) u);
+					initialSquares.add(square);
+				}
+			}
+		}
+		this.pellets = initial.toArray(new Pellet[initial.size()]);
+		this.pelletSquares = initialSquares.toArray(
+				new Square[initialSquares.size()]);
+		this.pelletCount = new AtomicInteger(pellets.length);
 	}
 
 	/**
@@ -137,6 +374,80 @@ public class Level {
 		observers.remove(observer);
 	}
 
+	/**
+	 * Subscribes to the events of this level. At the end of every tick in
+	 * which something happened, the subscriber receives all events of the
+	 * tick, in the order in which they happened, as a single batch. Events
+	 * of moves made between ticks are delivered with the next tick. Events
+	 * are only recorded while there are subscribers.
+	 * 
+	 * @param listener
+	 *            The subscriber.
+	 */
+	public void subscribe(LevelEventListener listener) {
+		if (subscribers.contains(listener)) {
+			return;
+		}
+		subscribers.add(listener);
+	}
+
+	/**
+	 * Removes a subscriber if it was subscribed.
+	 * 
+	 * @param listener
+	 *            The subscriber to remove.
+	 */
+	public void unsubscribe(LevelEventListener listener) {
+		subscribers.remove(listener);
+	}
+
+	/**
+	 * Returns the number of events that were not delivered because more than
+	 * {@value #EVENT_CAPACITY} events happened during a single tick.
+	 * 
+	 * @return The number of dropped events.
+	 */
+	public long getDroppedEventCount() {
+		return droppedEvents.get();
+	}
+
+	/**
+	 * @return <code>true</code> iff events are recorded for subscribers.
+	 */
+	private boolean isRecording() {
+		return !subscribers.isEmpty();
+	}
+
+	/**
+	 * Records an event to deliver at the end of the tick.
+	 * 
+	 * @param event
+	 *            The event.
+	 */
+	private void record(LevelEvent event) {
+		if (!events.offer(event)) {
+			droppedEvents.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Delivers the events recorded since the last tick to the subscribers.
+	 */
+	private void publishEvents() {
+		if (events.size() == 0) {
+			return;
+		}
+		List<LevelEvent> batch = new ArrayList<>(events.size());
+		LevelEvent event;
+		while ((event = events.poll()) != null) {
+			batch.add(event);
+		}
+		List<LevelEvent> view = Collections.unmodifiableList(batch);
+		for (LevelEventListener listener : subscribers) {
+			listener.eventsOccurred(view);
+		}
+	}
+
 	/**
 	 * Registers a player on this level, assigning him to a starting position. A
 	 * player can only be registered once, registering a player again will have
@@ -149,10 +460,14 @@ public class Level {
 		assert p != null;
 		assert !startSquares.isEmpty();
 
-		if (players.contains(p)) {
+		if (!players.add(p)) {
 			return;
 		}
-		players.add(p);
+		playerOrder.add(p);
+		if (p.isAlive()) {
+			alivePlayers.incrementAndGet();
+		}
+		p.addObserver(lifecycle);
 		Square square = startSquares.get(startSquareIndex);
 		p.occupy(square);
 		startSquareIndex++;
@@ -185,22 +500,240 @@ public class Level {
 			return;
 		}
 
-		synchronized (moveLock) {
-			unit.setDirection(direction);
+		SquareLocks locks = squareLocks;
+		if (locks == null) {
+			synchronized (moveLock) {
+				Square location = unit.getSquare();
+				moveFrom(location, unit, direction);
+				updateObservers();
+			}
+		} else {
+			moveStriped(locks, unit, direction);
+			updateObservers();
+		}
+	}
+
+	/**
+	 * Moves the unit while holding only the locks of the square it leaves and
+	 * the square it enters, taken in the order of their stripes.
+	 * 
+	 * @param locks
+	 *            The locks of the squares.
+	 * @param unit
+	 *            The unit to move.
+	 * @param direction
+	 *            The direction to move the unit in.
+	 */
+	private void moveStriped(SquareLocks locks, Unit unit, Direction direction) {
+		boolean moved = false;
+		while (!moved) {
 			Square location = unit.getSquare();
-			Square destination = location.getSquareAt(direction);
+			int from = locks.stripeOf(location);
+			int to = locks.stripeOf(location.getSquareAt(direction));
+			synchronized (locks.get(Math.min(from, to))) {
+				synchronized (locks.get(Math.max(from, to))) {
+					// another thread may have moved the unit in the meantime
+					if (unit.getSquare() == location) {
+						moveFrom(location, unit, direction);
+						moved = true;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Moves the unit from its location into the given direction if possible
+	 * and handles all collisions. The caller holds the locks of both squares.
+	 * 
+	 * @param location
+	 *            The square the unit is on.
+	 * @param unit
+	 *            The unit to move.
+	 * @param direction
+	 *            The direction to move the unit in.
+	 */
+	private void moveFrom(Square location, Unit unit, Direction direction) {
+		unit.setDirection(direction);
+		Square destination = location.getSquareAt(direction);
 
-			if (destination.isAccessibleTo(unit)) {
-				List<Unit> occupants = destination.getOccupants();
-				unit.occupy(destination);
-				for (Unit occupant : occupants) {
-					collisions.collide(unit, occupant);
+		if (destination.isAccessibleTo(unit)) {
+			// iterates over the occupants from before the move, even
+			// though the unit and the collisions change them
+			Iterator<Unit> occupants = destination.getOccupantsView()
+					.iterator();
+			unit.occupy(destination);
+			boolean recording = isRecording();
+			if (recording) {
+				record(LevelEvent.unitMoved(scheduler.getCurrentTick(), unit,
+						location, destination));
+			}
+			while (occupants.hasNext()) {
+				Unit occupant = occupants.next();
+				collisions.collide(unit, occupant);
+				if (occupant instanceof Pellet
+						&& occupant.getSquare() == null) {
+					pelletCount.decrementAndGet();
+					BitSet eaten = eatenPellets;
+					if (eaten != null) {
+						eaten.set(pelletNumbers[destination.getIndex()]);
+					}
+					if (recording) {
+						record(LevelEvent.pelletEaten(
+								scheduler.getCurrentTick(), (Pellet) occupant,
+								destination));
+					}
 				}
 			}
-			updateObservers();
+			if (compactBoard != null && unit instanceof Player) {
+				eatBoardPellet((Player) unit, destination, recording);
+			}
+		}
+	}
+
+	/**
+	 * Has a player eat the pellet a compact board holds on a square, if there
+	 * is one. The caller holds the lock of the square.
+	 * 
+	 * @param player
+	 *            The player that entered the square.
+	 * @param square
+	 *            The square.
+	 * @param recording
+	 *            <code>true</code> iff events are recorded.
+	 */
+	private void eatBoardPellet(Player player, Square square,
+			boolean recording) {
+		int index = square.getIndex();
+		if (!compactBoard.removePellet(index)) {
+			return;
+		}
+		collisions.collide(player, boardPellet);
+		pelletCount.decrementAndGet();
+		BitSet eaten = eatenPellets;
+		if (eaten != null) {
+			eaten.set(index);
+		}
+		if (recording) {
+			record(LevelEvent.pelletEaten(scheduler.getCurrentTick(),
+					boardPellet, square));
+		}
+	}
+
+	/**
+	 * Chooses how moves are synchronised. By default all moves on this level
+	 * are executed one at a time. With striped locking, a move only locks the
+	 * square it leaves and the square it enters, so that moves on different
+	 * parts of the board can be executed at the same time. Collisions are
+	 * then handled while holding the locks of both squares, and observers are
+	 * updated after the locks have been released.
+	 * <p>
+	 * Striped locking relies on collision handlers only changing the units
+	 * involved in the collision. It should be chosen before the level starts.
+	 * 
+	 * @param striped
+	 *            <code>true</code> to lock only the squares involved in a
+	 *            move, <code>false</code> to execute moves one at a time.
+	 */
+	public void setStripedLocking(boolean striped) {
+		if (striped) {
+			squareLocks = new SquareLocks(board.getSquareCount());
+		} else {
+			squareLocks = null;
+		}
+	}
+
+	/**
+	 * Sets the driver that advances this level in time while it is in
+	 * progress. By default every level has a {@link GameLoop} of its own,
+	 * running in real time. Levels may share a driver to share its threads.
+	 * 
+	 * @param levelDriver
+	 *            The driver of this level, or <code>null</code> to advance
+	 *            this level manually by calling {@link #tick()}.
+	 */
+	public void setDriver(LevelDriver levelDriver) {
+		synchronized (startStopLock) {
+			if (isInProgress() && driver != null) {
+				driver.remove(this);
+			}
+			driver = levelDriver;
+			if (isInProgress() && driver != null) {
+				driver.add(this);
+			}
+		}
+	}
+
+	/**
+	 * Advances this level by a single tick of logical time, applying the
+	 * queued moves, executing the NPC moves that have become due and then
+	 * delivering the events of the tick to the subscribers. Nothing happens
+	 * if this level is not in progress. Ticks called from several threads are
+	 * executed one after the other.
+	 */
+	public void tick() {
+		synchronized (tickLock) {
+			if (!isInProgress()) {
+				return;
+			}
+			int queues = inputQueues.size();
+			int first = (int) (scheduler.getCurrentTick() % queues);
+			for (int i = 0; i < queues; i++) {
+				inputQueues.get((first + i) % queues).drain(this);
+			}
+			scheduler.tick();
+			publishEvents();
 		}
 	}
 
+	/**
+	 * Adds a queue of moves to apply at every tick of this level, for
+	 * instance to give every player a queue of its own so that players can't
+	 * crowd each other's moves out. The queues take turns in being applied
+	 * first.
+	 * 
+	 * @param queue
+	 *            The queue to add.
+	 */
+	public void addInputQueue(InputQueue queue) {
+		assert queue != null;
+		if (!inputQueues.contains(queue)) {
+			inputQueues.add(queue);
+		}
+	}
+
+	/**
+	 * Removes a queue added with {@link #addInputQueue(InputQueue)}.
+	 * 
+	 * @param queue
+	 *            The queue to remove.
+	 */
+	public void removeInputQueue(InputQueue queue) {
+		if (queue != inputs) {
+			inputQueues.remove(queue);
+		}
+	}
+
+	/**
+	 * Returns the queue of moves that are applied at the next tick of this
+	 * level. Moves can be queued from any thread without waiting for moves
+	 * in progress.
+	 * 
+	 * @return The input queue of this level.
+	 */
+	public InputQueue getInputQueue() {
+		return inputs;
+	}
+
+	/**
+	 * Returns the scheduler that keeps the logical time of this level.
+	 * 
+	 * @return The scheduler of this level.
+	 */
+	public TickScheduler getScheduler() {
+		return scheduler;
+	}
+
 	/**
 	 * Starts or resumes this level, allowing movement and (re)starting the
 	 * NPCs.
@@ -210,6 +743,9 @@ public class Level {
 			if (isInProgress()) {
 				return;
 			}
+			if (driver != null) {
+				driver.add(this);
+			}
 			startNPCs();
 			inProgress = true;
 			updateObservers();
@@ -227,6 +763,24 @@ public class Level {
 			}
 			stopNPCs();
 			inProgress = false;
+			if (driver != null) {
+				driver.remove(this);
+			}
+		}
+	}
+
+	/**
+	 * Stops this level because advancing it failed, and tells the observers.
+	 * Called by the driver that could not advance this level.
+	 * 
+	 * @param cause
+	 *            The error advancing this level.
+	 */
+	void fail(Throwable cause) {
+		assert cause != null;
+		stop();
+		for (LevelObserver o : observers) {
+			o.levelFailed(cause);
 		}
 	}
 
@@ -235,22 +789,23 @@ public class Level {
 	 */
 	private void startNPCs() {
 		for (final NPC npc : npcs.keySet()) {
-			ScheduledExecutorService service = Executors
-					.newSingleThreadScheduledExecutor();
-			service.schedule(new NpcMoveTask(service, npc),
-					npc.getInterval() / 2, TimeUnit.MILLISECONDS);
-			npcs.put(npc, service);
+			NpcMoveTask task = new NpcMoveTask(npc);
+			scheduler.schedule(task, scheduler.toTicks(npc.getInterval() / 2));
+			npcs.put(npc, task);
 		}
 	}
 
 	/**
-	 * Stops all NPC movement scheduling and interrupts any movements being
-	 * executed.
+	 * Stops all NPC movement scheduling. Moves that are already being
+	 * executed will not reschedule themselves.
 	 */
 	private void stopNPCs() {
-		for (Entry<NPC, ScheduledExecutorService> e : npcs.entrySet()) {
-			e.getValue().shutdownNow();
+		for (NpcMoveTask task : npcs.values()) {
+			if (task != null) {
+				task.cancel();
+			}
 		}
+		scheduler.clear();
 	}
 
 	/**
@@ -264,24 +819,448 @@ public class Level {
 	}
 
 	/**
-	 * Updates the observers about the state of this level.
+	 * Updates the observers about the state of this level. Observers are told
+	 * only once that this level is won or lost, not again on every later
+	 * move.
 	 */
 	private void updateObservers() {
-		if (!isAnyPlayerAlive()) {
+		assert squareLocks != null || pelletCount.get() == countPellets()
+				: "Pellet count out of sync.";
+		if (alivePlayers.get() == 0) {
+			notifyLost();
+		}
+		if (remainingPellets() == 0 && won.compareAndSet(false, true)) {
 			for (LevelObserver o : observers) {
-				o.levelLost();
+				o.levelWon();
 			}
 		}
-		if (remainingPellets() == 0) {
+	}
+
+	/**
+	 * Tells the observers this level is lost, unless they have been told so
+	 * already.
+	 */
+	private void notifyLost() {
+		if (lost.compareAndSet(false, true)) {
 			for (LevelObserver o : observers) {
-				o.levelWon();
+				o.levelLost();
+			}
+		}
+	}
+
+	/**
+	 * Takes a snapshot of the state of this level: the positions and
+	 * directions of the players and ghosts, the scores, the pellets left, the
+	 * logical time and the strategies and timers of the ghosts. Should be
+	 * called between ticks, by the thread advancing this level.
+	 * 
+	 * @return The snapshot.
+	 */
+	public LevelSnapshot snapshot() {
+		synchronized (moveLock) {
+			synchronized (startStopLock) {
+				LevelSnapshot s = new LevelSnapshot(playerOrder.size(),
+						ghostOrder.size(), getPelletSlots());
+				if (compactBoard != null) {
+					for (int i = compactBoard.nextPellet(0); i >= 0;
+							i = compactBoard.nextPellet(i + 1)) {
+						s.setPellet(i);
+					}
+				}
+				for (int i = 0; i < pellets.length; i++) {
+					if (pellets[i].getSquare() != null) {
+						s.setPellet(i);
+					}
+				}
+				if (eatenPellets != null) {
+					eatenPellets.clear();
+				}
+				saveUnits(s);
+				return s;
+			}
+		}
+	}
+
+	/**
+	 * Starts keeping track of the pellets eaten, so that
+	 * {@link #snapshot(LevelSnapshot)} does not need to look at every pellet.
+	 */
+	void trackEatenPellets() {
+		synchronized (moveLock) {
+			if (compactBoard == null) {
+				int[] numbers = new int[board.getSquareCount()];
+				for (int i = 0; i < pelletSquares.length; i++) {
+					numbers[pelletSquares[i].getIndex()] = i;
+				}
+				pelletNumbers = numbers;
+			}
+			eatenPellets = new BitSet(getPelletSlots());
+		}
+	}
+
+	/**
+	 * @return The number of pellets snapshots of this level hold a bit for:
+	 *         the pellets this level started with, or the squares of a
+	 *         compact board, since its pellets are numbered by square index.
+	 */
+	private int getPelletSlots() {
+		if (compactBoard != null) {
+			return board.getSquareCount();
+		}
+		return pellets.length;
+	}
+
+	/**
+	 * Takes a snapshot of this level that shares the chunks of pellet bits
+	 * of the previous snapshot in which no pellet was eaten. Requires eaten
+	 * pellets to be tracked, and the level to be in the state of the
+	 * previous snapshot except for the moves made since.
+	 * 
+	 * @param previous
+	 *            The snapshot last taken or restored.
+	 * @return The snapshot.
+	 */
+	LevelSnapshot snapshot(LevelSnapshot previous) {
+		assert eatenPellets != null : "Eaten pellets are not tracked.";
+		synchronized (moveLock) {
+			synchronized (startStopLock) {
+				long[][] chunks = previous.pellets;
+				int copied = LevelSnapshot.NONE;
+				for (int i = eatenPellets.nextSetBit(0); i >= 0;
+						i = eatenPellets.nextSetBit(i + 1)) {
+					int c = i / LevelSnapshot.CHUNK_PELLETS;
+					if (chunks == previous.pellets) {
+						chunks = chunks.clone();
+					}
+					if (c != copied) {
+						chunks[c] = chunks[c].clone();
+						copied = c;
+					}
+					chunks[c][i % LevelSnapshot.CHUNK_PELLETS / Long.SIZE]
+							&= ~(1L << i);
+				}
+				eatenPellets.clear();
+				LevelSnapshot s = new LevelSnapshot(playerOrder.size(),
+						ghostOrder.size(), chunks);
+				saveUnits(s);
+				return s;
+			}
+		}
+	}
+
+	/**
+	 * Stores everything but the pellet bits in a snapshot.
+	 * 
+	 * @param s
+	 *            The snapshot.
+	 */
+	private void saveUnits(LevelSnapshot s) {
+		s.pelletCount = pelletCount.get();
+		for (int i = 0; i < s.getPlayerCount(); i++) {
+			Player player = playerOrder.get(i);
+			s.playerSquares[i] = indexOf(player.getSquare());
+			s.playerDirections[i] = ordinalOf(player.getDirection());
+			s.scores[i] = player.getScore();
+			s.alive[i] = player.isAlive();
+		}
+		s.alivePlayers = alivePlayers.get();
+		s.lost = lost.get();
+		s.won = won.get();
+		s.startSquareIndex = startSquareIndex;
+		saveGhosts(s);
+	}
+
+	/**
+	 * Stores the ghosts and their move tasks in a snapshot.
+	 * 
+	 * @param s
+	 *            The snapshot.
+	 */
+	private void saveGhosts(LevelSnapshot s) {
+		Runnable[] tasks = new Runnable[ghostOrder.size()];
+		s.timers = isInProgress();
+		for (int i = 0; i < tasks.length; i++) {
+			NPC npc = ghostOrder.get(i);
+			s.ghostSquares[i] = indexOf(npc.getSquare());
+			s.ghostDirections[i] = ordinalOf(npc.getDirection());
+			NpcMoveTask task = npcs.get(npc);
+			if (task == null || task.cancelled) {
+				s.timers = false;
+				continue;
+			}
+			tasks[i] = task;
+			s.home[i] = task.npc.isHome();
+			s.strategies[i] = strategyIndex(task.current);
+			s.references[i] = task.ref;
+			s.counters[i] = task.counter;
+			s.limits[i] = task.limit;
+		}
+		s.sequence = scheduler.save(tasks, s.due, s.order);
+		s.tick = scheduler.getCurrentTick();
+	}
+
+	/**
+	 * Puts this level back in the state of a snapshot taken from it. Units
+	 * and pellets return to the squares they were on, although the order of
+	 * the units on a square may differ, and the scores, logical time and
+	 * ghost timers are set back. Observers are not notified, subscribers
+	 * receive a {@link LevelEvent.Type#LEVEL_RESTORED} event with the next
+	 * tick. Whether this level is in progress does not change: the ghosts
+	 * only resume their timers if it is. Should be called between ticks, by
+	 * the thread advancing this level.
+	 * 
+	 * @param s
+	 *            A snapshot of this level.
+	 */
+	public void restore(LevelSnapshot s) {
+		restore(s, null);
+	}
+
+	/**
+	 * Puts this level back in the state of a snapshot, see
+	 * {@link #restore(LevelSnapshot)}. When the level is known to be in the
+	 * state of another snapshot, only the pellets that differ between both
+	 * are put back or removed.
+	 * 
+	 * @param s
+	 *            A snapshot of this level.
+	 * @param current
+	 *            The snapshot this level is in the state of, or
+	 *            <code>null</code> if unknown.
+	 */
+	void restore(LevelSnapshot s, LevelSnapshot current) {
+		assert s != null;
+		assert s.getPlayerCount() == playerOrder.size()
+				&& s.getGhostCount() == ghostOrder.size()
+				&& s.pellets.length == (getPelletSlots()
+						+ LevelSnapshot.CHUNK_PELLETS - 1)
+						/ LevelSnapshot.CHUNK_PELLETS
+				: "Snapshot of another level.";
+
+		synchronized (moveLock) {
+			synchronized (startStopLock) {
+				if (current == null) {
+					restoreAllPellets(s);
+				} else {
+					restoreChangedPellets(s, current);
+				}
+				if (eatenPellets != null) {
+					eatenPellets.clear();
+				}
+				pelletCount.set(s.pelletCount);
+				for (int i = 0; i < s.getPlayerCount(); i++) {
+					Player player = playerOrder.get(i);
+					place(player, s.playerSquares[i], s.playerDirections[i]);
+					player.restore(s.scores[i], s.alive[i]);
+				}
+				alivePlayers.set(s.alivePlayers);
+				lost.set(s.lost);
+				won.set(s.won);
+				startSquareIndex = s.startSquareIndex;
+				for (int i = 0; i < s.getGhostCount(); i++) {
+					place(ghostOrder.get(i), s.ghostSquares[i],
+							s.ghostDirections[i]);
+				}
+				restoreGhosts(s);
+				if (isRecording()) {
+					record(LevelEvent.levelRestored(s.tick));
+				}
 			}
 		}
 	}
 
+	/**
+	 * Puts back or removes every pellet that differs from a snapshot.
+	 * 
+	 * @param s
+	 *            The snapshot to restore.
+	 */
+	private void restoreAllPellets(LevelSnapshot s) {
+		if (compactBoard == null) {
+			for (int i = 0; i < pellets.length; i++) {
+				restorePellet(i, s.hasPellet(i));
+			}
+			return;
+		}
+		// visits the pellets on the board and in the snapshot, rather than
+		// every square
+		for (int i = compactBoard.nextPellet(0); i >= 0;
+				i = compactBoard.nextPellet(i + 1)) {
+			if (!s.hasPellet(i)) {
+				compactBoard.removePellet(i);
+			}
+		}
+		for (int c = 0; c < s.pellets.length; c++) {
+			long[] chunk = s.pellets[c];
+			for (int w = 0; w < chunk.length; w++) {
+				long bits = chunk[w];
+				while (bits != 0L) {
+					int i = c * LevelSnapshot.CHUNK_PELLETS + w * Long.SIZE
+							+ Long.numberOfTrailingZeros(bits);
+					bits &= bits - 1;
+					compactBoard.putPellet(i);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Puts back or removes the pellets that differ between two snapshots.
+	 * 
+	 * @param s
+	 *            The snapshot to restore.
+	 * @param current
+	 *            The snapshot this level is in the state of.
+	 */
+	private void restoreChangedPellets(LevelSnapshot s, LevelSnapshot current) {
+		for (int c = 0; c < s.pellets.length; c++) {
+			long[] target = s.pellets[c];
+			long[] now = current.pellets[c];
+			if (target == now) {
+				continue;
+			}
+			for (int w = 0; w < target.length; w++) {
+				long changed = target[w] ^ now[w];
+				while (changed != 0L) {
+					int i = c * LevelSnapshot.CHUNK_PELLETS + w * Long.SIZE
+							+ Long.numberOfTrailingZeros(changed);
+					changed &= changed - 1;
+					restorePellet(i, s.hasPellet(i));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Puts a pellet back on its square or removes it.
+	 * 
+	 * @param i
+	 *            The number of the pellet.
+	 * @param present
+	 *            <code>true</code> iff the pellet is to be on the board.
+	 */
+	private void restorePellet(int i, boolean present) {
+		if (compactBoard != null) {
+			if (present) {
+				compactBoard.putPellet(i);
+			} else {
+				compactBoard.removePellet(i);
+			}
+			return;
+		}
+		Square square = pellets[i].getSquare();
+		if (present && square == null) {
+			pellets[i].occupy(pelletSquares[i]);
+		} else if (!present && square != null) {
+			pellets[i].leaveSquare();
+		}
+	}
+
+	/**
+	 * Replaces the move tasks of the ghosts by those of a snapshot, and sets
+	 * the logical time back.
+	 * 
+	 * @param s
+	 *            The snapshot.
+	 */
+	private void restoreGhosts(LevelSnapshot s) {
+		for (NpcMoveTask task : npcs.values()) {
+			if (task != null) {
+				task.cancel();
+			}
+		}
+		Runnable[] tasks = new Runnable[ghostOrder.size()];
+		if (!isInProgress() || !s.timers) {
+			scheduler.restore(s.tick, s.sequence, new Runnable[0],
+					new long[0], new long[0]);
+			if (isInProgress()) {
+				startNPCs();
+			}
+			return;
+		}
+		for (int i = 0; i < tasks.length; i++) {
+			NPC npc = ghostOrder.get(i);
+			Strategy strategy = null;
+			if (s.strategies[i] != LevelSnapshot.NONE) {
+				strategy = strategies.get(strategyNames[s.strategies[i]]);
+			}
+			NpcMoveTask task = new NpcMoveTask(npc, strategy,
+					s.references[i], s.counters[i], s.limits[i]);
+			task.npc.setIsHome(s.home[i]);
+			npcs.put(npc, task);
+			tasks[i] = task;
+		}
+		scheduler.restore(s.tick, s.sequence, tasks, s.due, s.order);
+	}
+
+	/**
+	 * Puts a unit on a square of a snapshot.
+	 * 
+	 * @param unit
+	 *            The unit.
+	 * @param index
+	 *            The index of the square, or {@link LevelSnapshot#NONE} to
+	 *            take the unit off the board.
+	 * @param direction
+	 *            The ordinal of the direction of the unit, or
+	 *            {@link LevelSnapshot#NONE}.
+	 */
+	private void place(Unit unit, int index, byte direction) {
+		if (index == LevelSnapshot.NONE) {
+			unit.leaveSquare();
+		} else {
+			Square square = board.squareAt(index);
+			if (unit.getSquare() != square) {
+				unit.occupy(square);
+			}
+		}
+		if (direction != LevelSnapshot.NONE) {
+			unit.setDirection(Direction.values()[direction]);
+		}
+	}
+
+	/**
+	 * @param square
+	 *            A square, or <code>null</code>.
+	 * @return The index of the square, or {@link LevelSnapshot#NONE}.
+	 */
+	private static int indexOf(Square square) {
+		if (square == null) {
+			return LevelSnapshot.NONE;
+		}
+		return square.getIndex();
+	}
+
+	/**
+	 * @param direction
+	 *            A direction, or <code>null</code>.
+	 * @return The ordinal of the direction, or {@link LevelSnapshot#NONE}.
+	 */
+	private static byte ordinalOf(Direction direction) {
+		if (direction == null) {
+			return LevelSnapshot.NONE;
+		}
+		return (byte) direction.ordinal();
+	}
+
+	/**
+	 * @param strategy
+	 *            A strategy of this level.
+	 * @return The position of its name among the sorted names.
+	 */
+	private int strategyIndex(Strategy strategy) {
+		for (int i = 0; i < strategyNames.length; i++) {
+			if (strategies.get(strategyNames[i]) == strategy) {
+				return i;
+			}
+		}
+		return LevelSnapshot.NONE;
+	}
+
 	/**
 	 * Returns <code>true</code> iff at least one of the players in this level
-	 * is alive.
+	 * is alive. This checks every player, moves use a count of the living
+	 * players instead.
 	 * 
 	 * @return <code>true</code> if at least one of the registered players is
 	 *         alive.
@@ -296,19 +1275,49 @@ public class Level {
 	}
 
 	/**
-	 * Counts the pellets remaining on the board.
+	 * Returns the number of pellets remaining on the board. Pellets are
+	 * counted as eaten when a collision during a move removes them from the
+	 * board.
 	 * 
 	 * @return The amount of pellets remaining on the board.
 	 */
 	public int remainingPellets() {
+		return pelletCount.get();
+	}
+
+	/**
+	 * Returns the pellet a compact board holds on a square. Such pellets are
+	 * not among the occupants of the square, so this is how they are found to
+	 * be drawn.
+	 * 
+	 * @param square
+	 *            A square of the board of this level.
+	 * @return The pellet standing for every pellet of the compact board if the
+	 *         square holds one, or <code>null</code> if it holds none or the
+	 *         board is not compact.
+	 */
+	public Pellet getBoardPellet(Square square) {
+		if (compactBoard == null || !compactBoard.hasPellet(square.getIndex())) {
+			return null;
+		}
+		return boardPellet;
+	}
+
+	/**
+	 * Counts the pellets remaining on the board by visiting every square.
+	 * 
+	 * @return The amount of pellets remaining on the board.
+	 */
+	private int countPellets() {
+		if (compactBoard != null) {
+			return compactBoard.getPelletCount();
+		}
 		Board b = getBoard();
 		int pellets = 0;
-		for (int x = 0; x < b.getWidth(); x++) {
-			for (int y = 0; y < b.getHeight(); y++) {
-				for (Unit u : b.squareAt(x, y).getOccupants()) {
-					if (u instanceof Pellet) {
-						pellets++;
-					}
+		for (int index = 0; index < b.getSquareCount(); index++) {
+			for (Unit u : b.squareAt(index).getOccupantsView()) {
+				if (u instanceof Pellet) {
+					pellets++;
 				}
 			}
 		}
@@ -316,21 +1325,23 @@ public class Level {
 	}
 
 	/**
-	 * A task that moves an NPC and reschedules itself after it finished.
+	 * A task that moves an NPC and reschedules itself after it finished. All
+	 * timing is done in the logical time of the level's scheduler.
 	 * 
 	 * @author Jeroen Roosen 
 	 */
 	private final class NpcMoveTask implements Runnable {
 
 		/**
-		 * The service executing the task.
+		 * The NPC to move.
 		 */
-		private final ScheduledExecutorService service;
+		private final Ghost npc;
 
 		/**
-		 * The NPC to move.
+		 * <code>true</code> iff this task has been stopped and should no
+		 * longer reschedule itself.
 		 */
-		private final Ghost npc;
+		private volatile boolean cancelled;
 		
 		/**
 		 * Timer determine the ghost's strategy. 
@@ -347,23 +1358,50 @@ public class Level {
 		 */
 		private int limit;
 
+		/**
+		 * The strategy the ghost currently follows.
+		 */
+		private Strategy current;
+
 		/**
 		 * Creates a new task.
 		 * 
-		 * @param s
-		 *            The service that executes the task.
 		 * @param n
 		 *            The NPC to move.
 		 */
-		private NpcMoveTask(ScheduledExecutorService s, NPC n) {
-			this.service = s;
+		private NpcMoveTask(NPC n) {
 			this.npc = (Ghost) n;
-			this.npc.setStrategy(strategies.get("scatter"));
-			this.ref = System.currentTimeMillis();
+			this.current = strategies.get("scatter");
+			this.npc.setStrategy(current);
+			this.ref = scheduler.getElapsedMillis();
 			this.counter = 0;
 			this.limit = 7000;
 		}
 
+		/**
+		 * Creates a task continuing from the state of a snapshot.
+		 * 
+		 * @param n
+		 *            The NPC to move.
+		 * @param strategy
+		 *            The strategy the NPC follows.
+		 * @param reference
+		 *            The time the NPC last changed or kept its strategy.
+		 * @param changes
+		 *            The number of strategy changes so far.
+		 * @param timeLimit
+		 *            The time after which the NPC changes its strategy.
+		 */
+		private NpcMoveTask(NPC n, Strategy strategy, long reference,
+				int changes, int timeLimit) {
+			this.npc = (Ghost) n;
+			this.current = strategy;
+			this.npc.setStrategy(current);
+			this.ref = reference;
+			this.counter = changes;
+			this.limit = timeLimit;
+		}
+
 		/**
 		 * We can imagine several level which will be created by the LevelFactory but every level would have different implementation for the ghost's
 		 * strategy. 
@@ -372,9 +1410,19 @@ public class Level {
 		 */
 		@Override
 		public void run() {
+			if (cancelled) {
+				return;
+			}
 			getStrategy();
 			getMove();
 		}
+
+		/**
+		 * Stops this task from moving the NPC any further.
+		 */
+		private void cancel() {
+			cancelled = true;
+		}
 		
 		/**
 		 * Determine the ghost's strategy according to the number of strategy changes made. If there are more than 6 changes, the strategy will be "chase"
@@ -404,11 +1452,12 @@ public class Level {
 		 * Change the actual strategy to the "chase" strategy
 		 */
 		public void setToStrategyChase() {
+			long now = scheduler.getElapsedMillis();
 			if(!npc.isHome()) {
-				ref = System.currentTimeMillis();
-			} else if(System.currentTimeMillis() - ref >= limit) {
+				ref = now;
+			} else if(now - ref >= limit) {
 				setStrategy("chase");
-				ref = System.currentTimeMillis();
+				ref = now;
 				limit = 20000;
 			}
 		}
@@ -417,7 +1466,7 @@ public class Level {
 		 * Change the actual strategy to the "scatter" strategy
 		 */
 		public void setToStrategyScatter() {
-			if(System.currentTimeMillis() - ref >= limit) {
+			if(scheduler.getElapsedMillis() - ref >= limit) {
 				setStrategy("scatter");
 				if(counter < 4) {
 					limit = 7000;
@@ -432,7 +1481,13 @@ public class Level {
 		 * @param the new strategy 
 		 */
 		public void setStrategy(String strategy) {
-			npc.setStrategy(strategies.get(strategy));
+			Strategy next = strategies.get(strategy);
+			npc.setStrategy(next);
+			if (next != current && isRecording()) {
+				record(LevelEvent.strategyChanged(scheduler.getCurrentTick(),
+						npc, next));
+			}
+			current = next;
 			npc.setIsHome(false);
 			counter++;
 		}
@@ -445,11 +1500,28 @@ public class Level {
 			if (nextMove != null) {
 				move(npc, nextMove);
 			}
-			long interval = npc.getInterval();
-			service.schedule(this, interval, TimeUnit.MILLISECONDS);
+			if (!cancelled) {
+				scheduler.schedule(this, scheduler.toTicks(npc.getInterval()));
+			}
 		}
 	}
 
+	/**
+	 * A subscriber to the events of a level.
+	 */
+	public interface LevelEventListener {
+
+		/**
+		 * Events happened during a tick of the level. Called by the thread
+		 * advancing the level, once per tick in which something happened.
+		 * 
+		 * @param batch
+		 *            The events of the tick, in the order in which they
+		 *            happened. The list can't be modified.
+		 */
+		void eventsOccurred(List<LevelEvent> batch);
+	}
+
 	/**
 	 * An observer that will be notified when the level is won or lost.
 	 * 
@@ -468,5 +1540,14 @@ public class Level {
 		 * this event is received.
 		 */
 		void levelLost();
+
+		/**
+		 * The level has been stopped because advancing it failed, and it
+		 * can not be played on.
+		 * 
+		 * @param cause
+		 *            The error advancing the level.
+		 */
+		void levelFailed(Throwable cause);
 	}
 }
@@ -0,0 +1,26 @@
+package nl.tudelft.jpacman.level;
+
+/**
+ * Something that advances levels in time by calling {@link Level#tick()}
+ * while they are in progress.
+ */
+public interface LevelDriver {
+
+	/**
+	 * Starts driving a level. Adding a level that is already being driven has
+	 * no effect.
+	 *
+	 * @param level
+	 *            The level to drive.
+	 */
+	void add(Level level);
+
+	/**
+	 * Stops driving a level. Removing a level that is not being driven has no
+	 * effect.
+	 *
+	 * @param level
+	 *            The level to stop driving.
+	 */
+	void remove(Level level);
+}
@@ -0,0 +1,229 @@
+package nl.tudelft.jpacman.level;
+
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.board.Unit;
+import nl.tudelft.jpacman.npc.ghost.strategy.Strategy;
+
+/**
+ * Something that happened on a level during a tick. Events are delivered to
+ * the subscribers of a level in batches, one batch per tick, see
+ * {@link Level#subscribe(Level.LevelEventListener)}.
+ */
+public final class LevelEvent {
+
+	/**
+	 * The kinds of events.
+	 */
+	public enum Type {
+
+		/**
+		 * A unit moved from one square to another.
+		 */
+		UNIT_MOVED,
+
+		/**
+		 * A pellet was eaten and removed from the board.
+		 */
+		PELLET_EATEN,
+
+		/**
+		 * A player died.
+		 */
+		PLAYER_DIED,
+
+		/**
+		 * A ghost changed its strategy.
+		 */
+		STRATEGY_CHANGED,
+
+		/**
+		 * The level was restored from a snapshot, so any unit and pellet may
+		 * have changed.
+		 */
+		LEVEL_RESTORED
+	}
+
+	/**
+	 * The kind of event.
+	 */
+	private final Type type;
+
+	/**
+	 * The tick of the level during which the event happened.
+	 */
+	private final long tick;
+
+	/**
+	 * The unit the event is about.
+	 */
+	private final Unit unit;
+
+	/**
+	 * The square the unit left, or <code>null</code>.
+	 */
+	private final Square previousSquare;
+
+	/**
+	 * The square the event happened on, or <code>null</code>.
+	 */
+	private final Square square;
+
+	/**
+	 * The new strategy of the ghost, or <code>null</code>.
+	 */
+	private final Strategy strategy;
+
+	/**
+	 * Creates a new event.
+	 *
+	 * @param t
+	 *            The kind of event.
+	 * @param time
+	 *            The tick during which the event happened.
+	 * @param u
+	 *            The unit the event is about.
+	 * @param previous
+	 *            The square the unit left, or <code>null</code>.
+	 * @param current
+	 *            The square the event happened on, or <code>null</code>.
+	 * @param s
+	 *            The new strategy of the unit, or <code>null</code>.
+	 */
+	private LevelEvent(Type t, long time, Unit u, Square previous,
+			Square current, Strategy s) {
+		this.type = t;
+		this.tick = time;
+		this.unit = u;
+		this.previousSquare = previous;
+		this.square = current;
+		this.strategy = s;
+	}
+
+	/**
+	 * Creates an event of a unit moving.
+	 *
+	 * @param tick
+	 *            The tick during which the unit moved.
+	 * @param unit
+	 *            The unit that moved.
+	 * @param from
+	 *            The square the unit left.
+	 * @param to
+	 *            The square the unit entered.
+	 * @return The event.
+	 */
+	static LevelEvent unitMoved(long tick, Unit unit, Square from, Square to) {
+		return new LevelEvent(Type.UNIT_MOVED, tick, unit, from, to, null);
+	}
+
+	/**
+	 * Creates an event of a pellet being eaten.
+	 *
+	 * @param tick
+	 *            The tick during which the pellet was eaten.
+	 * @param pellet
+	 *            The pellet.
+	 * @param square
+	 *            The square the pellet was on.
+	 * @return The event.
+	 */
+	static LevelEvent pelletEaten(long tick, Pellet pellet, Square square) {
+		return new LevelEvent(Type.PELLET_EATEN, tick, pellet, square, null,
+				null);
+	}
+
+	/**
+	 * Creates an event of a player dying.
+	 *
+	 * @param tick
+	 *            The tick during which the player died.
+	 * @param player
+	 *            The player.
+	 * @return The event.
+	 */
+	static LevelEvent playerDied(long tick, Player player) {
+		return new LevelEvent(Type.PLAYER_DIED, tick, player, null,
+				player.getSquare(), null);
+	}
+
+	/**
+	 * Creates an event of a ghost changing its strategy.
+	 *
+	 * @param tick
+	 *            The tick during which the strategy changed.
+	 * @param ghost
+	 *            The ghost.
+	 * @param strategy
+	 *            The new strategy of the ghost.
+	 * @return The event.
+	 */
+	static LevelEvent strategyChanged(long tick, Unit ghost,
+			Strategy strategy) {
+		return new LevelEvent(Type.STRATEGY_CHANGED, tick, ghost, null,
+				ghost.getSquare(), strategy);
+	}
+
+	/**
+	 * Creates an event of the level being restored from a snapshot.
+	 *
+	 * @param tick
+	 *            The tick the level was restored to.
+	 * @return The event.
+	 */
+	static LevelEvent levelRestored(long tick) {
+		return new LevelEvent(Type.LEVEL_RESTORED, tick, null, null, null,
+				null);
+	}
+
+	/**
+	 * @return The kind of event.
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * @return The tick of the level during which the event happened.
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * @return The unit the event is about: the unit that moved, the pellet
+	 *         eaten, the player that died or the ghost that changed its
+	 *         strategy, or <code>null</code> for a restored level.
+	 */
+	public Unit getUnit() {
+		return unit;
+	}
+
+	/**
+	 * @return The square a unit moved from or a pellet was eaten on, or
+	 *         <code>null</code> for other events.
+	 */
+	public Square getPreviousSquare() {
+		return previousSquare;
+	}
+
+	/**
+	 * @return The square a unit moved to, or the square of the player or
+	 *         ghost, or <code>null</code> for eaten pellets.
+	 */
+	public Square getSquare() {
+		return square;
+	}
+
+	/**
+	 * @return The new strategy of the ghost, or <code>null</code> for other
+	 *         events.
+	 */
+	public Strategy getStrategy() {
+		return strategy;
+	}
+
+	@Override
+	public String toString() {
+		return type + "@" + tick + "[" + unit + "]";
+	}
+}
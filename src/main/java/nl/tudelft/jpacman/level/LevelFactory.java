@@ -7,6 +7,7 @@ import nl.tudelft.jpacman.board.Board;
 import nl.tudelft.jpacman.board.Direction;
 import nl.tudelft.jpacman.board.Square;
 import nl.tudelft.jpacman.npc.NPC;
+import nl.tudelft.jpacman.npc.ghost.DistanceTable;
 import nl.tudelft.jpacman.npc.ghost.Ghost;
 import nl.tudelft.jpacman.npc.ghost.GhostColor;
 import nl.tudelft.jpacman.npc.ghost.GhostFactory;
@@ -47,6 +48,12 @@ public class LevelFactory {
 	 */
 	private final GhostFactory ghostFact;
 
+	/**
+	 * The loop driving all levels created by this factory, so that they
+	 * share a single simulation thread.
+	 */
+	private final GameLoop gameLoop;
+
 	/**
 	 * Creates a new level factory.
 	 * 
@@ -59,6 +66,7 @@ public class LevelFactory {
 		this.sprites = spriteStore;
 		this.ghostIndex = -1;
 		this.ghostFact = ghostFactory;
+		this.gameLoop = new GameLoop(new SystemClock());
 	}
 
 	/**
@@ -73,11 +81,41 @@ public class LevelFactory {
 	 * @return A new level for the board.
 	 */
 	public Level createLevel(Board board, List<NPC> ghosts, List<Square> startPositions) {
+		// Walls never move, so the ghosts share a table of all distances,
+		// unless the board is too large and they search their paths instead.
+		DistanceTable distances = null;
+		if (!ghosts.isEmpty()) {
+			distances = DistanceTable.forBoard(board, ghosts.get(0));
+		}
+		return createLevel(board, ghosts, startPositions, distances);
+	}
+
+	/**
+	 * Creates a new level from the provided data, with a table of distances
+	 * that may be shared with other levels of the same map.
+	 * 
+	 * @param board
+	 *            The board with all ghosts and pellets occupying their squares.
+	 * @param ghosts
+	 *            A list of all ghosts on the board.
+	 * @param startPositions
+	 *            A list of squares from which players may start the game.
+	 * @param distances
+	 *            The distances between the squares of the board accessible to
+	 *            the ghosts, or <code>null</code> to search paths instead.
+	 * @return A new level for the board.
+	 */
+	Level createLevel(Board board, List<NPC> ghosts,
+			List<Square> startPositions, DistanceTable distances) {
 		// We'll adopt the simple collision map for now.
 		CollisionMap collisionMap = new PlayerCollisions();
-		
-		StrategyFactory strategyFact = new StrategyFactory(board);
-		return new Level(board, ghosts, strategyFact.getStrategies(), startPositions, collisionMap);
+
+		StrategyFactory strategyFact = new StrategyFactory(board, distances);
+		// the pellet only stands for the pellets of compact boards
+		Level level = new Level(board, ghosts, strategyFact.getStrategies(), startPositions, collisionMap,
+				createPellet());
+		level.setDriver(gameLoop);
+		return level;
 	}
 
 	/**
@@ -86,9 +124,30 @@ public class LevelFactory {
 	 * @return The new ghost.
 	 */
 	NPC createGhost() {
+		return createGhost(nextGhostKind());
+	}
+
+	/**
+	 * Returns the kind of the next ghost, cycling through the various ghost
+	 * types.
+	 * 
+	 * @return The kind of the next ghost, for {@link #createGhost(int)}.
+	 */
+	int nextGhostKind() {
 		ghostIndex++;
 		ghostIndex %= GHOSTS;
-		switch (ghostIndex) {
+		return ghostIndex;
+	}
+
+	/**
+	 * Creates a new ghost of the given kind.
+	 * 
+	 * @param kind
+	 *            The kind of ghost, as returned by {@link #nextGhostKind()}.
+	 * @return The new ghost.
+	 */
+	NPC createGhost(int kind) {
+		switch (kind) {
 		case BLINKY:
 			return ghostFact.createBlinky();
 		case INKY:
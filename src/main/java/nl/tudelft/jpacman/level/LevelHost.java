@@ -0,0 +1,417 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Hosts many levels on a fixed pool of worker threads, so the amount of
+ * threads stays constant no matter how many levels are being played.
+ * <p>
+ * Levels can be advanced in two ways:
+ * <ul>
+ * <li>In real time, after calling {@link #start()}: a single pacing thread
+ * hands one tick per level to the pool every tick period, as measured by the
+ * host's {@link Clock}.
+ * <li>In lock step, as fast as possible, by calling {@link #step()}
+ * repeatedly. This is the mode to use for simulations such as bot training.
+ * </ul>
+ * Every level has at most one tick in flight, and levels are handed to the
+ * pool in rotating order, so that a few expensive levels cannot starve the
+ * others. A level that is still busy when its next tick is due skips that
+ * tick instead of queueing it, and the host refuses new levels once it is at
+ * capacity; both keep the pending work bounded when the host is overloaded.
+ * <p>
+ * A level whose tick throws is logged, counted in {@link #getFailedTicks()}
+ * and stopped, so that it can not hold up the others, and its observers are
+ * told it failed.
+ */
+public class LevelHost implements LevelDriver {
+
+	/**
+	 * The maximum number of rounds the pacing thread will try to catch up on
+	 * when it falls behind.
+	 */
+	private static final int MAX_CATCH_UP_TICKS = 10;
+
+	/**
+	 * The logger reporting levels that failed.
+	 */
+	private static final Logger LOGGER = Logger.getLogger(LevelHost.class
+			.getName());
+
+	/**
+	 * The pool executing the level ticks.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * The clock pacing the ticks in real time mode.
+	 */
+	private final Clock clock;
+
+	/**
+	 * The duration of a single tick in milliseconds.
+	 */
+	private final long tickMillis;
+
+	/**
+	 * The maximum amount of levels hosted at the same time.
+	 */
+	private final int capacity;
+
+	/**
+	 * The hosted levels and their tick state.
+	 */
+	private final Map<Level, HostedLevel> levels;
+
+	/**
+	 * The offset at which the next round starts handing out ticks, rotating
+	 * every round for fairness.
+	 */
+	private final AtomicInteger roundOffset;
+
+	/**
+	 * The number of ticks that were skipped because the level was still busy.
+	 */
+	private final AtomicLong skippedTicks;
+
+	/**
+	 * The number of ticks executed on the pool.
+	 */
+	private final AtomicLong executedTicks;
+
+	/**
+	 * The number of ticks that threw.
+	 */
+	private final AtomicLong failedTicks;
+
+	/**
+	 * The lock that ensures starting and stopping the pacing thread can't
+	 * interfere with each other.
+	 */
+	private final Object startStopLock = new Object();
+
+	/**
+	 * The service running the pacing thread, or <code>null</code> if the host
+	 * is not running in real time.
+	 */
+	private ExecutorService pacer;
+
+	/**
+	 * Creates a new host with a worker for every available processor, ticks
+	 * of {@value TickScheduler#DEFAULT_TICK_MILLIS} milliseconds and no limit
+	 * on the amount of levels.
+	 */
+	public LevelHost() {
+		this(Runtime.getRuntime().availableProcessors(), Integer.MAX_VALUE,
+				new SystemClock(), TickScheduler.DEFAULT_TICK_MILLIS);
+	}
+
+	/**
+	 * Creates a new host.
+	 *
+	 * @param parallelism
+	 *            The number of worker threads.
+	 * @param maxLevels
+	 *            The maximum amount of levels hosted at the same time.
+	 * @param c
+	 *            The clock pacing the ticks in real time mode.
+	 * @param tickDuration
+	 *            The duration of a single tick in milliseconds.
+	 */
+	public LevelHost(int parallelism, int maxLevels, Clock c,
+			long tickDuration) {
+		assert parallelism > 0;
+		assert maxLevels > 0;
+		assert c != null;
+		assert tickDuration > 0;
+		this.pool = new ForkJoinPool(parallelism,
+				ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+		this.clock = c;
+		this.tickMillis = tickDuration;
+		this.capacity = maxLevels;
+		this.levels = new ConcurrentHashMap<>();
+		this.roundOffset = new AtomicInteger();
+		this.skippedTicks = new AtomicLong();
+		this.executedTicks = new AtomicLong();
+		this.failedTicks = new AtomicLong();
+	}
+
+	/**
+	 * Starts hosting a level.
+	 *
+	 * @param level
+	 *            The level to host.
+	 * @throws IllegalStateException
+	 *             When the host is at capacity.
+	 */
+	@Override
+	public void add(Level level) {
+		assert level != null;
+		synchronized (levels) {
+			if (levels.containsKey(level)) {
+				return;
+			}
+			if (levels.size() >= capacity) {
+				throw new IllegalStateException("Level host is at capacity: "
+						+ capacity + " levels.");
+			}
+			levels.put(level, new HostedLevel(level));
+		}
+	}
+
+	@Override
+	public void remove(Level level) {
+		synchronized (levels) {
+			levels.remove(level);
+		}
+	}
+
+	/**
+	 * @return <code>true</code> iff another level can be hosted.
+	 */
+	public boolean hasCapacity() {
+		return levels.size() < capacity;
+	}
+
+	/**
+	 * @return The number of levels currently hosted.
+	 */
+	public int getLevelCount() {
+		return levels.size();
+	}
+
+	/**
+	 * @return The number of worker threads.
+	 */
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	/**
+	 * @return The number of ticks that were skipped because their level was
+	 *         still busy with the previous one.
+	 */
+	public long getSkippedTicks() {
+		return skippedTicks.get();
+	}
+
+	/**
+	 * @return The number of level ticks executed so far.
+	 */
+	public long getExecutedTicks() {
+		return executedTicks.get();
+	}
+
+	/**
+	 * @return The number of level ticks that threw, after which their level
+	 *         was stopped.
+	 */
+	public long getFailedTicks() {
+		return failedTicks.get();
+	}
+
+	/**
+	 * Advances every hosted level by exactly one tick, in parallel, and
+	 * waits until all of them are done.
+	 *
+	 * @throws IllegalStateException
+	 *             When the tick of a level threw. The other levels have
+	 *             still been advanced, and the failed levels are stopped.
+	 */
+	public void step() {
+		List<HostedLevel> round = nextRound();
+		List<Callable<Void>> tasks = new ArrayList<>(round.size());
+		for (HostedLevel hosted : round) {
+			if (hosted.claim()) {
+				tasks.add(hosted);
+			} else {
+				skippedTicks.incrementAndGet();
+			}
+		}
+		IllegalStateException failure = null;
+		boolean interrupted = false;
+		for (Future<Void> tick : pool.invokeAll(tasks)) {
+			// all ticks are done, so getting their outcome never waits
+			boolean done = false;
+			while (!done) {
+				try {
+					tick.get();
+					done = true;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					if (failure == null) {
+						failure = new IllegalStateException(
+								"Level tick failed.", e.getCause());
+					} else {
+						failure.addSuppressed(e.getCause());
+					}
+					done = true;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Starts advancing the hosted levels in real time.
+	 */
+	public void start() {
+		synchronized (startStopLock) {
+			if (pacer != null) {
+				return;
+			}
+			pacer = Executors.newSingleThreadExecutor();
+			pacer.execute(new Pacer());
+		}
+	}
+
+	/**
+	 * Stops advancing the hosted levels in real time. Ticks that are already
+	 * running will complete.
+	 */
+	public void stop() {
+		synchronized (startStopLock) {
+			if (pacer != null) {
+				pacer.shutdownNow();
+				pacer = null;
+			}
+		}
+	}
+
+	/**
+	 * Stops the host and releases its worker threads. The host can not be
+	 * used afterwards.
+	 */
+	public void shutdown() {
+		stop();
+		pool.shutdown();
+	}
+
+	/**
+	 * Hands one tick to the pool for every hosted level that is not busy,
+	 * skipping those that are.
+	 */
+	private void submitRound() {
+		for (HostedLevel hosted : nextRound()) {
+			if (hosted.claim()) {
+				pool.submit(hosted);
+			} else {
+				skippedTicks.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * @return The hosted levels, starting at a different level every round.
+	 */
+	private List<HostedLevel> nextRound() {
+		List<HostedLevel> snapshot = new ArrayList<>(levels.values());
+		int size = snapshot.size();
+		if (size == 0) {
+			return snapshot;
+		}
+		int offset = Math.floorMod(roundOffset.getAndIncrement(), size);
+		List<HostedLevel> round = new ArrayList<>(size);
+		round.addAll(snapshot.subList(offset, size));
+		round.addAll(snapshot.subList(0, offset));
+		return round;
+	}
+
+	/**
+	 * A level hosted on the pool, along with whether it is currently busy.
+	 */
+	private final class HostedLevel implements Callable<Void> {
+
+		/**
+		 * The level to advance.
+		 */
+		private final Level level;
+
+		/**
+		 * <code>true</code> iff a tick of this level is pending or running.
+		 */
+		private final AtomicBoolean busy;
+
+		/**
+		 * Creates a new hosted level.
+		 *
+		 * @param l
+		 *            The level to advance.
+		 */
+		private HostedLevel(Level l) {
+			this.level = l;
+			this.busy = new AtomicBoolean(false);
+		}
+
+		/**
+		 * Reserves the next tick of this level.
+		 *
+		 * @return <code>true</code> iff the level was idle and may be ticked.
+		 */
+		private boolean claim() {
+			return busy.compareAndSet(false, true);
+		}
+
+		@Override
+		public Void call() {
+			try {
+				level.tick();
+				executedTicks.incrementAndGet();
+			} catch (RuntimeException | AssertionError e) {
+				failedTicks.incrementAndGet();
+				LOGGER.log(java.util.logging.Level.SEVERE,
+						"Level tick failed, stopping the level.", e);
+				remove(level);
+				level.fail(e);
+				throw e;
+			} finally {
+				busy.set(false);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * The body of the pacing thread, handing out a round of ticks every tick
+	 * period.
+	 */
+	private final class Pacer implements Runnable {
+
+		@Override
+		public void run() {
+			long next = clock.currentTimeMillis();
+			try {
+				while (!Thread.currentThread().isInterrupted()) {
+					submitRound();
+					next += tickMillis;
+					long behind = clock.currentTimeMillis() - next;
+					if (behind > MAX_CATCH_UP_TICKS * tickMillis) {
+						next += behind;
+					}
+					clock.sleepUntil(next);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -0,0 +1,260 @@
+package nl.tudelft.jpacman.level;
+
+/**
+ * The state of a level at a moment in time, taken by {@link Level#snapshot()}
+ * and put back by {@link Level#restore(LevelSnapshot)}, for instance to rewind
+ * a level when searching for a good move or when correcting a prediction.
+ * <p>
+ * A snapshot holds no units or squares, only primitive arrays: the square
+ * index and direction of every player and ghost, the scores, which pellets
+ * are left, the logical time and the strategy and timers of every ghost. It
+ * can be restored any number of times, on the level it was taken from.
+ * <p>
+ * The pellets are stored as chunks of bits that are never changed once the
+ * snapshot is complete, so that snapshots taken one after the other can share
+ * the chunks in which no pellet was eaten, see {@link GameState}.
+ */
+public final class LevelSnapshot {
+
+	/**
+	 * The value stored for a unit that is not on the board, or a direction
+	 * or strategy that is not set.
+	 */
+	static final int NONE = -1;
+
+	/**
+	 * The number of pellets per chunk of the pellet bits.
+	 */
+	static final int CHUNK_PELLETS = 512;
+
+	/**
+	 * The number of ticks that had passed.
+	 */
+	long tick;
+
+	/**
+	 * The number of tasks the scheduler of the level had scheduled.
+	 */
+	long sequence;
+
+	/**
+	 * The start square the next registered player gets.
+	 */
+	int startSquareIndex;
+
+	/**
+	 * The number of players alive.
+	 */
+	int alivePlayers;
+
+	/**
+	 * Whether the observers had been told the level was lost.
+	 */
+	boolean lost;
+
+	/**
+	 * Whether the observers had been told the level was won.
+	 */
+	boolean won;
+
+	/**
+	 * The number of pellets left.
+	 */
+	int pelletCount;
+
+	/**
+	 * The pellets on the board, a bit per pellet of the level, in chunks of
+	 * {@value #CHUNK_PELLETS} pellets.
+	 */
+	final long[][] pellets;
+
+	/**
+	 * The square index of every player.
+	 */
+	final int[] playerSquares;
+
+	/**
+	 * The direction of every player, as an ordinal.
+	 */
+	final byte[] playerDirections;
+
+	/**
+	 * The score of every player.
+	 */
+	final int[] scores;
+
+	/**
+	 * Whether every player is alive.
+	 */
+	final boolean[] alive;
+
+	/**
+	 * The square index of every ghost.
+	 */
+	final int[] ghostSquares;
+
+	/**
+	 * The direction of every ghost, as an ordinal.
+	 */
+	final byte[] ghostDirections;
+
+	/**
+	 * Whether every ghost is home.
+	 */
+	final boolean[] home;
+
+	/**
+	 * <code>true</code> iff the ghosts were moving, so that the timers below
+	 * hold their state.
+	 */
+	boolean timers;
+
+	/**
+	 * The strategy every ghost followed, by its position among the sorted
+	 * names of the strategies.
+	 */
+	final int[] strategies;
+
+	/**
+	 * The time every ghost last changed or kept its strategy, in
+	 * milliseconds.
+	 */
+	final long[] references;
+
+	/**
+	 * The number of strategy changes of every ghost.
+	 */
+	final int[] counters;
+
+	/**
+	 * The time after which every ghost changes its strategy, in
+	 * milliseconds.
+	 */
+	final int[] limits;
+
+	/**
+	 * The tick on which every ghost moves next, or -1 if it has no move
+	 * pending.
+	 */
+	final long[] due;
+
+	/**
+	 * The order in which the next move of every ghost was scheduled.
+	 */
+	final long[] order;
+
+	/**
+	 * Creates an empty snapshot.
+	 *
+	 * @param playerCount
+	 *            The number of players on the level.
+	 * @param ghostCount
+	 *            The number of ghosts on the level.
+	 * @param pelletTotal
+	 *            The number of pellets the level started with.
+	 */
+	LevelSnapshot(int playerCount, int ghostCount, int pelletTotal) {
+		this(playerCount, ghostCount, newChunks(pelletTotal));
+	}
+
+	/**
+	 * Creates a snapshot sharing the chunks of pellet bits of another.
+	 *
+	 * @param playerCount
+	 *            The number of players on the level.
+	 * @param ghostCount
+	 *            The number of ghosts on the level.
+	 * @param pelletChunks
+	 *            The chunks of pellet bits, which are not copied.
+	 */
+	LevelSnapshot(int playerCount, int ghostCount, long[][] pelletChunks) {
+		this.pellets = pelletChunks;
+		this.playerSquares = new int[playerCount];
+		this.playerDirections = new byte[playerCount];
+		this.scores = new int[playerCount];
+		this.alive = new boolean[playerCount];
+		this.ghostSquares = new int[ghostCount];
+		this.ghostDirections = new byte[ghostCount];
+		this.home = new boolean[ghostCount];
+		this.strategies = new int[ghostCount];
+		this.references = new long[ghostCount];
+		this.counters = new int[ghostCount];
+		this.limits = new int[ghostCount];
+		this.due = new long[ghostCount];
+		this.order = new long[ghostCount];
+	}
+
+	/**
+	 * @param pelletTotal
+	 *            The number of pellets the level started with.
+	 * @return Empty chunks for the bits of the pellets.
+	 */
+	private static long[][] newChunks(int pelletTotal) {
+		int words = (pelletTotal + Long.SIZE - 1) / Long.SIZE;
+		int perChunk = CHUNK_PELLETS / Long.SIZE;
+		long[][] chunks = new long[(words + perChunk - 1) / perChunk][];
+		for (int i = 0; i < chunks.length; i++) {
+			chunks[i] = new long[Math.min(perChunk, words - i * perChunk)];
+		}
+		return chunks;
+	}
+
+	/**
+	 * @param pellet
+	 *            The number of a pellet of the level.
+	 * @return <code>true</code> iff the pellet was on the board.
+	 */
+	boolean hasPellet(int pellet) {
+		long[] chunk = pellets[pellet / CHUNK_PELLETS];
+		return (chunk[pellet % CHUNK_PELLETS / Long.SIZE] & 1L << pellet) != 0;
+	}
+
+	/**
+	 * Marks a pellet as on the board, while the snapshot is being taken.
+	 *
+	 * @param pellet
+	 *            The number of the pellet.
+	 */
+	void setPellet(int pellet) {
+		long[] chunk = pellets[pellet / CHUNK_PELLETS];
+		chunk[pellet % CHUNK_PELLETS / Long.SIZE] |= 1L << pellet;
+	}
+
+	/**
+	 * @return The number of ticks that had passed when the snapshot was
+	 *         taken.
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * @return The number of pellets left when the snapshot was taken.
+	 */
+	public int getRemainingPellets() {
+		return pelletCount;
+	}
+
+	/**
+	 * @param player
+	 *            The position of the player in the order of registration.
+	 * @return The score of the player when the snapshot was taken.
+	 */
+	public int getScore(int player) {
+		return scores[player];
+	}
+
+	/**
+	 * @return The number of players on the level.
+	 */
+	int getPlayerCount() {
+		return scores.length;
+	}
+
+	/**
+	 * @return The number of ghosts on the level.
+	 */
+	int getGhostCount() {
+		return ghostSquares.length;
+	}
+}
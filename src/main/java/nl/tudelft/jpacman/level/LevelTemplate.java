@@ -0,0 +1,209 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.npc.NPC;
+import nl.tudelft.jpacman.npc.ghost.DistanceTable;
+
+/**
+ * A map that has been parsed once, from which any number of new, independent
+ * levels can be created without reading the map again, see
+ * {@link MapParser#parseTemplate(List)}.
+ * <p>
+ * The template keeps the terrain, the pellets and the ghost and start squares
+ * of the map. Every level gets squares, pellets and ghosts of its own, so that
+ * playing one level never affects another, and all levels get the same kinds
+ * of ghosts. The table of distances between squares only depends on the
+ * walls, so it is computed for the first level and shared by all others.
+ */
+public class LevelTemplate {
+
+	/**
+	 * The factory that creates the levels, pellets and ghosts.
+	 */
+	private final LevelFactory levelCreator;
+
+	/**
+	 * The factory that creates the squares and boards.
+	 */
+	private final BoardFactory boardCreator;
+
+	/**
+	 * The width of the map.
+	 */
+	private final int width;
+
+	/**
+	 * The height of the map.
+	 */
+	private final int height;
+
+	/**
+	 * The wall squares, by index.
+	 */
+	private final BitSet walls;
+
+	/**
+	 * The squares holding a pellet, by index.
+	 */
+	private final BitSet pellets;
+
+	/**
+	 * The indices of the ghost squares, in the order the ghosts are created.
+	 */
+	private final int[] ghostSquares;
+
+	/**
+	 * The kind of every ghost, see {@link LevelFactory#createGhost(int)}.
+	 */
+	private final int[] ghostKinds;
+
+	/**
+	 * The indices of the start squares, in the order players use them.
+	 */
+	private final int[] startSquares;
+
+	/**
+	 * The distances shared by the ghosts of all levels, or <code>null</code>
+	 * if the board is too large for a table.
+	 */
+	private DistanceTable distances;
+
+	/**
+	 * <code>true</code> once {@link #distances} has been set, by the first
+	 * level with ghosts.
+	 */
+	private volatile boolean distancesSet;
+
+	/**
+	 * Creates a new template.
+	 *
+	 * @param levelFactory
+	 *            The factory providing the pellets, ghosts and levels.
+	 * @param boardFactory
+	 *            The factory providing the squares and boards.
+	 * @param w
+	 *            The width of the map.
+	 * @param h
+	 *            The height of the map.
+	 * @param wallSquares
+	 *            The wall squares, by index.
+	 * @param pelletSquares
+	 *            The squares holding a pellet, by index.
+	 * @param ghosts
+	 *            The indices of the ghost squares, in order of creation.
+	 * @param kinds
+	 *            The kind of every ghost.
+	 * @param starts
+	 *            The indices of the start squares, in order of use.
+	 */
+	LevelTemplate(LevelFactory levelFactory, BoardFactory boardFactory,
+			int w, int h, BitSet wallSquares, BitSet pelletSquares,
+			int[] ghosts, int[] kinds, int[] starts) {
+		assert w > 0 && h > 0;
+		assert ghosts.length == kinds.length;
+		this.levelCreator = levelFactory;
+		this.boardCreator = boardFactory;
+		this.width = w;
+		this.height = h;
+		this.walls = wallSquares;
+		this.pellets = pelletSquares;
+		this.ghostSquares = ghosts;
+		this.ghostKinds = kinds;
+		this.startSquares = starts;
+	}
+
+	/**
+	 * @return The width of the map.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return The height of the map.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Creates a new level of the map, with fresh squares, pellets and ghosts.
+	 * May be called from any thread.
+	 *
+	 * @return A new level.
+	 */
+	public Level createLevel() {
+		Square[][] grid = new Square[width][height];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				if (walls.get(y * width + x)) {
+					grid[x][y] = boardCreator.createWall();
+				} else {
+					grid[x][y] = boardCreator.createGround();
+				}
+			}
+		}
+		for (int i = pellets.nextSetBit(0); i >= 0; i = pellets
+				.nextSetBit(i + 1)) {
+			levelCreator.createPellet().occupy(squareAt(grid, i));
+		}
+
+		List<NPC> ghosts = new ArrayList<>(ghostSquares.length);
+		for (int i = 0; i < ghostSquares.length; i++) {
+			NPC ghost = levelCreator.createGhost(ghostKinds[i]);
+			ghosts.add(ghost);
+			ghost.occupy(squareAt(grid, ghostSquares[i]));
+		}
+		List<Square> startPositions = new ArrayList<>(startSquares.length);
+		for (int index : startSquares) {
+			startPositions.add(squareAt(grid, index));
+		}
+
+		Board board = boardCreator.createBoard(grid);
+		return levelCreator.createLevel(board, ghosts, startPositions,
+				getDistances(board, ghosts));
+	}
+
+	/**
+	 * @param grid
+	 *            The squares of a level.
+	 * @param index
+	 *            The index of a square.
+	 * @return The square.
+	 */
+	private Square squareAt(Square[][] grid, int index) {
+		return grid[index % width][index / width];
+	}
+
+	/**
+	 * Returns the distances for the ghosts of a level, computing them for the
+	 * first level.
+	 *
+	 * @param board
+	 *            The board of the level.
+	 * @param ghosts
+	 *            The ghosts of the level.
+	 * @return The distances, or <code>null</code> if there are no ghosts or
+	 *         the board is too large for a table.
+	 */
+	private DistanceTable getDistances(Board board, List<NPC> ghosts) {
+		if (ghosts.isEmpty()) {
+			return null;
+		}
+		if (!distancesSet) {
+			synchronized (this) {
+				if (!distancesSet) {
+					distances = DistanceTable.forBoard(board, ghosts.get(0));
+					distancesSet = true;
+				}
+			}
+		}
+		return distances;
+	}
+}
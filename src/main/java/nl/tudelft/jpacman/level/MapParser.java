@@ -1,25 +1,58 @@
 package nl.tudelft.jpacman.level;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 import nl.tudelft.jpacman.PacmanConfigurationException;
 import nl.tudelft.jpacman.board.Board;
 import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.CompactBoard;
 import nl.tudelft.jpacman.board.Square;
 import nl.tudelft.jpacman.npc.NPC;
 
 /**
  * Creates new {@link Level}s from text representations.
+ * <p>
+ * Maps are read row by row, and every square is created as soon as its
+ * character is read, so that text read from a stream or file is never held
+ * in memory as a whole. Maps too large to create a square object for every
+ * position can be read into a level on a {@link CompactBoard} instead. Maps
+ * in the {@link BinaryMapFormat} are read straight from a buffer.
  * 
  * @author Jeroen Roosen 
  */
 public class MapParser {
 
+	/**
+	 * The size of the buffer used to read character streams.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * The largest part of a file that is mapped into memory at once.
+	 */
+	private static final long MAX_MAPPED_BYTES = 1L << 30;
+
 	/**
 	 * The factory that creates the levels.
 	 */
@@ -64,67 +97,19 @@ public class MapParser {
 		int width = map.length;
 		int height = map[0].length;
 
-		Square[][] grid = new Square[width][height];
-
-		List<NPC> ghosts = new ArrayList<>();
-		List<Square> startPositions = new ArrayList<>();
-
-		makeGrid(map, width, height, grid, ghosts, startPositions);
-		
-		Board board = boardCreator.createBoard(grid);
-		return levelCreator.createLevel(board, ghosts, startPositions);
-	}
-
-	private void makeGrid(char[][] map, int width, int height,
-			Square[][] grid, List<NPC> ghosts, List<Square> startPositions) {
-		for (int x = 0; x < width; x++) {
-			for (int y = 0; y < height; y++) {
-				char c = map[x][y];
-				addSquare(grid, ghosts, startPositions, x, y, c);
-			}
-		}
-	}
-
-	private void addSquare(Square[][] grid, List<NPC> ghosts,
-			List<Square> startPositions, int x, int y, char c) {
-		switch (c) {
-		case ' ':
-			grid[x][y] = boardCreator.createGround();
-			break;
-		case '#':
-			grid[x][y] = boardCreator.createWall();
-			break;
-		case '.':
-			Square pelletSquare = boardCreator.createGround();
-			grid[x][y] = pelletSquare;
-			levelCreator.createPellet().occupy(pelletSquare);
-			break;
-		case 'G':
-			Square ghostSquare = makeGhostSquare(ghosts);
-			grid[x][y] = ghostSquare;
-			break;
-		case 'P':
-			Square playerSquare = boardCreator.createGround();
-			grid[x][y] = playerSquare;
-			startPositions.add(playerSquare);
-			break;
-		default:
-			throw new PacmanConfigurationException("Invalid character at "
-					+ x + "," + y + ": " + c);
+		LevelBuilder builder = new LevelBuilder();
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				builder.put(map[x][y]);
+			}
+			builder.endRow();
 		}
-	}
-
-	private Square makeGhostSquare(List<NPC> ghosts) {
-		Square ghostSquare = boardCreator.createGround();
-		NPC ghost = levelCreator.createGhost();
-		ghosts.add(ghost);
-		ghost.occupy(ghostSquare);
-		return ghostSquare;
+		return builder.build();
 	}
 
 	/**
-	 * Parses the list of strings into a 2-dimensional character array and
-	 * passes it on to {@link #parseMap(char[][])}.
+	 * Parses the list of strings into a level, see
+	 * {@link #parseMap(char[][])} for the supported characters.
 	 * 
 	 * @param text
 	 *            The plain text, with every entry in the list being a equally
@@ -137,16 +122,14 @@ public class MapParser {
 		
 		checkMapFormat(text);
 
-		int height = text.size();
-		int width = text.get(0).length();
-
-		char[][] map = new char[width][height];
-		for (int x = 0; x < width; x++) {
-			for (int y = 0; y < height; y++) {
-				map[x][y] = text.get(y).charAt(x);
+		LevelBuilder builder = new LevelBuilder();
+		for (String line : text) {
+			for (int x = 0; x < line.length(); x++) {
+				builder.put(line.charAt(x));
 			}
+			builder.endRow();
 		}
-		return parseMap(map);
+		return builder.build();
 	}
 	
 	/**
@@ -154,7 +137,7 @@ public class MapParser {
 	 * @param text Map to be checked
 	 * @throws PacmanConfigurationException if map is not OK.
 	 */
-	private void checkMapFormat(List<String> text) {	
+	static void checkMapFormat(List<String> text) {	
 		if (text == null) {
 			throw new PacmanConfigurationException(
 					"Input text cannot be null.");
@@ -181,8 +164,10 @@ public class MapParser {
 	}
 
 	/**
-	 * Parses the provided input stream as a character stream and passes it
-	 * result to {@link #parseMap(List)}.
+	 * Parses the provided input stream as a UTF-8 character stream into a
+	 * level, creating the squares while reading the stream. Rows are
+	 * separated by line breaks, see {@link #parseMap(char[][])} for the
+	 * supported characters.
 	 * 
 	 * @param source
 	 *            The input stream that will be read.
@@ -191,13 +176,843 @@ public class MapParser {
 	 *             when the source could not be read.
 	 */
 	public Level parseMap(InputStream source) throws IOException {
-		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
-				source, "UTF-8"))) {
-			List<String> lines = new ArrayList<>();
-			while (reader.ready()) {
-				lines.add(reader.readLine());
+		LevelBuilder builder = new LevelBuilder();
+		read(source, builder);
+		return builder.build();
+	}
+
+	/**
+	 * Parses a map file into a level, reading the file through a memory
+	 * mapping. The file must be ASCII or UTF-8 encoded, see
+	 * {@link #parseMap(char[][])} for the supported characters.
+	 * 
+	 * @param file
+	 *            The file to read.
+	 * @return The parsed level.
+	 * @throws IOException
+	 *             when the file could not be read.
+	 */
+	public Level parseMap(Path file) throws IOException {
+		LevelBuilder builder = new LevelBuilder();
+		read(file, builder);
+		return builder.build();
+	}
+
+	/**
+	 * Parses the list of strings into a template, from which new levels of
+	 * the map can be created quickly, see {@link #parseMap(char[][])} for the
+	 * supported characters.
+	 * 
+	 * @param text
+	 *            The plain text, with every entry in the list being a equally
+	 *            sized row of squares on the board and the first element being
+	 *            the top row.
+	 * @return The template of the map.
+	 * @throws PacmanConfigurationException If text lines are not properly formatted.
+	 */
+	public LevelTemplate parseTemplate(List<String> text) {
+		checkMapFormat(text);
+
+		TemplateBuilder builder = new TemplateBuilder();
+		for (String line : text) {
+			for (int x = 0; x < line.length(); x++) {
+				builder.put(line.charAt(x));
+			}
+			builder.endRow();
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Parses the provided input stream as a UTF-8 character stream into a
+	 * template, from which new levels of the map can be created quickly. See
+	 * {@link #parseMap(InputStream)}.
+	 * 
+	 * @param source
+	 *            The input stream that will be read.
+	 * @return The template of the map.
+	 * @throws IOException
+	 *             when the source could not be read.
+	 */
+	public LevelTemplate parseTemplate(InputStream source) throws IOException {
+		TemplateBuilder builder = new TemplateBuilder();
+		read(source, builder);
+		return builder.build();
+	}
+
+	/**
+	 * Parses the provided input stream as a UTF-8 character stream into a
+	 * level on a compact board, which stores only the terrain and pellets of
+	 * every square, see {@link #parseMap(InputStream)}.
+	 * 
+	 * @param source
+	 *            The input stream that will be read.
+	 * @return The parsed level as represented by the text on the input stream.
+	 * @throws IOException
+	 *             when the source could not be read.
+	 */
+	public Level parseCompactMap(InputStream source) throws IOException {
+		CompactBoardBuilder builder = new CompactBoardBuilder(0L);
+		read(source, builder);
+		return builder.buildLevel();
+	}
+
+	/**
+	 * Parses a map file into a level on a compact board, reading the file
+	 * through a memory mapping, see {@link #parseMap(Path)}.
+	 * 
+	 * @param file
+	 *            The file to read.
+	 * @return The parsed level.
+	 * @throws IOException
+	 *             when the file could not be read.
+	 */
+	public Level parseCompactMap(Path file) throws IOException {
+		CompactBoardBuilder builder = new CompactBoardBuilder(
+				Files.size(file));
+		read(file, builder);
+		return builder.buildLevel();
+	}
+
+	/**
+	 * Parses the provided input stream into a compact board, which stores
+	 * only the terrain and pellets of every square. Player start squares
+	 * ('P') and ghosts ('G') are read as empty squares; use
+	 * {@link #parseCompactMap(InputStream)} for a level with its units.
+	 * 
+	 * @param source
+	 *            The input stream that will be read.
+	 * @return The board as represented by the text on the input stream.
+	 * @throws IOException
+	 *             when the source could not be read.
+	 */
+	public CompactBoard parseCompactBoard(InputStream source)
+			throws IOException {
+		CompactBoardBuilder builder = new CompactBoardBuilder(0L);
+		read(source, builder);
+		return builder.build();
+	}
+
+	/**
+	 * Parses a map file into a compact board, reading the file through a
+	 * memory mapping. See {@link #parseCompactBoard(InputStream)}.
+	 * 
+	 * @param file
+	 *            The file to read.
+	 * @return The board as represented by the file.
+	 * @throws IOException
+	 *             when the file could not be read.
+	 */
+	public CompactBoard parseCompactBoard(Path file) throws IOException {
+		CompactBoardBuilder builder = new CompactBoardBuilder(
+				Files.size(file));
+		read(file, builder);
+		return builder.build();
+	}
+
+	/**
+	 * Reads a map in the {@link BinaryMapFormat} into a level. The map is
+	 * read from the current position of the buffer, without copying it, and
+	 * the position is advanced past the map, so that the next map in the
+	 * buffer can be read by the next call.
+	 * 
+	 * @param source
+	 *            The buffer holding the map, such as a memory mapped file.
+	 * @return The level of the map.
+	 * @throws PacmanConfigurationException
+	 *             If the buffer does not hold a valid map.
+	 */
+	public Level parseBinaryMap(ByteBuffer source) {
+		ByteBuffer in = source.slice().order(ByteOrder.BIG_ENDIAN);
+		try {
+			Level level = readBinaryMap(in);
+			// through Buffer, which has the same method on Java 8
+			((Buffer) source).position(source.position() + in.position());
+			return level;
+		} catch (BufferUnderflowException e) {
+			throw new PacmanConfigurationException("Binary map is truncated.",
+					e);
+		}
+	}
+
+	/**
+	 * Reads a map in the {@link BinaryMapFormat} into a level.
+	 * 
+	 * @param in
+	 *            The big endian buffer positioned at the start of the map.
+	 * @return The level of the map.
+	 */
+	private Level readBinaryMap(ByteBuffer in) {
+		if (in.getInt() != BinaryMapFormat.MAGIC) {
+			throw new PacmanConfigurationException("Not a binary map.");
+		}
+		short version = in.getShort();
+		if (version != BinaryMapFormat.VERSION) {
+			throw new PacmanConfigurationException(
+					"Unsupported binary map version " + version + ".");
+		}
+		in.getShort();
+		int width = in.getInt();
+		int height = in.getInt();
+		if (width <= 0 || height <= 0
+				|| (long) width * height > Integer.MAX_VALUE) {
+			throw new PacmanConfigurationException("Invalid binary map size "
+					+ width + "x" + height + ".");
+		}
+		int squareCount = width * height;
+		int pelletBytes = (squareCount + Byte.SIZE - 1) / Byte.SIZE;
+		// the terrain takes at least a byte, and the pellets a bit per square
+		if (in.remaining() < 1L + pelletBytes + 2L * Integer.BYTES) {
+			throw new PacmanConfigurationException("Binary map of size "
+					+ width + "x" + height + " is truncated.");
+		}
+
+		Square[][] grid = new Square[width][height];
+		boolean[] walls = new boolean[squareCount];
+		int index = 0;
+		while (index < squareCount) {
+			long run = readRun(in);
+			boolean wall = (run & 1) != 0;
+			long length = run >>> 1;
+			if (length > squareCount - index) {
+				throw new PacmanConfigurationException(
+						"Binary map terrain exceeds the map size.");
+			}
+			for (int end = index + (int) length; index < end; index++) {
+				int x = index % width;
+				int y = index / width;
+				if (wall) {
+					walls[index] = true;
+					grid[x][y] = boardCreator.createWall();
+				} else {
+					grid[x][y] = boardCreator.createGround();
+				}
+			}
+		}
+
+		if (in.remaining() < pelletBytes) {
+			throw new BufferUnderflowException();
+		}
+		for (int i = 0; i < pelletBytes; i++) {
+			int bits = in.get() & 0xFF;
+			while (bits != 0) {
+				int square = i * Byte.SIZE
+						+ Integer.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+				levelCreator.createPellet().occupy(
+						groundAt(grid, walls, width, square));
+			}
+		}
+
+		int ghostCount = readCount(in);
+		List<NPC> ghosts = new ArrayList<>();
+		for (int i = 0; i < ghostCount; i++) {
+			NPC ghost = levelCreator.createGhost();
+			ghosts.add(ghost);
+			ghost.occupy(groundAt(grid, walls, width, in.getInt()));
+		}
+		int startCount = readCount(in);
+		List<Square> startPositions = new ArrayList<>();
+		for (int i = 0; i < startCount; i++) {
+			startPositions.add(groundAt(grid, walls, width, in.getInt()));
+		}
+
+		Board board = boardCreator.createBoard(grid);
+		return levelCreator.createLevel(board, ghosts, startPositions);
+	}
+
+	/**
+	 * Reads the number of entries of a table of square indices.
+	 * 
+	 * @param in
+	 *            The buffer positioned at the table.
+	 * @return The number of entries, which all fit in the buffer.
+	 */
+	private static int readCount(ByteBuffer in) {
+		int count = in.getInt();
+		if (count < 0) {
+			throw new PacmanConfigurationException(
+					"Invalid binary map table size " + count + ".");
+		}
+		if (count > in.remaining() / Integer.BYTES) {
+			throw new BufferUnderflowException();
+		}
+		return count;
+	}
+
+	/**
+	 * Reads the unsigned LEB128 encoded number of a terrain run.
+	 * 
+	 * @param in
+	 *            The buffer positioned at the run.
+	 * @return The length of the run shifted left by one, with the lowest bit
+	 *         set for walls.
+	 */
+	private static long readRun(ByteBuffer in) {
+		long value = 0L;
+		int shift = 0;
+		int b;
+		do {
+			if (shift >= Long.SIZE) {
+				throw new PacmanConfigurationException(
+						"Invalid binary map terrain run.");
+			}
+			b = in.get();
+			value |= (long) (b & (BinaryMapFormat.MORE - 1)) << shift;
+			shift += BinaryMapFormat.RUN_BITS;
+		} while ((b & BinaryMapFormat.MORE) != 0);
+		return value;
+	}
+
+	/**
+	 * @param grid
+	 *            The squares of the map.
+	 * @param walls
+	 *            Whether each square is a wall, by index.
+	 * @param width
+	 *            The width of the map.
+	 * @param index
+	 *            The index of a square read from the map.
+	 * @return The square, which must be within the map and not a wall.
+	 */
+	private static Square groundAt(Square[][] grid, boolean[] walls,
+			int width, int index) {
+		if (index < 0 || index >= walls.length || walls[index]) {
+			throw new PacmanConfigurationException(
+					"Binary map refers to square " + index
+							+ ", which is not a ground square.");
+		}
+		return grid[index % width][index / width];
+	}
+
+	/**
+	 * Reads a character stream into a builder, until the end of the stream.
+	 * 
+	 * @param source
+	 *            The stream to read, which is closed afterwards.
+	 * @param builder
+	 *            The builder to put the squares in.
+	 * @throws IOException
+	 *             when the source could not be read.
+	 */
+	private static void read(InputStream source, MapBuilder builder)
+			throws IOException {
+		try (Reader reader = new InputStreamReader(source,
+				StandardCharsets.UTF_8)) {
+			char[] buffer = new char[BUFFER_SIZE];
+			int count = reader.read(buffer);
+			while (count >= 0) {
+				for (int i = 0; i < count; i++) {
+					builder.accept(buffer[i]);
+				}
+				count = reader.read(buffer);
+			}
+		}
+		builder.finish();
+	}
+
+	/**
+	 * Reads a file through a memory mapping into a builder. All supported
+	 * characters are ASCII, so the bytes are read as characters.
+	 * 
+	 * @param file
+	 *            The file to read.
+	 * @param builder
+	 *            The builder to put the squares in.
+	 * @throws IOException
+	 *             when the file could not be read.
+	 */
+	private static void read(Path file, MapBuilder builder)
+			throws IOException {
+		try (FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.READ)) {
+			long size = channel.size();
+			for (long offset = 0; offset < size; offset += MAX_MAPPED_BYTES) {
+				MappedByteBuffer buffer = channel.map(
+						FileChannel.MapMode.READ_ONLY, offset,
+						Math.min(MAX_MAPPED_BYTES, size - offset));
+				while (buffer.hasRemaining()) {
+					builder.accept((char) (buffer.get() & 0xFF));
+				}
+			}
+		}
+		builder.finish();
+	}
+
+	/**
+	 * Receives the characters of a map row by row, and keeps track of the
+	 * position and the width of the rows.
+	 */
+	private abstract static class MapBuilder {
+
+		/**
+		 * The width of the rows, or -1 until the first row has ended.
+		 */
+		private int width = -1;
+
+		/**
+		 * The position of the next square in its row.
+		 */
+		private int column;
+
+		/**
+		 * The row of the next square.
+		 */
+		private int row;
+
+		/**
+		 * Accepts a character of the text of a map, in which rows are
+		 * separated by line breaks.
+		 * 
+		 * @param c
+		 *            The character.
+		 */
+		void accept(char c) {
+			if (c == '\n') {
+				endRow();
+			} else if (c != '\r') {
+				put(c);
+			}
+		}
+
+		/**
+		 * Adds the square for a character to the current row.
+		 * 
+		 * @param c
+		 *            The character of the square.
+		 */
+		void put(char c) {
+			if (width >= 0 && column >= width) {
+				throw new PacmanConfigurationException(
+						"Input text lines are not of equal width.");
+			}
+			square(column, row, c);
+			column++;
+		}
+
+		/**
+		 * Ends the current row.
+		 */
+		void endRow() {
+			if (width < 0) {
+				if (column == 0) {
+					throw new PacmanConfigurationException(
+							"Input text lines cannot be empty.");
+				}
+				width = column;
+				firstRowEnded(width);
+			} else if (column != width) {
+				throw new PacmanConfigurationException(
+						"Input text lines are not of equal width.");
+			}
+			column = 0;
+			row++;
+		}
+
+		/**
+		 * Ends the map, ending the last row if the text did not end with a
+		 * line break.
+		 */
+		void finish() {
+			if (column > 0) {
+				endRow();
+			}
+			if (row == 0) {
+				throw new PacmanConfigurationException(
+						"Input text must consist of at least 1 row.");
+			}
+		}
+
+		/**
+		 * @return The width of the map, or -1 until the first row ended.
+		 */
+		int getWidth() {
+			return width;
+		}
+
+		/**
+		 * @return The number of complete rows.
+		 */
+		int getHeight() {
+			return row;
+		}
+
+		/**
+		 * Called when the width of the map becomes known.
+		 * 
+		 * @param w
+		 *            The width of the map.
+		 */
+		abstract void firstRowEnded(int w);
+
+		/**
+		 * Adds a square.
+		 * 
+		 * @param x
+		 *            The x position of the square.
+		 * @param y
+		 *            The y position of the square.
+		 * @param c
+		 *            The character of the square.
+		 */
+		abstract void square(int x, int y, char c);
+
+		/**
+		 * @param x
+		 *            The x position of a square.
+		 * @param y
+		 *            The y position of a square.
+		 * @return A key ordering squares by column, then by row, which is
+		 *         the order in which ghosts are created and start squares are
+		 *         used.
+		 */
+		static long columnFirst(int x, int y) {
+			return ((long) x << Integer.SIZE) | y;
+		}
+
+		/**
+		 * @param x
+		 *            The x position of the square.
+		 * @param y
+		 *            The y position of the square.
+		 * @param c
+		 *            The character of the square.
+		 * @return The exception for an unsupported character.
+		 */
+		static PacmanConfigurationException invalid(int x, int y, char c) {
+			return new PacmanConfigurationException("Invalid character at "
+					+ x + "," + y + ": " + c);
+		}
+	}
+
+	/**
+	 * Builds a level, creating a square object for every position.
+	 */
+	private final class LevelBuilder extends MapBuilder {
+
+		/**
+		 * The complete rows of squares.
+		 */
+		private final List<Square[]> rows = new ArrayList<>();
+
+		/**
+		 * The current row of squares.
+		 */
+		private Square[] current = new Square[BUFFER_SIZE / 8];
+
+		/**
+		 * The ghost squares, in the order their ghosts are created: by column,
+		 * then by row.
+		 */
+		private final Map<Long, Square> ghostSquares = new TreeMap<>();
+
+		/**
+		 * The start squares, in the order players use them: by column, then
+		 * by row.
+		 */
+		private final Map<Long, Square> startSquares = new TreeMap<>();
+
+		@Override
+		void firstRowEnded(int w) {
+			current = Arrays.copyOf(current, w);
+		}
+
+		@Override
+		void endRow() {
+			super.endRow();
+			rows.add(current);
+			current = new Square[getWidth()];
+		}
+
+		@Override
+		void square(int x, int y, char c) {
+			if (x == current.length) {
+				current = Arrays.copyOf(current, x * 2);
+			}
+			Square square;
+			switch (c) {
+			case ' ':
+				square = boardCreator.createGround();
+				break;
+			case '#':
+				square = boardCreator.createWall();
+				break;
+			case '.':
+				square = boardCreator.createGround();
+				levelCreator.createPellet().occupy(square);
+				break;
+			case 'G':
+				square = boardCreator.createGround();
+				ghostSquares.put(columnFirst(x, y), square);
+				break;
+			case 'P':
+				square = boardCreator.createGround();
+				startSquares.put(columnFirst(x, y), square);
+				break;
+			default:
+				throw invalid(x, y, c);
+			}
+			current[x] = square;
+		}
+
+		/**
+		 * @return The level of the squares read.
+		 */
+		Level build() {
+			int width = getWidth();
+			int height = getHeight();
+			Square[][] grid = new Square[width][height];
+			for (int y = 0; y < height; y++) {
+				Square[] row = rows.get(y);
+				for (int x = 0; x < width; x++) {
+					grid[x][y] = row[x];
+				}
+			}
+			rows.clear();
+
+			List<NPC> ghosts = new ArrayList<>();
+			for (Square square : ghostSquares.values()) {
+				NPC ghost = levelCreator.createGhost();
+				ghosts.add(ghost);
+				ghost.occupy(square);
+			}
+			List<Square> startPositions = new ArrayList<>(
+					startSquares.values());
+
+			Board board = boardCreator.createBoard(grid);
+			return levelCreator.createLevel(board, ghosts, startPositions);
+		}
+	}
+
+	/**
+	 * Builds a level template, recording the squares of the map by index.
+	 */
+	private final class TemplateBuilder extends MapBuilder {
+
+		/**
+		 * The wall squares read, by index.
+		 */
+		private final BitSet walls = new BitSet();
+
+		/**
+		 * The squares read that hold a pellet, by index.
+		 */
+		private final BitSet pellets = new BitSet();
+
+		/**
+		 * The positions of the ghost squares, in the order their ghosts are
+		 * created.
+		 */
+		private final SortedSet<Long> ghostSquares = new TreeSet<>();
+
+		/**
+		 * The positions of the start squares, in the order players use them.
+		 */
+		private final SortedSet<Long> startSquares = new TreeSet<>();
+
+		@Override
+		void firstRowEnded(int w) {
+			// positions are stored until the width is known
+		}
+
+		@Override
+		void square(int x, int y, char c) {
+			// the width is unknown while reading the first row, so squares
+			// are indexed by their position until the template is built
+			long position = columnFirst(x, y);
+			switch (c) {
+			case ' ':
+				break;
+			case '#':
+				walls.set(bitOf(x, y));
+				break;
+			case '.':
+				pellets.set(bitOf(x, y));
+				break;
+			case 'G':
+				ghostSquares.add(position);
+				break;
+			case 'P':
+				startSquares.add(position);
+				break;
+			default:
+				throw invalid(x, y, c);
+			}
+		}
+
+		/**
+		 * @param x
+		 *            The x position of a square.
+		 * @param y
+		 *            The y position of a square.
+		 * @return The index of the square, which only depends on the width
+		 *         of the map from the second row on.
+		 */
+		private int bitOf(int x, int y) {
+			return y == 0 ? x : y * getWidth() + x;
+		}
+
+		/**
+		 * @param positions
+		 *            Square positions keyed by {@link #columnFirst(int, int)}.
+		 * @return The indices of the squares, in the same order.
+		 */
+		private int[] indices(SortedSet<Long> positions) {
+			int[] result = new int[positions.size()];
+			int i = 0;
+			for (long position : positions) {
+				int x = (int) (position >>> Integer.SIZE);
+				int y = (int) position;
+				result[i++] = y * getWidth() + x;
+			}
+			return result;
+		}
+
+		/**
+		 * @return The template of the squares read.
+		 */
+		LevelTemplate build() {
+			int[] ghosts = indices(ghostSquares);
+			int[] kinds = new int[ghosts.length];
+			for (int i = 0; i < kinds.length; i++) {
+				kinds[i] = levelCreator.nextGhostKind();
 			}
-			return parseMap(lines);
+			return new LevelTemplate(levelCreator, boardCreator, getWidth(),
+					getHeight(), walls, pellets, ghosts, kinds,
+					indices(startSquares));
+		}
+	}
+
+	/**
+	 * Builds a compact board, storing the terrain and pellets directly, and
+	 * the level on it.
+	 */
+	private final class CompactBoardBuilder extends MapBuilder {
+
+		/**
+		 * The size of the text in bytes, if known, or 0.
+		 */
+		private final long expectedBytes;
+
+		/**
+		 * The terrain of the squares read, by index.
+		 */
+		private byte[] terrain = new byte[BUFFER_SIZE];
+
+		/**
+		 * The squares read that hold a pellet, by index.
+		 */
+		private final BitSet pellets = new BitSet();
+
+		/**
+		 * The positions of the ghost squares, in the order their ghosts are
+		 * created.
+		 */
+		private final SortedSet<Long> ghostSquares = new TreeSet<>();
+
+		/**
+		 * The positions of the start squares, in the order players use them.
+		 */
+		private final SortedSet<Long> startSquares = new TreeSet<>();
+
+		/**
+		 * @param bytes
+		 *            The size of the text in bytes, if known, or 0.
+		 */
+		private CompactBoardBuilder(long bytes) {
+			this.expectedBytes = bytes;
+		}
+
+		@Override
+		void firstRowEnded(int w) {
+			// with a line break after every row, the size of the text tells
+			// the number of rows
+			long rowsExpected = expectedBytes / (w + 1);
+			long squares = rowsExpected * w;
+			if (squares > terrain.length && squares <= Integer.MAX_VALUE) {
+				terrain = Arrays.copyOf(terrain, (int) squares);
+			}
+		}
+
+		@Override
+		void square(int x, int y, char c) {
+			int width = getWidth();
+			int index;
+			if (width < 0) {
+				index = x;
+			} else {
+				index = y * width + x;
+			}
+			if (index == terrain.length) {
+				terrain = Arrays.copyOf(terrain, index * 2);
+			}
+			switch (c) {
+			case '#':
+				terrain[index] = CompactBoard.WALL;
+				break;
+			case '.':
+				terrain[index] = CompactBoard.GROUND;
+				pellets.set(index);
+				break;
+			case ' ':
+				terrain[index] = CompactBoard.GROUND;
+				break;
+			case 'G':
+				terrain[index] = CompactBoard.GROUND;
+				ghostSquares.add(columnFirst(x, y));
+				break;
+			case 'P':
+				terrain[index] = CompactBoard.GROUND;
+				startSquares.add(columnFirst(x, y));
+				break;
+			default:
+				throw invalid(x, y, c);
+			}
+		}
+
+		/**
+		 * @return The board of the squares read.
+		 */
+		CompactBoard build() {
+			int width = getWidth();
+			int height = getHeight();
+			int squares = width * height;
+			if (terrain.length != squares) {
+				terrain = Arrays.copyOf(terrain, squares);
+			}
+			return boardCreator.createCompactBoard(width, height, terrain,
+					pellets);
+		}
+
+		/**
+		 * @return The level on the board of the squares read.
+		 */
+		Level buildLevel() {
+			CompactBoard board = build();
+			List<NPC> ghosts = new ArrayList<>();
+			for (long position : ghostSquares) {
+				NPC ghost = levelCreator.createGhost();
+				ghosts.add(ghost);
+				ghost.occupy(squareAt(board, position));
+			}
+			// the level refers to the start squares, so they stay in use
+			List<Square> startPositions = new ArrayList<>();
+			for (long position : startSquares) {
+				startPositions.add(squareAt(board, position));
+			}
+			return levelCreator.createLevel(board, ghosts, startPositions);
+		}
+
+		/**
+		 * @param board
+		 *            The board.
+		 * @param position
+		 *            A square position keyed by {@link #columnFirst(int, int)}.
+		 * @return The square at the position.
+		 */
+		private Square squareAt(Board board, long position) {
+			return board.squareAt((int) (position >>> Integer.SIZE),
+					(int) position);
 		}
 	}
 }
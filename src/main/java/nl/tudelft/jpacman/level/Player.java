@@ -1,6 +1,9 @@
 package nl.tudelft.jpacman.level;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import nl.tudelft.jpacman.board.Direction;
 import nl.tudelft.jpacman.board.Unit;
@@ -32,7 +35,12 @@ public class Player extends Unit {
 	/**
 	 * <code>true</code> iff this player is alive.
 	 */
-	private boolean alive;
+	private final AtomicBoolean alive;
+
+	/**
+	 * The objects observing this player.
+	 */
+	private final List<PlayerObserver> observers;
 
 	/**
 	 * Creates a new player with a score of 0 points.
@@ -44,7 +52,8 @@ public class Player extends Unit {
 	 */
 	Player(Map<Direction, Sprite> spriteMap, AnimatedSprite deathAnimation) {
 		this.score = 0;
-		this.alive = true;
+		this.alive = new AtomicBoolean(true);
+		this.observers = new CopyOnWriteArrayList<>();
 		this.sprites = spriteMap;
 		this.deathSprite = deathAnimation;
 		deathSprite.setAnimating(false);
@@ -56,11 +65,13 @@ public class Player extends Unit {
 	 * @return <code>true</code> iff the player is alive.
 	 */
 	public boolean isAlive() {
-		return alive;
+		return alive.get();
 	}
 
 	/**
-	 * Sets whether this player is alive or not.
+	 * Sets whether this player is alive or not. The observers are notified
+	 * when this player dies or comes back to life, but not when the player
+	 * already was in the given state.
 	 * 
 	 * @param isAlive
 	 *            <code>true</code> iff this player is alive.
@@ -72,7 +83,40 @@ public class Player extends Unit {
 		if (!isAlive) {
 			deathSprite.restart();
 		}
-		this.alive = isAlive;
+		if (alive.getAndSet(isAlive) == isAlive) {
+			return;
+		}
+		for (PlayerObserver o : observers) {
+			if (isAlive) {
+				o.playerRevived(this);
+			} else {
+				o.playerDied(this);
+			}
+		}
+	}
+
+	/**
+	 * Adds an observer that will be notified when this player dies or comes
+	 * back to life.
+	 * 
+	 * @param observer
+	 *            The observer that will be notified.
+	 */
+	public void addObserver(PlayerObserver observer) {
+		if (observers.contains(observer)) {
+			return;
+		}
+		observers.add(observer);
+	}
+
+	/**
+	 * Removes an observer if it was listed.
+	 * 
+	 * @param observer
+	 *            The observer to be removed.
+	 */
+	public void removeObserver(PlayerObserver observer) {
+		observers.remove(observer);
 	}
 
 	/**
@@ -102,4 +146,44 @@ public class Player extends Unit {
 	public void addPoints(int points) {
 		score += points;
 	}
+
+	/**
+	 * Sets the score and whether this player is alive, to restore a snapshot
+	 * of a level. The observers are not notified.
+	 * 
+	 * @param points
+	 *            The score of this player.
+	 * @param isAlive
+	 *            <code>true</code> iff this player is alive.
+	 */
+	void restore(int points, boolean isAlive) {
+		score = points;
+		if (isAlive) {
+			deathSprite.setAnimating(false);
+		}
+		alive.set(isAlive);
+	}
+
+	/**
+	 * An observer that will be notified when a player dies or comes back to
+	 * life.
+	 */
+	public interface PlayerObserver {
+
+		/**
+		 * The player has died.
+		 * 
+		 * @param player
+		 *            The player that died.
+		 */
+		void playerDied(Player player);
+
+		/**
+		 * The player has come back to life.
+		 * 
+		 * @param player
+		 *            The player that came back to life.
+		 */
+		void playerRevived(Player player);
+	}
 }
@@ -0,0 +1,106 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded buffer into which any number of threads can put elements without
+ * blocking, and from which a single thread takes them in the order in which
+ * they were put.
+ *
+ * @param <E>
+ *            The type of the elements.
+ */
+final class RingBuffer<E> {
+
+	/**
+	 * The slots holding the elements. A slot is <code>null</code> until the
+	 * producer that claimed it has filled it.
+	 */
+	private final AtomicReferenceArray<E> slots;
+
+	/**
+	 * The mask mapping a position onto a slot.
+	 */
+	private final int mask;
+
+	/**
+	 * The position where the next element will be put, claimed by producers.
+	 */
+	private final AtomicLong tail;
+
+	/**
+	 * The position of the next element to take, only advanced by the
+	 * consumer.
+	 */
+	private volatile long head;
+
+	/**
+	 * Creates a new buffer.
+	 *
+	 * @param capacity
+	 *            The maximum number of elements in the buffer, rounded up to
+	 *            a power of two.
+	 */
+	RingBuffer(int capacity) {
+		assert capacity > 0;
+		int size = Integer.highestOneBit(Math.max(1, capacity) * 2 - 1);
+		this.slots = new AtomicReferenceArray<>(size);
+		this.mask = size - 1;
+		this.tail = new AtomicLong();
+		this.head = 0L;
+	}
+
+	/**
+	 * Puts an element in the buffer. Never blocks and may be called from any
+	 * thread.
+	 *
+	 * @param element
+	 *            The element to put.
+	 * @return <code>true</code> iff the element was put, <code>false</code>
+	 *         if the buffer is full.
+	 */
+	boolean offer(E element) {
+		assert element != null;
+		while (true) {
+			long position = tail.get();
+			if (position - head >= slots.length()) {
+				return false;
+			}
+			if (tail.compareAndSet(position, position + 1)) {
+				slots.set((int) (position & mask), element);
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Takes the oldest element from the buffer. Must only be called by one
+	 * thread at a time.
+	 *
+	 * @return The oldest element, or <code>null</code> if the buffer is empty
+	 *         or the producer of the oldest element has not finished putting
+	 *         it yet.
+	 */
+	E poll() {
+		long position = head;
+		if (position >= tail.get()) {
+			return null;
+		}
+		int slot = (int) (position & mask);
+		E element = slots.get(slot);
+		if (element == null) {
+			return null;
+		}
+		slots.set(slot, null);
+		head = position + 1;
+		return element;
+	}
+
+	/**
+	 * @return The number of elements in the buffer.
+	 */
+	int size() {
+		return (int) (tail.get() - head);
+	}
+}
@@ -0,0 +1,47 @@
+package nl.tudelft.jpacman.level;
+
+/**
+ * A clock that never actually waits: sleeping simply moves the clock forward.
+ * A {@link GameLoop} driven by this clock runs as fast as the CPU allows.
+ */
+public class SimulatedClock implements Clock {
+
+	/**
+	 * The current time of this clock.
+	 */
+	private volatile long time;
+
+	/**
+	 * Creates a new simulated clock, starting at time 0.
+	 */
+	public SimulatedClock() {
+		this.time = 0L;
+	}
+
+	@Override
+	public long currentTimeMillis() {
+		return time;
+	}
+
+	@Override
+	public synchronized void sleepUntil(long timeMillis)
+			throws InterruptedException {
+		if (Thread.interrupted()) {
+			throw new InterruptedException();
+		}
+		if (timeMillis > time) {
+			time = timeMillis;
+		}
+	}
+
+	/**
+	 * Moves this clock forward.
+	 *
+	 * @param millis
+	 *            The amount of milliseconds to move forward.
+	 */
+	public synchronized void advance(long millis) {
+		assert millis >= 0;
+		time += millis;
+	}
+}
@@ -0,0 +1,69 @@
+package nl.tudelft.jpacman.level;
+
+import nl.tudelft.jpacman.board.Square;
+
+/**
+ * A fixed set of locks shared by the squares of a board, so that moves on
+ * different parts of the board can be executed at the same time. Every
+ * square is guarded by the lock (stripe) its index maps to, and moves always
+ * acquire their stripes in increasing order, so they can never deadlock.
+ */
+final class SquareLocks {
+
+	/**
+	 * The largest number of stripes, which keeps the chance of two moves on
+	 * different squares sharing a stripe low without taking a lock per square.
+	 */
+	private static final int MAX_STRIPES = 1024;
+
+	/**
+	 * The locks.
+	 */
+	private final Object[] stripes;
+
+	/**
+	 * The mask mapping a square index onto a stripe.
+	 */
+	private final int mask;
+
+	/**
+	 * Creates the locks for a board.
+	 *
+	 * @param squareCount
+	 *            The number of squares on the board.
+	 */
+	SquareLocks(int squareCount) {
+		int count = Integer.highestOneBit(
+				Math.max(1, Math.min(MAX_STRIPES, squareCount)) * 2 - 1);
+		this.stripes = new Object[count];
+		for (int i = 0; i < count; i++) {
+			stripes[i] = new Object();
+		}
+		this.mask = count - 1;
+	}
+
+	/**
+	 * @param square
+	 *            The square to find the stripe of.
+	 * @return The number of the stripe guarding the square.
+	 */
+	int stripeOf(Square square) {
+		return square.getIndex() & mask;
+	}
+
+	/**
+	 * @param stripe
+	 *            The number of the stripe.
+	 * @return The lock of the stripe.
+	 */
+	Object get(int stripe) {
+		return stripes[stripe];
+	}
+
+	/**
+	 * @return The number of stripes.
+	 */
+	int getStripeCount() {
+		return stripes.length;
+	}
+}
@@ -0,0 +1,23 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A clock following the wall-clock time of the system, used to play the game
+ * in real time.
+ */
+public class SystemClock implements Clock {
+
+	@Override
+	public long currentTimeMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+	}
+
+	@Override
+	public void sleepUntil(long timeMillis) throws InterruptedException {
+		long delay = timeMillis - currentTimeMillis();
+		if (delay > 0) {
+			Thread.sleep(delay);
+		}
+	}
+}
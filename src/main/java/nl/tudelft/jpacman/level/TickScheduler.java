@@ -0,0 +1,249 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Schedules tasks in logical time. Time only advances when {@link #tick()} is
+ * called, so a level driven by this scheduler behaves the same whether it is
+ * played in real time, faster than real time or step by step.
+ * <p>
+ * Tasks that are due on the same tick are executed in the order in which they
+ * were scheduled.
+ */
+public class TickScheduler {
+
+	/**
+	 * The default duration of a single tick in milliseconds.
+	 */
+	public static final long DEFAULT_TICK_MILLIS = 10L;
+
+	/**
+	 * The duration of a single tick in milliseconds.
+	 */
+	private final long tickMillis;
+
+	/**
+	 * The tasks waiting to be executed, the first one due on top.
+	 */
+	private final PriorityQueue<ScheduledTask> queue;
+
+	/**
+	 * The number of ticks that have passed.
+	 */
+	private long currentTick;
+
+	/**
+	 * The number of tasks scheduled so far, used to keep the execution order
+	 * of tasks due on the same tick stable.
+	 */
+	private long sequence;
+
+	/**
+	 * Creates a new scheduler with ticks of {@value #DEFAULT_TICK_MILLIS}
+	 * milliseconds.
+	 */
+	public TickScheduler() {
+		this(DEFAULT_TICK_MILLIS);
+	}
+
+	/**
+	 * Creates a new scheduler.
+	 *
+	 * @param tickDuration
+	 *            The duration of a single tick in milliseconds.
+	 */
+	public TickScheduler(long tickDuration) {
+		assert tickDuration > 0;
+		this.tickMillis = tickDuration;
+		this.queue = new PriorityQueue<>();
+		this.currentTick = 0L;
+		this.sequence = 0L;
+	}
+
+	/**
+	 * Schedules a task to be executed once.
+	 *
+	 * @param task
+	 *            The task to execute.
+	 * @param delay
+	 *            The number of ticks from now on which the task is executed.
+	 *            A delay of 0 or 1 means the task runs on the next tick.
+	 */
+	public synchronized void schedule(Runnable task, long delay) {
+		assert task != null;
+		long due = currentTick + Math.max(1L, delay);
+		queue.add(new ScheduledTask(task, due, sequence++));
+	}
+
+	/**
+	 * Removes all pending tasks.
+	 */
+	public synchronized void clear() {
+		queue.clear();
+	}
+
+	/**
+	 * Advances time by one tick and executes all tasks that have become due.
+	 * Tasks are executed outside of the scheduler's lock, so they are free to
+	 * schedule new tasks.
+	 */
+	public void tick() {
+		List<Runnable> due = null;
+		synchronized (this) {
+			currentTick++;
+			while (!queue.isEmpty() && queue.peek().due <= currentTick) {
+				if (due == null) {
+					due = new ArrayList<>();
+				}
+				due.add(queue.poll().task);
+			}
+		}
+		if (due != null) {
+			for (Runnable task : due) {
+				task.run();
+			}
+		}
+	}
+
+	/**
+	 * Converts a duration to the number of ticks that best approximates it,
+	 * rounding up so that a task never runs early.
+	 *
+	 * @param millis
+	 *            The duration in milliseconds.
+	 * @return The number of ticks, at least 1.
+	 */
+	public long toTicks(long millis) {
+		return Math.max(1L, (millis + tickMillis - 1) / tickMillis);
+	}
+
+	/**
+	 * @return The duration of a single tick in milliseconds.
+	 */
+	public long getTickMillis() {
+		return tickMillis;
+	}
+
+	/**
+	 * @return The number of ticks that have passed.
+	 */
+	public synchronized long getCurrentTick() {
+		return currentTick;
+	}
+
+	/**
+	 * @return The logical time that has passed, in milliseconds.
+	 */
+	public synchronized long getElapsedMillis() {
+		return currentTick * tickMillis;
+	}
+
+	/**
+	 * @return The number of tasks waiting to be executed.
+	 */
+	public synchronized int getPendingCount() {
+		return queue.size();
+	}
+
+	/**
+	 * Looks up when tasks are due, for a snapshot of this scheduler.
+	 *
+	 * @param tasks
+	 *            The tasks to look up.
+	 * @param due
+	 *            Receives the tick each task is due on, or -1 if it is not
+	 *            pending.
+	 * @param order
+	 *            Receives the order in which each task was scheduled.
+	 * @return The number of tasks scheduled so far.
+	 */
+	synchronized long save(Runnable[] tasks, long[] due, long[] order) {
+		for (int i = 0; i < tasks.length; i++) {
+			due[i] = -1L;
+		}
+		for (ScheduledTask scheduled : queue) {
+			for (int i = 0; i < tasks.length; i++) {
+				if (tasks[i] == scheduled.task) {
+					due[i] = scheduled.due;
+					order[i] = scheduled.order;
+				}
+			}
+		}
+		return sequence;
+	}
+
+	/**
+	 * Sets the time of this scheduler and replaces all pending tasks, to
+	 * restore a snapshot of this scheduler.
+	 *
+	 * @param tick
+	 *            The number of ticks that have passed.
+	 * @param scheduled
+	 *            The number of tasks scheduled so far.
+	 * @param tasks
+	 *            The pending tasks.
+	 * @param due
+	 *            The tick each task is due on, or -1 to skip the task.
+	 * @param order
+	 *            The order in which each task was scheduled.
+	 */
+	synchronized void restore(long tick, long scheduled, Runnable[] tasks,
+			long[] due, long[] order) {
+		queue.clear();
+		currentTick = tick;
+		sequence = scheduled;
+		for (int i = 0; i < tasks.length; i++) {
+			if (due[i] >= 0) {
+				queue.add(new ScheduledTask(tasks[i], due[i], order[i]));
+			}
+		}
+	}
+
+	/**
+	 * A task together with the tick it is due on.
+	 */
+	private static final class ScheduledTask implements
+			Comparable<ScheduledTask> {
+
+		/**
+		 * The task to execute.
+		 */
+		private final Runnable task;
+
+		/**
+		 * The tick on which the task is to be executed.
+		 */
+		private final long due;
+
+		/**
+		 * The order in which this task was scheduled.
+		 */
+		private final long order;
+
+		/**
+		 * Creates a new scheduled task.
+		 *
+		 * @param r
+		 *            The task to execute.
+		 * @param dueTick
+		 *            The tick on which the task is to be executed.
+		 * @param seq
+		 *            The order in which this task was scheduled.
+		 */
+		private ScheduledTask(Runnable r, long dueTick, long seq) {
+			this.task = r;
+			this.due = dueTick;
+			this.order = seq;
+		}
+
+		@Override
+		public int compareTo(ScheduledTask other) {
+			if (due != other.due) {
+				return Long.compare(due, other.due);
+			}
+			return Long.compare(order, other.order);
+		}
+	}
+}
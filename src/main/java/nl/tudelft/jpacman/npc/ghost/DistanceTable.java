@@ -0,0 +1,375 @@
+package nl.tudelft.jpacman.npc.ghost;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.board.Unit;
+
+/**
+ * A table of the shortest distances between all squares of a board that are
+ * accessible to a traveller. Walls never change once a board has been
+ * created, so the distances can be computed once and then answer distance
+ * and next-step queries in constant time, instead of running a new search
+ * for every move as {@link Navigation#shortestPath(Square, Square, Unit)}
+ * does.
+ * <p>
+ * For every destination the table keeps a row with the distance from every
+ * accessible square to it. On small boards all rows are computed up front.
+ * On large boards, where the full table would not fit in memory, rows are
+ * computed on first use and the least recently computed rows are discarded
+ * once the memory budget is used up. Rows that have been computed are read
+ * without locking, so that many threads can share a table; only computing a
+ * missing row takes a lock.
+ * <p>
+ * Distances are stored as shorts, so a table covers at most
+ * {@value #MAX_SIZE} squares. Use {@link #forBoard(Board, Unit)} to get a
+ * table only for boards that fit, and search paths with {@link Navigation}
+ * on larger ones.
+ */
+public class DistanceTable {
+
+	/**
+	 * The distance reported for squares that can not reach each other.
+	 */
+	public static final int UNREACHABLE = -1;
+
+	/**
+	 * The largest amount of accessible squares a table can cover.
+	 */
+	public static final int MAX_SIZE = Short.MAX_VALUE;
+
+	/**
+	 * The largest amount of accessible squares for which the table is built
+	 * up front, taking at most 8 MB.
+	 */
+	private static final int EAGER_LIMIT = 2048;
+
+	/**
+	 * The default amount of memory the rows of a lazily built table may use.
+	 */
+	private static final long DEFAULT_BUDGET = 64L * 1024 * 1024;
+
+	/**
+	 * The marker for a square without a number, i.e. an inaccessible square.
+	 */
+	private static final int NONE = -1;
+
+	/**
+	 * The directions in the order in which {@link Navigation} explores them,
+	 * so that both pick the same path when several are equally short.
+	 */
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	/**
+	 * The number of each square on the board among the accessible squares, by
+	 * {@link Square#getIndex()}, or {@link #NONE} if it is inaccessible.
+	 */
+	private final int[] numbers;
+
+	/**
+	 * The numbers of the neighbours of each accessible square, four per
+	 * square in the order of {@link #DIRECTIONS}, or {@link #NONE} where the
+	 * neighbour is inaccessible.
+	 */
+	private final int[] neighbours;
+
+	/**
+	 * The number of accessible squares.
+	 */
+	private final int size;
+
+	/**
+	 * The distances to each destination, by destination number. Rows are
+	 * <code>null</code> until they are computed, and are never changed once
+	 * they are published.
+	 */
+	private final AtomicReferenceArray<short[]> rows;
+
+	/**
+	 * The maximum number of rows kept at the same time.
+	 */
+	private final int maxRows;
+
+	/**
+	 * The destinations of the computed rows in the order they were computed,
+	 * used as a ring buffer to discard the oldest row.
+	 */
+	private final int[] computed;
+
+	/**
+	 * The number of rows computed so far, also the position in
+	 * {@link #computed} to write the next destination.
+	 */
+	private long computedCount;
+
+	/**
+	 * Creates a new table for the squares of a board a traveller can access,
+	 * with a memory budget of 64 MB.
+	 *
+	 * @param board
+	 *            The board to create the table for.
+	 * @param traveller
+	 *            The unit whose access determines which squares can be
+	 *            travelled, or <code>null</code> to ignore terrain.
+	 */
+	public DistanceTable(Board board, Unit traveller) {
+		this(board, traveller, DEFAULT_BUDGET);
+	}
+
+	/**
+	 * Creates a new table for the squares of a board a traveller can access.
+	 *
+	 * @param board
+	 *            The board to create the table for.
+	 * @param traveller
+	 *            The unit whose access determines which squares can be
+	 *            travelled, or <code>null</code> to ignore terrain.
+	 * @param memoryBudget
+	 *            The maximum amount of bytes used by the rows of a lazily
+	 *            built table.
+	 */
+	public DistanceTable(Board board, Unit traveller, long memoryBudget) {
+		assert board != null;
+		this.numbers = new int[board.getSquareCount()];
+		Arrays.fill(numbers, NONE);
+
+		int count = 0;
+		for (int index = 0; index < numbers.length; index++) {
+			if (isAccessible(board, index, traveller)) {
+				numbers[index] = count++;
+			}
+		}
+		if (count > MAX_SIZE) {
+			throw new IllegalArgumentException("Board has " + count
+					+ " accessible squares, at most " + MAX_SIZE
+					+ " are supported.");
+		}
+		this.size = count;
+		this.neighbours = new int[size * DIRECTIONS.length];
+		linkNeighbours(board, traveller);
+
+		this.rows = new AtomicReferenceArray<>(size);
+		long rowBytes = Math.max(1L, 2L * size);
+		this.maxRows = (int) Math.max(1L,
+				Math.min(size, memoryBudget / rowBytes));
+		this.computed = new int[Math.max(1, maxRows)];
+		this.computedCount = 0L;
+
+		if (size <= EAGER_LIMIT && maxRows == size) {
+			for (int destination = 0; destination < size; destination++) {
+				computeIfAbsent(destination);
+			}
+		}
+	}
+
+	/**
+	 * Creates a new table for the squares of a board a traveller can access,
+	 * with a memory budget of 64 MB, if the board is small enough.
+	 *
+	 * @param board
+	 *            The board to create the table for.
+	 * @param traveller
+	 *            The unit whose access determines which squares can be
+	 *            travelled, or <code>null</code> to ignore terrain.
+	 * @return The table, or <code>null</code> if the traveller can access
+	 *         more than {@value #MAX_SIZE} squares of the board.
+	 */
+	public static DistanceTable forBoard(Board board, Unit traveller) {
+		assert board != null;
+		int count = 0;
+		for (int index = 0; index < board.getSquareCount(); index++) {
+			if (isAccessible(board, index, traveller)) {
+				count++;
+				if (count > MAX_SIZE) {
+					return null;
+				}
+			}
+		}
+		return new DistanceTable(board, traveller);
+	}
+
+	private static boolean isAccessible(Board board, int index,
+			Unit traveller) {
+		return traveller == null || board.isAccessibleTo(index, traveller);
+	}
+
+	/**
+	 * Fills the neighbour table of all accessible squares.
+	 *
+	 * @param board
+	 *            The board the squares are on.
+	 * @param traveller
+	 *            The traveller determining access.
+	 */
+	private void linkNeighbours(Board board, Unit traveller) {
+		for (int index = 0; index < numbers.length; index++) {
+			int number = numbers[index];
+			if (number == NONE) {
+				continue;
+			}
+			for (int d = 0; d < DIRECTIONS.length; d++) {
+				neighbours[number * DIRECTIONS.length + d] =
+						numbers[board.neighbour(index, DIRECTIONS[d])];
+			}
+		}
+	}
+
+	/**
+	 * Returns the length of the shortest path between two squares.
+	 *
+	 * @param from
+	 *            The starting square.
+	 * @param to
+	 *            The destination.
+	 * @return The number of steps on the shortest path, 0 if both squares
+	 *         are the same, or {@link #UNREACHABLE} if there is no path.
+	 */
+	public int distance(Square from, Square to) {
+		int start = numberOf(from);
+		int destination = numberOf(to);
+		if (start == NONE || destination == NONE) {
+			return from == to ? 0 : UNREACHABLE;
+		}
+		return row(destination)[start];
+	}
+
+	/**
+	 * Returns the first step of the shortest path between two squares. When
+	 * there are several shortest paths, the same one is chosen as
+	 * {@link Navigation#shortestPath(Square, Square, Unit)} would.
+	 *
+	 * @param from
+	 *            The starting square.
+	 * @param to
+	 *            The destination.
+	 * @return The direction of the first step, or <code>null</code> if both
+	 *         squares are the same or there is no path.
+	 */
+	public Direction nextDirection(Square from, Square to) {
+		int start = numberOf(from);
+		int destination = numberOf(to);
+		if (start == NONE || destination == NONE || start == destination) {
+			return null;
+		}
+		short[] row = row(destination);
+		int distance = row[start];
+		if (distance == UNREACHABLE) {
+			return null;
+		}
+		for (int d = 0; d < DIRECTIONS.length; d++) {
+			int neighbour = neighbours[start * DIRECTIONS.length + d];
+			if (neighbour != NONE && row[neighbour] == distance - 1) {
+				return DIRECTIONS[d];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return The number of squares the table covers.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * @return <code>true</code> iff the distances between all squares have
+	 *         been computed.
+	 */
+	public synchronized boolean isComplete() {
+		return computedCount >= size && maxRows == size;
+	}
+
+	/**
+	 * Returns the amount of memory currently used by this table, i.e. by the
+	 * square numbering, the neighbour table and the computed rows.
+	 *
+	 * @return The approximate size of this table in bytes.
+	 */
+	public synchronized long getMemoryBytes() {
+		long rowCount = Math.min(computedCount, maxRows);
+		return 4L * numbers.length + 4L * neighbours.length
+				+ 8L * rows.length() + rowCount * 2L * size;
+	}
+
+	private int numberOf(Square square) {
+		int index = square.getIndex();
+		if (index < 0 || index >= numbers.length) {
+			return NONE;
+		}
+		return numbers[index];
+	}
+
+	/**
+	 * Returns the row of distances to a destination, computing it if needed.
+	 *
+	 * @param destination
+	 *            The number of the destination.
+	 * @return The distance from every square to the destination.
+	 */
+	private short[] row(int destination) {
+		short[] row = rows.get(destination);
+		if (row == null) {
+			row = computeIfAbsent(destination);
+		}
+		return row;
+	}
+
+	/**
+	 * Returns the row of distances to a destination, computing it if needed
+	 * and discarding the oldest row when the memory budget is used up.
+	 *
+	 * @param destination
+	 *            The number of the destination.
+	 * @return The distance from every square to the destination.
+	 */
+	private synchronized short[] computeIfAbsent(int destination) {
+		short[] row = rows.get(destination);
+		if (row == null) {
+			row = computeRow(destination);
+			int slot = (int) (computedCount % maxRows);
+			if (computedCount >= maxRows) {
+				// readers still holding the discarded row may keep using it
+				rows.set(computed[slot], null);
+			}
+			computed[slot] = destination;
+			computedCount++;
+			rows.set(destination, row);
+		}
+		return row;
+	}
+
+	/**
+	 * Computes the distances to a destination with a breadth first search.
+	 * Access is symmetric on a board, so the distance to the destination
+	 * equals the distance from it.
+	 *
+	 * @param destination
+	 *            The number of the destination.
+	 * @return The distance from every square to the destination.
+	 */
+	private short[] computeRow(int destination) {
+		short[] row = new short[size];
+		Arrays.fill(row, (short) UNREACHABLE);
+		int[] queue = new int[size];
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = destination;
+		row[destination] = 0;
+		while (head < tail) {
+			int current = queue[head++];
+			short next = (short) (row[current] + 1);
+			for (int d = 0; d < DIRECTIONS.length; d++) {
+				int neighbour = neighbours[current * DIRECTIONS.length + d];
+				if (neighbour != NONE && row[neighbour] == UNREACHABLE) {
+					row[neighbour] = next;
+					queue[tail++] = neighbour;
+				}
+			}
+		}
+		return row;
+	}
+}
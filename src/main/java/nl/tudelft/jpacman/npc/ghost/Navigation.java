@@ -1,21 +1,45 @@
 package nl.tudelft.jpacman.npc.ghost;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 
+import nl.tudelft.jpacman.board.Board;
 import nl.tudelft.jpacman.board.Direction;
 import nl.tudelft.jpacman.board.Square;
 import nl.tudelft.jpacman.board.Unit;
 
 /**
  * Navigation provides utility to nagivate on {@link Square}s.
+ * <p>
+ * The searches walk the indices of the squares of a board, see
+ * {@link Board#neighbour(int, Direction)}, so that no square objects are
+ * needed on the way, and keep their bookkeeping in arrays indexed by
+ * {@link Square#getIndex()}, which are allocated once per thread and reused
+ * for every search. The squares searched from must therefore be on a board:
+ * the searches throw an {@link IllegalArgumentException} when they are not.
  * 
  * @author Jeroen Roosen 
  */
 public final class Navigation {
 
+	/**
+	 * The directions in the order in which they are explored.
+	 */
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	/**
+	 * The search bookkeeping of every thread.
+	 */
+	private static final ThreadLocal<SearchSpace> SEARCH_SPACE =
+			new ThreadLocal<SearchSpace>() {
+				@Override
+				protected SearchSpace initialValue() {
+					return new SearchSpace();
+				}
+			};
+
 	private Navigation() {
 	}
 	
@@ -37,39 +61,37 @@ public final class Navigation {
 	 * @return The shortest path to the destination or <code>null</code> if no
 	 *         such path could be found. When the destination is the current
 	 *         square, an empty list is returned.
+	 * @throws IllegalArgumentException
+	 *             When a square searched is not on a board.
 	 */
-	@SuppressWarnings("UnnecessaryLocalVariable")
 	public static List<Direction> shortestPath(Square from, Square to,
 											   Unit traveller) {
+		Board board = boardOf(from);
+		int destination = SearchSpace.indexOf(to);
 		if (from == to) {
 			return new ArrayList<>();
 		}
-
-		List<Node> targets = new ArrayList<>();
-		Set<Square> visited = new HashSet<>();
-		targets.add(new Node(null, from, null));
-		while (!targets.isEmpty()) {
-			Node n = targets.remove(0);
-			Square s = n.getSquare();
-			if (s == to) {
-				return n.getPath();
-			}
-			visited.add(s);
-			addNewTargets(traveller, targets, visited, n, s);
+		if (to.getBoard() != board) {
+			return null;
 		}
-		return null;
-	}
 
-	private static void addNewTargets(Unit traveller, List<Node> targets,
-			Set<Square> visited, Node n, Square s) {
-		for (Direction d : Direction.values()) {
-			Square target = s.getSquareAt(d);
-			if (!visited.contains(target)
-					&& (traveller == null || target
-							.isAccessibleTo(traveller))) {
-				targets.add(new Node(d, target, n));
+		SearchSpace space = SEARCH_SPACE.get();
+		space.begin(from.getIndex());
+		while (!space.isEmpty()) {
+			int s = space.poll();
+			for (int d = 0; d < DIRECTIONS.length; d++) {
+				int target = board.neighbour(s, DIRECTIONS[d]);
+				if (!space.isVisited(target)
+						&& (traveller == null || board.isAccessibleTo(target,
+								traveller))) {
+					space.offer(target, s, d);
+					if (target == destination) {
+						return space.pathTo(target);
+					}
+				}
 			}
 		}
+		return null;
 	}
 
 	/**
@@ -83,31 +105,47 @@ public final class Navigation {
 	 *            The starting location for the search.
 	 * @return The nearest unit of the given type, or <code>null</code> if no
 	 *         such unit could be found.
+	 * @throws IllegalArgumentException
+	 *             When a square searched is not on a board.
 	 */
 	public static Unit findNearest(Class<? extends Unit> type,
 			Square currentLocation) {
-		List<Square> toDo = new ArrayList<>();
-		Set<Square> visited = new HashSet<>();
-
-		toDo.add(currentLocation);
+		Board board = boardOf(currentLocation);
+		SearchSpace space = SEARCH_SPACE.get();
+		space.begin(currentLocation.getIndex());
 
-		while (!toDo.isEmpty()) {
-			Square square = toDo.remove(0);
-			Unit unit = findUnit(type, square);
+		while (!space.isEmpty()) {
+			int square = space.poll();
+			Unit unit = board.findOccupant(square, type);
 			if (unit != null) {
 				return unit;
 			}
-			visited.add(square);
-			for (Direction d : Direction.values()) {
-				Square newTarget = square.getSquareAt(d);
-				if (!visited.contains(newTarget) && !toDo.contains(newTarget)) {
-					toDo.add(newTarget);
+			for (int d = 0; d < DIRECTIONS.length; d++) {
+				int newTarget = board.neighbour(square, DIRECTIONS[d]);
+				if (!space.isVisited(newTarget)) {
+					space.offer(newTarget, square, d);
 				}
 			}
 		}
 		return null;
 	}
 
+	/**
+	 * @param square
+	 *            The square a search starts from.
+	 * @return The board of the square.
+	 * @throws IllegalArgumentException
+	 *             When the square is not on a board.
+	 */
+	private static Board boardOf(Square square) {
+		Board board = square.getBoard();
+		if (board == null) {
+			throw new IllegalArgumentException(
+					"Square is not on a board: " + square);
+		}
+		return board;
+	}
+
 	/**
 	 * Determines whether a square has an occupant of a certain type.
 	 * 
@@ -119,90 +157,189 @@ public final class Navigation {
 	 *         <code>null</code> of none does.
 	 */
 	public static Unit findUnit(Class<? extends Unit> type, Square square) {
-		for (Unit u : square.getOccupants()) {
-			if (type.isInstance(u)) {
-				return u;
-			}
-		}
-		return null;
+		return square.findOccupant(type);
 	}
 
 	/**
-	 * Helper class to keep track of the path.
-	 * 
-	 * @author Jeroen Roosen 
+	 * The bookkeeping of a breadth first search over the indices of the
+	 * squares of a board: the queue of squares to visit, and for every square
+	 * whether it has been visited and how it was reached. Squares are marked
+	 * as visited when they are queued, so every square is queued at most once
+	 * and the queue never holds more squares than there are on the board.
+	 * <p>
+	 * Instead of clearing the visited marks, every search uses a new
+	 * generation number: a square is visited iff its mark equals the current
+	 * generation.
 	 */
-	private static final class Node {
+	private static final class SearchSpace {
+
+		/**
+		 * The initial capacity, enough for the default board.
+		 */
+		private static final int INITIAL_CAPACITY = 512;
+
+		/**
+		 * The generation in which each square was visited, by index.
+		 */
+		private int[] visited;
+
+		/**
+		 * The index of the square each square was reached from, by index.
+		 */
+		private int[] parents;
+
+		/**
+		 * The direction (ordinal) in which each square was reached, by index.
+		 */
+		private byte[] directions;
+
+		/**
+		 * The queue of the indices of the squares to visit.
+		 */
+		private int[] queue;
+
+		/**
+		 * The position of the next square to poll.
+		 */
+		private int head;
+
+		/**
+		 * The position to add the next square.
+		 */
+		private int tail;
 
 		/**
-		 * The direction for this node, which is <code>null</code> for the root
-		 * node.
+		 * The generation of the current search.
 		 */
-		private final Direction direction;
+		private int generation;
 
 		/**
-		 * The parent node, which is <code>null</code> for the root node.
+		 * The index of the square the current search started from.
 		 */
-		private final Node parent;
+		private int root;
 
 		/**
-		 * The square associated with this node.
+		 * Creates a new search space.
 		 */
-		private final Square square;
+		private SearchSpace() {
+			this.visited = new int[INITIAL_CAPACITY];
+			this.parents = new int[INITIAL_CAPACITY];
+			this.directions = new byte[INITIAL_CAPACITY];
+			this.queue = new int[INITIAL_CAPACITY];
+			this.generation = 0;
+		}
 
 		/**
-		 * Creates a new node.
+		 * Starts a new search.
 		 * 
-		 * @param d
-		 *            The direction, which is <code>null</code> for the root
-		 *            node.
-		 * @param s
-		 *            The square.
-		 * @param p
-		 *            The parent node, which is <code>null</code> for the root
-		 *            node.
-		 */
-		private Node(Direction d, Square s, Node p) {
-			this.direction = d;
-			this.square = s;
-			this.parent = p;
+		 * @param start
+		 *            The index of the square to start from.
+		 */
+		private void begin(int start) {
+			head = 0;
+			tail = 0;
+			generation++;
+			if (generation == 0) {
+				Arrays.fill(visited, 0);
+				generation = 1;
+			}
+			root = start;
+			ensureCapacity(root);
+			visited[root] = generation;
+			queue[tail++] = root;
 		}
 
 		/**
-		 * @return The direction for this node, or <code>null</code> if this
-		 *         node is a root node.
+		 * @return <code>true</code> iff there are no more squares to visit.
 		 */
-		private Direction getDirection() {
-			return direction;
+		private boolean isEmpty() {
+			return head == tail;
 		}
 
 		/**
-		 * @return The square for this node.
+		 * @return The index of the next square to visit.
 		 */
-		private Square getSquare() {
-			return square;
+		private int poll() {
+			return queue[head++];
 		}
 
 		/**
-		 * @return The parent node, or <code>null</code> if this node is a root
-		 *         node.
+		 * @param index
+		 *            The index of the square to test.
+		 * @return <code>true</code> iff the square was reached in the current
+		 *         search.
 		 */
-		private Node getParent() {
-			return parent;
+		private boolean isVisited(int index) {
+			return index < visited.length && visited[index] == generation;
 		}
 
 		/**
-		 * Returns the list of values from the root of the tree to this node.
+		 * Marks a square as visited and queues it.
 		 * 
-		 * @return The list of values from the root of the tree to this node.
+		 * @param index
+		 *            The index of the square that was reached.
+		 * @param parent
+		 *            The index of the square it was reached from.
+		 * @param direction
+		 *            The ordinal of the direction it was reached in.
 		 */
-		private List<Direction> getPath() {
-			if (getParent() == null) {
-				return new ArrayList<>();
+		private void offer(int index, int parent, int direction) {
+			ensureCapacity(index);
+			visited[index] = generation;
+			parents[index] = parent;
+			directions[index] = (byte) direction;
+			queue[tail++] = index;
+		}
+
+		/**
+		 * Returns the directions from the start of the search to a square.
+		 * 
+		 * @param index
+		 *            The index of a square reached in the current search.
+		 * @return The list of directions from the start to the square.
+		 */
+		private List<Direction> pathTo(int index) {
+			List<Direction> path = new ArrayList<>();
+			for (int i = index; i != root; i = parents[i]) {
+				path.add(DIRECTIONS[directions[i]]);
 			}
-			List<Direction> path = parent.getPath();
-			path.add(getDirection());
+			Collections.reverse(path);
 			return path;
 		}
+
+		/**
+		 * Grows the arrays so that they can hold the given square index.
+		 * Since every square is queued at most once, the queue then also has
+		 * room for every square of the board.
+		 * 
+		 * @param index
+		 *            The index that needs to fit.
+		 */
+		private void ensureCapacity(int index) {
+			if (index < visited.length) {
+				return;
+			}
+			int capacity = Math.max(visited.length * 2, index + 1);
+			visited = Arrays.copyOf(visited, capacity);
+			parents = Arrays.copyOf(parents, capacity);
+			directions = Arrays.copyOf(directions, capacity);
+			queue = Arrays.copyOf(queue, capacity);
+		}
+
+		/**
+		 * @param square
+		 *            The square to look up.
+		 * @return The index of the square on its board.
+		 * @throws IllegalArgumentException
+		 *             When the square is not on a board.
+		 */
+		private static int indexOf(Square square) {
+			int index = square.getIndex();
+			if (index < 0) {
+				throw new IllegalArgumentException(
+						"Square is not on a board: " + square);
+			}
+			return index;
+		}
 	}
 }
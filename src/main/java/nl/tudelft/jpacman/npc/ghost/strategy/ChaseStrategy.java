@@ -5,11 +5,11 @@ import nl.tudelft.jpacman.board.Direction;
 import nl.tudelft.jpacman.board.Square;
 import nl.tudelft.jpacman.board.Unit;
 import nl.tudelft.jpacman.level.Player;
+import nl.tudelft.jpacman.npc.ghost.DistanceTable;
 import nl.tudelft.jpacman.npc.ghost.Ghost;
 import nl.tudelft.jpacman.npc.ghost.Navigation;
 
 import java.util.EnumMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -22,6 +22,10 @@ public class ChaseStrategy extends Strategy {
 		super(board);
 	}
 	
+	public ChaseStrategy(Board board, DistanceTable distances) {
+		super(board, distances);
+	}
+	
 	/**
 	 * Define the next move for blinky. 
 	 * First, get the pacman's position.
@@ -38,9 +42,9 @@ public class ChaseStrategy extends Strategy {
 	}
 	
 	private Direction shortestPath(Ghost ghost, Square target) {
-		List<Direction> path = Navigation.shortestPath(ghost.getSquare(), target, ghost);
-		if (path != null && !path.isEmpty()) {
-			return path.get(0);
+		Direction d = firstStep(ghost, target);
+		if (d != null) {
+			return d;
 		}
 
 		return ghost.randomMove();
@@ -94,13 +98,12 @@ public class ChaseStrategy extends Strategy {
 			return clyde.randomMove();
 		}
 
-		List<Direction> path = Navigation.shortestPath(clyde.getSquare(), target, clyde);
-		if (path != null && !path.isEmpty()) {
-			Direction d = path.get(0);
-			if (path.size() <= squaresAhead) {
-				return getOpposites(d);
+		Route route = route(clyde, target);
+		if (route != null) {
+			if (route.getLength() <= squaresAhead) {
+				return getOpposites(route.getFirstStep());
 			}
-			return d;
+			return route.getFirstStep();
 		}
 		return clyde.randomMove();
 	}
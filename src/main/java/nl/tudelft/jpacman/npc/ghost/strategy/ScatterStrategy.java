@@ -2,8 +2,8 @@ package nl.tudelft.jpacman.npc.ghost.strategy;
 
 import nl.tudelft.jpacman.board.Board;
 import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.npc.ghost.DistanceTable;
 import nl.tudelft.jpacman.npc.ghost.Ghost;
-import nl.tudelft.jpacman.npc.ghost.Navigation;
 
 import java.util.ArrayList;
 import java.util.EnumMap;
@@ -21,6 +21,10 @@ public class ScatterStrategy extends Strategy {
 		super(board);
 	}
 	
+	public ScatterStrategy(Board board, DistanceTable distances) {
+		super(board, distances);
+	}
+	
 	/**
 	 * Define the next move for Blinky.
 	 * If blinky isn't at home then blinky goes at home (top right)
@@ -91,11 +95,8 @@ public class ScatterStrategy extends Strategy {
 	 */
 	private Direction goHome(Ghost ghost, int x, int y, Direction direction) {
 		isAtHome(ghost, x, y, direction);
-		List<Direction> path = Navigation.shortestPath(ghost.getSquare(), board.squareAt(x, y), ghost); 
-		if (path != null && !path.isEmpty()) {
-			return path.get(0);
-		}
-		return null; // We can give a direction but we have to do another switch to know what ghost'instance is
+		// null if there is no way home. We can give a direction but we have to do another switch to know what ghost'instance is
+		return firstStep(ghost, board.squareAt(x, y));
 	}
 	
 	/**
@@ -1,8 +1,13 @@
 package nl.tudelft.jpacman.npc.ghost.strategy;
 
+import java.util.List;
+
 import nl.tudelft.jpacman.board.Board;
 import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.npc.ghost.DistanceTable;
 import nl.tudelft.jpacman.npc.ghost.Ghost;
+import nl.tudelft.jpacman.npc.ghost.Navigation;
 
 /**
  * Interface determine the actual ghost's strategy
@@ -12,13 +17,95 @@ import nl.tudelft.jpacman.npc.ghost.Ghost;
 public abstract class Strategy {
 	protected Board board;
 	
+	/**
+	 * The precomputed distances on the board, or null if paths are searched for every move.
+	 */
+	private final DistanceTable distances;
+	
 	/**
 	 * attach the board to the strategy. Why ? The strategy has to know the dimension of the board and has to know
 	 * if a square is accesible to a ghost.
 	 * @param board
 	 */
 	public Strategy(Board board) {
+		this(board, null);
+	}
+	
+	/**
+	 * attach the board and its distance table to the strategy, so that paths don't have to be searched
+	 * for every move.
+	 * @param board
+	 * @param distanceTable the distances between the squares accessible to ghosts, or null
+	 */
+	public Strategy(Board board, DistanceTable distanceTable) {
 		this.board = board;
+		this.distances = distanceTable;
+	}
+	
+	/**
+	 * Get the first step of the shortest path from the ghost to a target
+	 * @param ghost
+	 * @param target
+	 * @return the first direction to take, or null if the ghost is on the target or can't reach it
+	 */
+	protected Direction firstStep(Ghost ghost, Square target) {
+		if (distances != null) {
+			return distances.nextDirection(ghost.getSquare(), target);
+		}
+		List<Direction> path = Navigation.shortestPath(ghost.getSquare(), target, ghost);
+		if (path != null && !path.isEmpty()) {
+			return path.get(0);
+		}
+		return null;
+	}
+	
+	/**
+	 * Get both the first step and the length of the shortest path from the ghost to a target,
+	 * searching the path only once when there is no distance table
+	 * @param ghost
+	 * @param target
+	 * @return the route, or null if the ghost is on the target or can't reach it
+	 */
+	protected Route route(Ghost ghost, Square target) {
+		if (distances != null) {
+			Direction d = distances.nextDirection(ghost.getSquare(), target);
+			if (d == null) {
+				return null;
+			}
+			return new Route(d, distances.distance(ghost.getSquare(), target));
+		}
+		List<Direction> path = Navigation.shortestPath(ghost.getSquare(), target, ghost);
+		if (path != null && !path.isEmpty()) {
+			return new Route(path.get(0), path.size());
+		}
+		return null;
+	}
+	
+	/**
+	 * The first step and the length of a shortest path
+	 */
+	protected static final class Route {
+		private final Direction firstStep;
+		private final int length;
+		
+		private Route(Direction firstStep, int length) {
+			this.firstStep = firstStep;
+			this.length = length;
+		}
+		
+		/**
+		 * @return the first direction to take
+		 */
+		public Direction getFirstStep() {
+			return firstStep;
+		}
+		
+		/**
+		 * @return the number of steps
+		 */
+		public int getLength() {
+			return length;
+		}
 	}
 	
 	public Direction move(Ghost ghost) {
@@ -4,6 +4,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.npc.ghost.DistanceTable;
 
 /**
  * Factory that creates strategies which will determine the ghost's displacements
@@ -14,13 +15,27 @@ public class StrategyFactory {
 	private final Map<String, Strategy> strategies;
 	
 	public StrategyFactory(Board board) {
+		this(board, null);
+	}
+	
+	/**
+	 * Create the strategies for a board, sharing a table of precomputed distances.
+	 * @param board
+	 * @param distances the distances between the squares accessible to ghosts, or null to search
+	 *        paths for every move
+	 */
+	public StrategyFactory(Board board, DistanceTable distances) {
 		this.strategies = new HashMap<>();
-		initStrategies(board);
+		initStrategies(board, distances);
 	}
 	
 	public void initStrategies(Board board) {
-		Strategy chase = new ChaseStrategy(board);
-		Strategy scatter = new ScatterStrategy(board);
+		initStrategies(board, null);
+	}
+	
+	public void initStrategies(Board board, DistanceTable distances) {
+		Strategy chase = new ChaseStrategy(board, distances);
+		Strategy scatter = new ScatterStrategy(board, distances);
 		strategies.put("chase", chase);
 		strategies.put("scatter", scatter);
 	}
@@ -0,0 +1,107 @@
+package nl.tudelft.jpacman.sprite;
+
+import java.awt.Graphics;
+import java.awt.Image;
+
+/**
+ * A sprite that is a rectangle of a {@link TextureAtlas}. Drawn at a size
+ * other than its own, the sprite draws from a copy of the whole atlas scaled
+ * by the same factor, so that all sprites of the atlas drawn at that size
+ * share a single scaled image.
+ */
+final class AtlasSprite implements Sprite {
+
+	/**
+	 * The image of the atlas.
+	 */
+	private final Image atlas;
+
+	/**
+	 * The x position of the sprite in the atlas.
+	 */
+	private final int x;
+
+	/**
+	 * The y position of the sprite in the atlas.
+	 */
+	private final int y;
+
+	/**
+	 * The width of the sprite.
+	 */
+	private final int width;
+
+	/**
+	 * The height of the sprite.
+	 */
+	private final int height;
+
+	/**
+	 * Creates a new view on a rectangle of an atlas.
+	 *
+	 * @param image
+	 *            The image of the atlas.
+	 * @param left
+	 *            The x position of the sprite in the atlas.
+	 * @param top
+	 *            The y position of the sprite in the atlas.
+	 * @param w
+	 *            The width of the sprite.
+	 * @param h
+	 *            The height of the sprite.
+	 */
+	AtlasSprite(Image image, int left, int top, int w, int h) {
+		this.atlas = image;
+		this.x = left;
+		this.y = top;
+		this.width = w;
+		this.height = h;
+	}
+
+	@Override
+	public void draw(Graphics g, int dx, int dy, int w, int h) {
+		if (w <= 0 || h <= 0) {
+			return;
+		}
+		if (w == width && h == height) {
+			g.drawImage(atlas, dx, dy, dx + w, dy + h, x, y, x + width,
+					y + height, null);
+			return;
+		}
+		int atlasW = atlas.getWidth(null);
+		int atlasH = atlas.getHeight(null);
+		if (x % width == 0 && y % height == 0 && atlasW % width == 0
+				&& atlasH % height == 0) {
+			// the sprite lies on a grid of its own size, so it is found at
+			// a whole pixel position in the scaled atlas
+			Image scaled = ScaledImageCache.getDefault().get(atlas,
+					atlasW / width * w, atlasH / height * h);
+			int sx = x / width * w;
+			int sy = y / height * h;
+			g.drawImage(scaled, dx, dy, dx + w, dy + h, sx, sy, sx + w,
+					sy + h, null);
+			return;
+		}
+		g.drawImage(atlas, dx, dy, dx + w, dy + h, x, y, x + width,
+				y + height, null);
+	}
+
+	@Override
+	public Sprite split(int left, int top, int w, int h) {
+		if (left >= 0 && top >= 0 && w > 0 && h > 0 && left + w <= width
+				&& top + h <= height) {
+			return new AtlasSprite(atlas, x + left, y + top, w, h);
+		}
+		return new EmptySprite();
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+}
@@ -9,6 +9,9 @@ import java.awt.image.BufferedImage;
 
 /**
  * Basic implementation of a Sprite, it merely consists of a static image.
+ * Drawn at a size other than its own, the sprite draws a copy of the image
+ * scaled to that size, kept in the {@link ScaledImageCache#getDefault()
+ * default cache}.
  * 
  * @author Jeroen Roosen 
  */
@@ -29,10 +32,24 @@ public class ImageSprite implements Sprite {
 		this.image = img;
 	}
 
+	/**
+	 * @return The image of this sprite.
+	 */
+	Image getImage() {
+		return image;
+	}
+
 	@Override
 	public void draw(Graphics g, int x, int y, int width, int height) {
-		g.drawImage(image, x, y, x + width, y + height, 0, 0,
-				image.getWidth(null), image.getHeight(null), null);
+		if (width <= 0 || height <= 0) {
+			return;
+		}
+		if (width == image.getWidth(null) && height == image.getHeight(null)) {
+			g.drawImage(image, x, y, null);
+			return;
+		}
+		g.drawImage(ScaledImageCache.getDefault().get(image, width, height),
+				x, y, null);
 	}
 
 	@Override
@@ -53,7 +70,8 @@ public class ImageSprite implements Sprite {
 
 	/**
 	 * Creates a new, empty image of the given width and height. Its
-	 * transparency will be a bitmask, so no try ARGB image.
+	 * transparency will be a bitmask, so no try ARGB image. Without a screen
+	 * (e.g. when levels are hosted on a server) a plain ARGB image is used.
 	 * 
 	 * @param width
 	 *            The width of the new image.
@@ -61,7 +79,10 @@ public class ImageSprite implements Sprite {
 	 *            The height of the new image.
 	 * @return The new, empty image.
 	 */
-	private BufferedImage newImage(int width, int height) {
+	static BufferedImage newImage(int width, int height) {
+		if (GraphicsEnvironment.isHeadless()) {
+			return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		}
 		GraphicsConfiguration gc = GraphicsEnvironment
 				.getLocalGraphicsEnvironment().getDefaultScreenDevice()
 				.getDefaultConfiguration();
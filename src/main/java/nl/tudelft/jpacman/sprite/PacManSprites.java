@@ -1,8 +1,14 @@
 package nl.tudelft.jpacman.sprite;
 
+import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 import nl.tudelft.jpacman.PacmanConfigurationException;
 import nl.tudelft.jpacman.board.Direction;
@@ -10,6 +16,12 @@ import nl.tudelft.jpacman.npc.ghost.GhostColor;
 
 /**
  * Sprite Store containing the classic Pac-Man sprites.
+ * <p>
+ * In atlas mode, all sprite sheets are packed into a single
+ * {@link TextureAtlas} when the first sprite is loaded, and all sprites and
+ * animation frames are views on that atlas instead of separate images. The
+ * sheets are decoded in parallel first, reusing sheets that were already
+ * loaded or preloaded, and then packed.
  * 
  * @author Jeroen Roosen 
  */
@@ -47,6 +59,41 @@ public class PacManSprites extends SpriteStore {
 	 */
 	private static final int ANIMATION_DELAY = 200;
 
+	/**
+	 * The width of the texture atlas in pixels.
+	 */
+	private static final int ATLAS_WIDTH = 256;
+
+	/**
+	 * <code>true</code> iff the sprites are views on a texture atlas.
+	 */
+	private final boolean useAtlas;
+
+	/**
+	 * The texture atlas holding all sprite sheets, or <code>null</code> if it
+	 * hasn't been packed yet or atlas mode is off.
+	 */
+	private volatile TextureAtlas atlas;
+
+	/**
+	 * Creates a new store loading every sprite sheet as a separate image.
+	 */
+	public PacManSprites() {
+		this(false);
+	}
+
+	/**
+	 * Creates a new store.
+	 * 
+	 * @param atlasMode
+	 *            <code>true</code> to pack all sprite sheets into a single
+	 *            texture atlas.
+	 */
+	public PacManSprites(boolean atlasMode) {
+		super();
+		this.useAtlas = atlasMode;
+	}
+
 	/**
 	 * @return A map of animated Pac-Man sprites for all directions.
 	 */
@@ -103,9 +150,7 @@ public class PacManSprites extends SpriteStore {
 	public Map<Direction, Sprite> getGhostSprite(GhostColor color) {
 		assert color != null;
 
-		String resource = "/sprite/ghost_" + color.name().toLowerCase()
-				+ ".png";
-		return directionSprite(resource, GHOST_ANIMATION_FRAMES);
+		return directionSprite(ghostResource(color), GHOST_ANIMATION_FRAMES);
 	}
 
 	/**
@@ -139,9 +184,97 @@ public class PacManSprites extends SpriteStore {
 	@Override
 	public Sprite loadSprite(String resource) {
 		try {
+			if (useAtlas) {
+				Sprite sprite = getAtlas().getSprite(resource);
+				if (sprite != null) {
+					return sprite;
+				}
+			}
 			return super.loadSprite(resource);
 		} catch (IOException e) {
 			throw new PacmanConfigurationException("Unable to load sprite: " + resource, e);
 		}
 	}
+
+	/**
+	 * Returns the texture atlas with all sprite sheets used by the game,
+	 * packing it on first use. The sheets are decoded in parallel without
+	 * holding a lock, then packed by a single thread.
+	 * 
+	 * @return The texture atlas.
+	 * @throws IOException
+	 *             When a sprite sheet could not be loaded, or the thread was
+	 *             interrupted while waiting for the sheets.
+	 */
+	public TextureAtlas getAtlas() throws IOException {
+		assert useAtlas;
+		TextureAtlas result = atlas;
+		if (result != null) {
+			return result;
+		}
+		List<String> resources = getResources();
+		awaitPreload(resources);
+		synchronized (this) {
+			if (atlas == null) {
+				Map<String, BufferedImage> images = new HashMap<>();
+				for (String resource : resources) {
+					images.put(resource, loadDecodedImage(resource));
+				}
+				atlas = new TextureAtlas(images, ATLAS_WIDTH);
+			}
+			return atlas;
+		}
+	}
+
+	/**
+	 * Preloads sprite sheets and waits until they are all decoded.
+	 * 
+	 * @param resources
+	 *            The resource names of the sheets.
+	 * @throws IOException
+	 *             When a sheet could not be loaded, or the thread was
+	 *             interrupted while waiting.
+	 */
+	private void awaitPreload(List<String> resources) throws IOException {
+		try {
+			preloadAll(resources).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(
+					"Interrupted while loading sprite sheets.");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof UncheckedIOException) {
+				throw ((UncheckedIOException) e.getCause()).getCause();
+			}
+			throw new IOException("Unable to load sprite sheets.", e.getCause());
+		}
+	}
+
+	/**
+	 * Returns the resource names of all sprite sheets used by the game, for
+	 * instance to {@link #preloadAll(java.util.Collection) preload} them.
+	 * 
+	 * @return The resource names.
+	 */
+	public List<String> getResources() {
+		List<String> resources = new ArrayList<>();
+		for (GhostColor color : GhostColor.values()) {
+			resources.add(ghostResource(color));
+		}
+		resources.add("/sprite/pacman.png");
+		resources.add("/sprite/dead.png");
+		resources.add("/sprite/wall.png");
+		resources.add("/sprite/floor.png");
+		resources.add("/sprite/pellet.png");
+		return resources;
+	}
+
+	/**
+	 * @param color
+	 *            The colour of the ghost.
+	 * @return The resource name of the sprite sheet of the ghost.
+	 */
+	private static String ghostResource(GhostColor color) {
+		return "/sprite/ghost_" + color.name().toLowerCase() + ".png";
+	}
 }
@@ -0,0 +1,282 @@
+package nl.tudelft.jpacman.sprite;
+
+import java.awt.Graphics;
+import java.awt.Image;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of images scaled to the sizes they are drawn at, so that
+ * sprites drawn at a size other than their own are scaled once instead of on
+ * every draw. When the cache is full, the least recently used image is
+ * evicted.
+ * <p>
+ * All image sprites share the {@link #getDefault() default cache}. Images
+ * are kept per size, so displays drawing at different sizes can share it,
+ * and a display that changes size needs not clear it: the images of sizes
+ * no longer drawn at are the least recently used ones and are evicted first.
+ * <p>
+ * Finding an image takes no lock, so threads drawing sprites do not wait
+ * for each other. Images missing from the cache are scaled without a lock
+ * as well, and may occasionally be scaled twice by threads missing the same
+ * image at the same time. Only evicting images takes a lock.
+ */
+public class ScaledImageCache {
+
+	/**
+	 * The number of scaled images kept by the default cache, enough for all
+	 * sprites and animation frames of the game at a few sizes.
+	 */
+	public static final int DEFAULT_CAPACITY = 512;
+
+	/**
+	 * The cache shared by all image sprites.
+	 */
+	private static final ScaledImageCache DEFAULT = new ScaledImageCache(
+			DEFAULT_CAPACITY);
+
+	/**
+	 * The maximum number of scaled images to keep.
+	 */
+	private final int capacity;
+
+	/**
+	 * The scaled images.
+	 */
+	private final ConcurrentHashMap<Key, Entry> images;
+
+	/**
+	 * The clock stamping the uses of images, counting all uses so far.
+	 */
+	private final AtomicLong clock;
+
+	/**
+	 * The lock held while evicting images.
+	 */
+	private final Object evictLock = new Object();
+
+	/**
+	 * The number of images found in the cache.
+	 */
+	private final AtomicLong hits;
+
+	/**
+	 * The number of images scaled because they were not in the cache.
+	 */
+	private final AtomicLong misses;
+
+	/**
+	 * Creates a new, empty cache.
+	 *
+	 * @param capacity
+	 *            The maximum number of scaled images to keep.
+	 */
+	public ScaledImageCache(int capacity) {
+		assert capacity > 0;
+		this.capacity = capacity;
+		this.images = new ConcurrentHashMap<>();
+		this.clock = new AtomicLong();
+		this.hits = new AtomicLong();
+		this.misses = new AtomicLong();
+	}
+
+	/**
+	 * @return The cache shared by all image sprites.
+	 */
+	public static ScaledImageCache getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Returns an image scaled to the given size, scaling it if it is not in
+	 * the cache yet.
+	 *
+	 * @param source
+	 *            The image to scale.
+	 * @param width
+	 *            The width to scale to.
+	 * @param height
+	 *            The height to scale to.
+	 * @return The scaled image.
+	 */
+	public Image get(Image source, int width, int height) {
+		assert width > 0 && height > 0;
+		Key key = new Key(source, width, height);
+		Entry entry = images.get(key);
+		if (entry != null) {
+			hits.incrementAndGet();
+			entry.lastUsed = clock.incrementAndGet();
+			return entry.image;
+		}
+		misses.incrementAndGet();
+		entry = new Entry(scale(source, width, height),
+				clock.incrementAndGet());
+		Entry existing = images.putIfAbsent(key, entry);
+		if (existing != null) {
+			return existing.image;
+		}
+		if (images.size() > capacity) {
+			evict();
+		}
+		return entry.image;
+	}
+
+	/**
+	 * Evicts the least recently used images until the cache holds no more
+	 * than its capacity.
+	 */
+	private void evict() {
+		synchronized (evictLock) {
+			while (images.size() > capacity) {
+				Key eldest = null;
+				long eldestUse = Long.MAX_VALUE;
+				for (Map.Entry<Key, Entry> e : images.entrySet()) {
+					if (e.getValue().lastUsed < eldestUse) {
+						eldest = e.getKey();
+						eldestUse = e.getValue().lastUsed;
+					}
+				}
+				if (eldest == null) {
+					return;
+				}
+				images.remove(eldest);
+			}
+		}
+	}
+
+	/**
+	 * Scales an image into a new image compatible with the display.
+	 *
+	 * @param source
+	 *            The image to scale.
+	 * @param width
+	 *            The width to scale to.
+	 * @param height
+	 *            The height to scale to.
+	 * @return The scaled image.
+	 */
+	private static Image scale(Image source, int width, int height) {
+		Image scaled = ImageSprite.newImage(width, height);
+		Graphics g = scaled.getGraphics();
+		try {
+			g.drawImage(source, 0, 0, width, height, 0, 0,
+					source.getWidth(null), source.getHeight(null), null);
+		} finally {
+			g.dispose();
+		}
+		return scaled;
+	}
+
+	/**
+	 * Removes all scaled images.
+	 */
+	public void clear() {
+		images.clear();
+	}
+
+	/**
+	 * @return The number of scaled images in the cache.
+	 */
+	public int size() {
+		return images.size();
+	}
+
+	/**
+	 * @return The number of images found in the cache.
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * @return The number of images scaled because they were not in the
+	 *         cache.
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * A scaled image and the time it was last used.
+	 */
+	private static final class Entry {
+
+		/**
+		 * The scaled image.
+		 */
+		private final Image image;
+
+		/**
+		 * The reading of the clock when the image was last used.
+		 */
+		private volatile long lastUsed;
+
+		/**
+		 * Creates a new entry.
+		 *
+		 * @param scaled
+		 *            The scaled image.
+		 * @param used
+		 *            The reading of the clock when the image was scaled.
+		 */
+		private Entry(Image scaled, long used) {
+			this.image = scaled;
+			this.lastUsed = used;
+		}
+	}
+
+	/**
+	 * The key of a scaled image: the source image, compared by identity, and
+	 * the size it was scaled to.
+	 */
+	private static final class Key {
+
+		/**
+		 * The source image.
+		 */
+		private final Image source;
+
+		/**
+		 * The width scaled to.
+		 */
+		private final int width;
+
+		/**
+		 * The height scaled to.
+		 */
+		private final int height;
+
+		/**
+		 * Creates a new key.
+		 *
+		 * @param image
+		 *            The source image.
+		 * @param w
+		 *            The width scaled to.
+		 * @param h
+		 *            The height scaled to.
+		 */
+		private Key(Image image, int w, int h) {
+			this.source = image;
+			this.width = w;
+			this.height = h;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return source == other.source && width == other.width
+					&& height == other.height;
+		}
+
+		@Override
+		public int hashCode() {
+			return (System.identityHashCode(source) * 31 + width) * 31
+					+ height;
+		}
+	}
+}
@@ -1,10 +1,21 @@
 package nl.tudelft.jpacman.sprite;
 
+import java.awt.Image;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 import javax.imageio.ImageIO;
 
@@ -18,21 +29,52 @@ public class SpriteStore {
 	
 	/**
 	 * We only need to load images once, so we keep track
-	 * of them in a hash map.
+	 * of them in a hash map. Concurrent loads of the same
+	 * resource wait for a single load.
 	 */
-	private Map<String, Sprite> spriteMap;
+	private final ConcurrentMap<String, Sprite> spriteMap;
+
+	/**
+	 * Loads a sprite that is not in the map yet.
+	 */
+	private final Function<String, Sprite> loader;
+
+	/**
+	 * The number of images decoded.
+	 */
+	private final AtomicLong decodeCount;
+
+	/**
+	 * The total time spent decoding images, in nanoseconds, summed over
+	 * all threads.
+	 */
+	private final AtomicLong decodeNanos;
 	
 	/**
 	 * Create a new sprite store.
 	 */
 	public SpriteStore() {
-		spriteMap = new HashMap<String, Sprite>();
+		spriteMap = new ConcurrentHashMap<String, Sprite>();
+		decodeCount = new AtomicLong();
+		decodeNanos = new AtomicLong();
+		loader = new Function<String, Sprite>() {
+
+			@Override
+			public Sprite apply(String resource) {
+				try {
+					return loadSpriteFromResource(resource);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		};
 	}
 	
 	/**
 	 * Loads a sprite from a resource on the class path.
 	 * Sprites are loaded once, and then stored in the store
-	 * so that they can be efficiently retrieved.
+	 * so that they can be efficiently retrieved. This method
+	 * may be called from any thread.
 	 * 
 	 * @param resource
 	 *            The resource path.
@@ -41,14 +83,108 @@ public class SpriteStore {
 	 *             When the resource could not be loaded.
 	 */
 	public Sprite loadSprite(String resource) throws IOException {
+		return loadStoredSprite(resource);
+	}
+
+	/**
+	 * Loads a sprite from a resource on the class path into the store, or
+	 * returns the sprite stored for it, whatever subclasses do in
+	 * {@link #loadSprite(String)}.
+	 * 
+	 * @param resource
+	 *            The resource path.
+	 * @return The sprite stored for the resource.
+	 * @throws IOException
+	 *             When the resource could not be loaded.
+	 */
+	private Sprite loadStoredSprite(String resource) throws IOException {
 		Sprite result = spriteMap.get(resource);
 		if (result == null) {
-			result = loadSpriteFromResource(resource);
-			spriteMap.put(resource, result);
+			try {
+				result = spriteMap.computeIfAbsent(resource, loader);
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
 		}
 		return result;
 	}
 
+	/**
+	 * Starts loading sprites in the background, decoding the images on as
+	 * many threads as there are processors. Sprites requested while they are
+	 * being loaded are returned once loaded, they are not loaded twice.
+	 * 
+	 * @param resources
+	 *            The resource paths of the sprites to load.
+	 * @return A future completing when all sprites are loaded. It fails when
+	 *         a resource could not be loaded, with an
+	 *         {@link UncheckedIOException}.
+	 */
+	public Future<Void> preloadAll(Collection<String> resources) {
+		assert resources != null;
+		int threads = Math.max(1, Math.min(resources.size(),
+				Runtime.getRuntime().availableProcessors()));
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<CompletableFuture<Void>> loads = new ArrayList<>();
+			for (final String resource : resources) {
+				loads.add(CompletableFuture.runAsync(new Runnable() {
+
+					@Override
+					public void run() {
+						try {
+							loadStoredSprite(resource);
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+					}
+				}, pool));
+			}
+			return CompletableFuture.allOf(
+					loads.toArray(new CompletableFuture<?>[loads.size()]));
+		} finally {
+			// the threads finish the loads and then end
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Returns the image a resource decodes to. The image of the sprite
+	 * stored for the resource is returned, so a resource that was loaded or
+	 * {@link #preloadAll(Collection) preloaded} before is not decoded again.
+	 * 
+	 * @param resource
+	 *            The resource path.
+	 * @return The decoded image.
+	 * @throws IOException
+	 *             When the resource could not be loaded.
+	 */
+	BufferedImage loadDecodedImage(String resource) throws IOException {
+		Sprite sprite = loadStoredSprite(resource);
+		if (sprite instanceof ImageSprite) {
+			Image image = ((ImageSprite) sprite).getImage();
+			if (image instanceof BufferedImage) {
+				return (BufferedImage) image;
+			}
+		}
+		return loadImage(resource);
+	}
+
+	/**
+	 * @return The number of images decoded by this store.
+	 */
+	public long getDecodeCount() {
+		return decodeCount.get();
+	}
+
+	/**
+	 * @return The total time spent decoding images, in nanoseconds, summed
+	 *         over all threads.
+	 */
+	public long getDecodeNanos() {
+		return decodeNanos.get();
+	}
+
 	/**
 	 * Loads a sprite from a resource on the class path.
 	 * 
@@ -59,13 +195,29 @@ public class SpriteStore {
 	 *             When the resource could not be loaded.
 	 */
 	private Sprite loadSpriteFromResource(String resource) throws IOException {
+		return new ImageSprite(loadImage(resource));
+	}
+
+	/**
+	 * Loads an image from a resource on the class path.
+	 * 
+	 * @param resource
+	 *            The resource path.
+	 * @return The image.
+	 * @throws IOException
+	 *             When the resource could not be loaded.
+	 */
+	protected BufferedImage loadImage(String resource) throws IOException {
 		try (InputStream input = SpriteStore.class.getResourceAsStream(resource)) {
 			if (input == null) {
 				throw new IOException("Unable to load " + resource
 					+ ", resource does not exist.");
 			}
+			long start = System.nanoTime();
 			BufferedImage image = ImageIO.read(input);
-			return new ImageSprite(image);
+			decodeNanos.addAndGet(System.nanoTime() - start);
+			decodeCount.incrementAndGet();
+			return image;
 		}
 	}
 
@@ -0,0 +1,128 @@
+package nl.tudelft.jpacman.sprite;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single image holding many smaller images, such as all sprite sheets of a
+ * game. The images are packed in rows, tallest first. Each image is
+ * represented by a sprite that is a view on a rectangle of the atlas, and
+ * splitting such a sprite gives another view instead of copying pixels. All
+ * frames of all animations are thus drawn from the same image.
+ */
+public class TextureAtlas {
+
+	/**
+	 * The image holding all packed images.
+	 */
+	private final BufferedImage image;
+
+	/**
+	 * The sprites of the packed images, by name.
+	 */
+	private final Map<String, Sprite> sprites;
+
+	/**
+	 * Packs images into a new atlas.
+	 *
+	 * @param images
+	 *            The images to pack, by name.
+	 * @param maxWidth
+	 *            The width of the atlas, unless an image is wider.
+	 */
+	public TextureAtlas(Map<String, BufferedImage> images, int maxWidth) {
+		assert images != null && !images.isEmpty();
+		List<String> names = new ArrayList<>(images.keySet());
+		Collections.sort(names, new TallestFirst(images));
+
+		int width = maxWidth;
+		for (BufferedImage img : images.values()) {
+			width = Math.max(width, img.getWidth());
+		}
+
+		Map<String, int[]> positions = new HashMap<>();
+		int x = 0;
+		int y = 0;
+		int rowHeight = 0;
+		for (String name : names) {
+			BufferedImage img = images.get(name);
+			if (x + img.getWidth() > width) {
+				x = 0;
+				y += rowHeight;
+				rowHeight = 0;
+			}
+			positions.put(name, new int[] { x, y });
+			x += img.getWidth();
+			rowHeight = Math.max(rowHeight, img.getHeight());
+		}
+
+		this.image = ImageSprite.newImage(width, y + rowHeight);
+		this.sprites = new HashMap<>();
+		Graphics g = image.getGraphics();
+		try {
+			for (String name : names) {
+				BufferedImage img = images.get(name);
+				int[] position = positions.get(name);
+				g.drawImage(img, position[0], position[1], null);
+				sprites.put(name, new AtlasSprite(image, position[0],
+						position[1], img.getWidth(), img.getHeight()));
+			}
+		} finally {
+			g.dispose();
+		}
+	}
+
+	/**
+	 * Returns the sprite of a packed image.
+	 *
+	 * @param name
+	 *            The name of the image.
+	 * @return The sprite, or <code>null</code> if no image of that name was
+	 *         packed.
+	 */
+	public Sprite getSprite(String name) {
+		return sprites.get(name);
+	}
+
+	/**
+	 * @return The image holding all packed images.
+	 */
+	public BufferedImage getImage() {
+		return image;
+	}
+
+	/**
+	 * Orders the names of images by decreasing height, then by name.
+	 */
+	private static final class TallestFirst implements Comparator<String> {
+
+		/**
+		 * The images by name.
+		 */
+		private final Map<String, BufferedImage> images;
+
+		/**
+		 * @param imgs
+		 *            The images by name.
+		 */
+		private TallestFirst(Map<String, BufferedImage> imgs) {
+			this.images = imgs;
+		}
+
+		@Override
+		public int compare(String a, String b) {
+			int byHeight = Integer.compare(images.get(b).getHeight(),
+					images.get(a).getHeight());
+			if (byHeight != 0) {
+				return byHeight;
+			}
+			return a.compareTo(b);
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package nl.tudelft.jpacman.ui;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.image.BufferedImage;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.Square;
+
+/**
+ * The static part of a board drawing: the sprites of all squares, such as
+ * walls and ground, which never change during a game. The layer is drawn
+ * once for every size of the panel and then copied instead of drawing the
+ * squares again.
+ * <p>
+ * The layer is kept in a {@link BufferedImage} compatible with the screen of
+ * the panel, so that copying from it to the frame of the panel, which lives
+ * in system memory as well, needs no conversion. Without a screen, an RGB
+ * image is used.
+ */
+final class BackgroundLayer {
+
+	/**
+	 * The colour of the parts of the panel not covered by squares.
+	 */
+	private final Color background;
+
+	/**
+	 * The board to draw.
+	 */
+	private final Board board;
+
+	/**
+	 * The drawn layer, or <code>null</code> if it hasn't been drawn yet.
+	 */
+	private BufferedImage image;
+
+	/**
+	 * The graphics configuration the layer was created for, or
+	 * <code>null</code> if the panel wasn't on a screen.
+	 */
+	private GraphicsConfiguration configuration;
+
+	/**
+	 * The number of times the layer has been drawn.
+	 */
+	private int renderCount;
+
+	/**
+	 * Creates a new layer for a board.
+	 *
+	 * @param b
+	 *            The board to draw.
+	 * @param color
+	 *            The colour of the parts of the panel not covered by squares.
+	 */
+	BackgroundLayer(Board b, Color color) {
+		assert b != null;
+		this.board = b;
+		this.background = color;
+	}
+
+	/**
+	 * Makes sure the layer holds the drawing of the board for the given size,
+	 * drawing it again if the size or the screen changed.
+	 *
+	 * @param gc
+	 *            The graphics configuration of the panel, or
+	 *            <code>null</code> if the panel isn't on a screen.
+	 * @param width
+	 *            The width of the panel.
+	 * @param height
+	 *            The height of the panel.
+	 * @return <code>true</code> iff the layer was drawn again.
+	 */
+	boolean validate(GraphicsConfiguration gc, int width, int height) {
+		if (image == null || image.getWidth() != width
+				|| image.getHeight() != height || gc != configuration) {
+			image = createFrame(gc, width, height);
+			configuration = gc;
+			render(width, height);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Creates an empty opaque image compatible with a screen, for the layer
+	 * or for a frame drawn from it.
+	 *
+	 * @param gc
+	 *            The graphics configuration of the panel, or
+	 *            <code>null</code>.
+	 * @param width
+	 *            The width of the image.
+	 * @param height
+	 *            The height of the image.
+	 * @return The new image.
+	 */
+	static BufferedImage createFrame(GraphicsConfiguration gc, int width,
+			int height) {
+		if (gc == null) {
+			return new BufferedImage(width, height,
+					BufferedImage.TYPE_INT_RGB);
+		}
+		return gc.createCompatibleImage(width, height);
+	}
+
+	/**
+	 * Draws the sprites of all squares on the layer.
+	 *
+	 * @param width
+	 *            The width of the layer.
+	 * @param height
+	 *            The height of the layer.
+	 */
+	private void render(int width, int height) {
+		int cellW = width / board.getWidth();
+		int cellH = height / board.getHeight();
+		Graphics g = image.getGraphics();
+		try {
+			g.setColor(background);
+			g.fillRect(0, 0, width, height);
+			for (int index = 0; index < board.getSquareCount(); index++) {
+				Square square = board.squareAt(index);
+				square.getSprite().draw(g, square.getX() * cellW,
+						square.getY() * cellH, cellW, cellH);
+			}
+		} finally {
+			g.dispose();
+		}
+		renderCount++;
+	}
+
+	/**
+	 * Copies the whole layer.
+	 *
+	 * @param g
+	 *            The graphics context to draw on.
+	 */
+	void draw(Graphics g) {
+		g.drawImage(image, 0, 0, null);
+	}
+
+	/**
+	 * Copies a part of the layer to the same position.
+	 *
+	 * @param g
+	 *            The graphics context to draw on.
+	 * @param x
+	 *            The x position of the part.
+	 * @param y
+	 *            The y position of the part.
+	 * @param w
+	 *            The width of the part.
+	 * @param h
+	 *            The height of the part.
+	 */
+	void draw(Graphics g, int x, int y, int w, int h) {
+		g.drawImage(image, x, y, x + w, y + h, x, y, x + w, y + h, null);
+	}
+
+	/**
+	 * @return The number of times the layer has been drawn.
+	 */
+	int getRenderCount() {
+		return renderCount;
+	}
+}
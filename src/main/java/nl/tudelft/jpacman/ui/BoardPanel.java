@@ -3,6 +3,13 @@ package nl.tudelft.jpacman.ui;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.image.BufferedImage;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.swing.JPanel;
 
@@ -10,9 +17,22 @@ import nl.tudelft.jpacman.board.Board;
 import nl.tudelft.jpacman.board.Square;
 import nl.tudelft.jpacman.board.Unit;
 import nl.tudelft.jpacman.game.Game;
+import nl.tudelft.jpacman.level.Level;
+import nl.tudelft.jpacman.level.Level.LevelEventListener;
+import nl.tudelft.jpacman.level.LevelEvent;
+import nl.tudelft.jpacman.level.Pellet;
+import nl.tudelft.jpacman.sprite.AnimatedSprite;
 
 /**
  * Panel displaying a game.
+ * <p>
+ * The board is drawn into a frame kept between paints, by copying the
+ * squares from a {@link BackgroundLayer} holding the drawing of all squares
+ * and drawing the units over them. After the first paint, only the squares
+ * that changed are drawn again: the squares units
+ * moved from and to and pellets were eaten on, as reported by the events of
+ * the level, and the squares of the units with animated sprites. The whole
+ * board is drawn again when the panel changes size.
  * 
  * @author Jeroen Roosen 
  * 
@@ -36,9 +56,60 @@ class BoardPanel extends JPanel {
 	private static final int SQUARE_SIZE = 16;
 
 	/**
-	 * The game to display.
+	 * The level to display.
 	 */
-	private final Game game;
+	private final Level level;
+
+	/**
+	 * The board as drawn by the last paint, or <code>null</code> before the
+	 * first paint. Only used while painting.
+	 */
+	private BufferedImage frame;
+
+	/**
+	 * The graphics configuration {@link #frame} was created for, or
+	 * <code>null</code> if the panel wasn't on a screen.
+	 */
+	private GraphicsConfiguration frameConfiguration;
+
+	/**
+	 * The lock guarding {@link #dirty} and {@link #redrawAll}, which are
+	 * updated by the thread advancing the level.
+	 */
+	private final Object dirtyLock = new Object();
+
+	/**
+	 * The indices of the squares that changed since the last paint.
+	 */
+	private final BitSet dirty;
+
+	/**
+	 * <code>true</code> iff the whole board is to be drawn by the next paint.
+	 */
+	private boolean redrawAll;
+
+	/**
+	 * The indices of the squares drawn by the current paint. Only used while
+	 * painting.
+	 */
+	private final BitSet drawing;
+
+	/**
+	 * The units with animated sprites, which may look different in every
+	 * frame even when they don't move. Units that left the board or no
+	 * longer have an animated sprite are removed when painting.
+	 */
+	private final Set<Unit> animated;
+
+	/**
+	 * The drawing of the squares without their occupants.
+	 */
+	private final BackgroundLayer background;
+
+	/**
+	 * The statistics of the paints of this panel.
+	 */
+	private final FrameStats stats;
 
 	/**
 	 * Creates a new board panel that will display the provided game.
@@ -49,9 +120,23 @@ class BoardPanel extends JPanel {
 	BoardPanel(Game game) {
 		super();
 		assert game != null;
-		this.game = game;
+		this.level = game.getLevel();
+		this.dirty = new BitSet();
+		this.drawing = new BitSet();
+		this.animated = Collections.newSetFromMap(
+				new ConcurrentHashMap<Unit, Boolean>());
+		this.redrawAll = true;
+		level.subscribe(new LevelEventListener() {
+
+			@Override
+			public void eventsOccurred(List<LevelEvent> batch) {
+				markChanged(batch);
+			}
+		});
 
-		Board board = game.getLevel().getBoard();
+		Board board = level.getBoard();
+		this.background = new BackgroundLayer(board, BACKGROUND_COLOR);
+		this.stats = new FrameStats();
 
 		int w = board.getWidth() * SQUARE_SIZE;
 		int h = board.getHeight() * SQUARE_SIZE;
@@ -61,10 +146,97 @@ class BoardPanel extends JPanel {
 		setPreferredSize(size);
 	}
 
+	/**
+	 * Marks the squares affected by events as changed.
+	 * 
+	 * @param events
+	 *            The events of a tick of the level.
+	 */
+	private void markChanged(List<LevelEvent> events) {
+		synchronized (dirtyLock) {
+			for (LevelEvent event : events) {
+				if (event.getPreviousSquare() != null) {
+					dirty.set(event.getPreviousSquare().getIndex());
+				}
+				if (event.getSquare() != null) {
+					dirty.set(event.getSquare().getIndex());
+				}
+				if (event.getType() == LevelEvent.Type.UNIT_MOVED) {
+					if (event.getUnit().getSprite() instanceof AnimatedSprite) {
+						animated.add(event.getUnit());
+					}
+				} else if (event.getType() == LevelEvent.Type.LEVEL_RESTORED) {
+					redrawAll = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Has the next paint draw the whole board again.
+	 */
+	void markAllChanged() {
+		synchronized (dirtyLock) {
+			redrawAll = true;
+		}
+	}
+
+	/**
+	 * Returns the statistics of the frames drawn by this panel.
+	 * 
+	 * @return The frame statistics.
+	 */
+	FrameStats getFrameStats() {
+		return stats;
+	}
+
+	/**
+	 * @return The background layer of this panel.
+	 */
+	BackgroundLayer getBackgroundLayer() {
+		return background;
+	}
+
 	@Override
 	public void paint(Graphics g) {
 		assert g != null;
-		render(game.getLevel().getBoard(), g, getSize());
+		long start = System.nanoTime();
+		Dimension window = getSize();
+		if (window.width <= 0 || window.height <= 0) {
+			return;
+		}
+		Board board = level.getBoard();
+		boolean full;
+		synchronized (dirtyLock) {
+			full = redrawAll;
+			redrawAll = false;
+			drawing.clear();
+			drawing.or(dirty);
+			dirty.clear();
+		}
+		GraphicsConfiguration gc = getGraphicsConfiguration();
+		full |= background.validate(gc, window.width, window.height);
+		if (frame == null || frame.getWidth() != window.width
+				|| frame.getHeight() != window.height
+				|| gc != frameConfiguration) {
+			frame = BackgroundLayer.createFrame(gc, window.width,
+					window.height);
+			frameConfiguration = gc;
+			full = true;
+		}
+
+		Graphics fg = frame.getGraphics();
+		try {
+			if (full) {
+				render(board, fg, window);
+			} else {
+				renderChanged(board, fg, window);
+			}
+		} finally {
+			fg.dispose();
+		}
+		g.drawImage(frame, 0, 0, null);
+		stats.record(start, System.nanoTime());
 	}
 
 	/**
@@ -81,25 +253,64 @@ class BoardPanel extends JPanel {
 		int cellW = window.width / board.getWidth();
 		int cellH = window.height / board.getHeight();
 
-		g.setColor(BACKGROUND_COLOR);
-		g.fillRect(0, 0, window.width, window.height);
+		background.draw(g);
 
 		for (int y = 0; y < board.getHeight(); y++) {
 			for (int x = 0; x < board.getWidth(); x++) {
 				int cellX = x * cellW;
 				int cellY = y * cellH;
 				Square square = board.squareAt(x, y);
-				render(square, g, cellX, cellY, cellW, cellH);
+				renderOccupants(square, g, cellX, cellY, cellW, cellH);
+				for (Unit unit : square.getOccupantsView()) {
+					if (unit.getSprite() instanceof AnimatedSprite) {
+						animated.add(unit);
+					}
+				}
 			}
 		}
 	}
 
 	/**
-	 * Renders a single square on the given graphics context on the specified
-	 * rectangle.
+	 * Renders the squares that changed since the last paint, and the squares
+	 * of the animated units, over the previous frame.
+	 * 
+	 * @param board
+	 *            The board to render.
+	 * @param g
+	 *            The graphics context to draw on.
+	 * @param window
+	 *            The dimensions to scale the rendered board to.
+	 */
+	private void renderChanged(Board board, Graphics g, Dimension window) {
+		int cellW = window.width / board.getWidth();
+		int cellH = window.height / board.getHeight();
+
+		for (Unit unit : animated) {
+			Square square = unit.getSquare();
+			if (square == null || !(unit.getSprite() instanceof AnimatedSprite)) {
+				animated.remove(unit);
+			} else {
+				drawing.set(square.getIndex());
+			}
+		}
+
+		for (int index = drawing.nextSetBit(0); index >= 0;
+				index = drawing.nextSetBit(index + 1)) {
+			Square square = board.squareAt(index);
+			int cellX = square.getX() * cellW;
+			int cellY = square.getY() * cellH;
+			background.draw(g, cellX, cellY, cellW, cellH);
+			renderOccupants(square, g, cellX, cellY, cellW, cellH);
+		}
+	}
+
+	/**
+	 * Renders the occupants of a single square on the given graphics context
+	 * on the specified rectangle, starting with the pellet of a compact board.
+	 * The square itself is part of the background.
 	 * 
 	 * @param square
-	 *            The square to render.
+	 *            The square to render the occupants of.
 	 * @param g
 	 *            The graphics context to draw on.
 	 * @param x
@@ -111,9 +322,13 @@ class BoardPanel extends JPanel {
 	 * @param h
 	 *            The height of this square (in pixels.)
 	 */
-	private void render(Square square, Graphics g, int x, int y, int w, int h) {
-		square.getSprite().draw(g, x, y, w, h);
-		for (Unit unit : square.getOccupants()) {
+	private void renderOccupants(Square square, Graphics g, int x, int y,
+			int w, int h) {
+		Pellet pellet = level.getBoardPellet(square);
+		if (pellet != null) {
+			pellet.getSprite().draw(g, x, y, w, h);
+		}
+		for (Unit unit : square.getOccupantsView()) {
 			unit.getSprite().draw(g, x, y, w, h);
 		}
 	}
@@ -0,0 +1,126 @@
+package nl.tudelft.jpacman.ui;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics on the frames drawn by a panel: how many frames per second are
+ * drawn and how long drawing a frame takes. Frames are recorded by the
+ * painting thread, the statistics may be read from any thread.
+ */
+public class FrameStats {
+
+	/**
+	 * The length of the window over which the frame rate is measured.
+	 */
+	private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1L);
+
+	/**
+	 * The number of frames drawn.
+	 */
+	private volatile long frames;
+
+	/**
+	 * The total time spent drawing frames, in nanoseconds.
+	 */
+	private volatile long totalNanos;
+
+	/**
+	 * The longest time spent drawing a frame, in nanoseconds.
+	 */
+	private volatile long maxNanos;
+
+	/**
+	 * The time spent drawing the last frame, in nanoseconds.
+	 */
+	private volatile long lastNanos;
+
+	/**
+	 * The start of the current window, see {@link System#nanoTime()}.
+	 */
+	private long windowStart;
+
+	/**
+	 * The number of frames drawn in the current window.
+	 */
+	private int windowFrames;
+
+	/**
+	 * The frame rate measured over the last complete window.
+	 */
+	private volatile double fps;
+
+	/**
+	 * Records a drawn frame.
+	 *
+	 * @param start
+	 *            The time drawing the frame started, see
+	 *            {@link System#nanoTime()}.
+	 * @param end
+	 *            The time drawing the frame ended.
+	 */
+	void record(long start, long end) {
+		long duration = end - start;
+		frames++;
+		totalNanos += duration;
+		lastNanos = duration;
+		if (duration > maxNanos) {
+			maxNanos = duration;
+		}
+		if (windowFrames == 0) {
+			windowStart = start;
+		}
+		windowFrames++;
+		long elapsed = end - windowStart;
+		if (elapsed >= WINDOW_NANOS) {
+			fps = windowFrames * (double) WINDOW_NANOS / elapsed;
+			windowFrames = 0;
+		}
+	}
+
+	/**
+	 * @return The number of frames drawn.
+	 */
+	public long getFrameCount() {
+		return frames;
+	}
+
+	/**
+	 * @return The number of frames drawn per second, measured over the last
+	 *         second in which frames were drawn, or 0 if not yet known.
+	 */
+	public double getFramesPerSecond() {
+		return fps;
+	}
+
+	/**
+	 * @return The average time spent drawing a frame, in nanoseconds.
+	 */
+	public long getAverageFrameNanos() {
+		long count = frames;
+		if (count == 0) {
+			return 0L;
+		}
+		return totalNanos / count;
+	}
+
+	/**
+	 * @return The time spent drawing the last frame, in nanoseconds.
+	 */
+	public long getLastFrameNanos() {
+		return lastNanos;
+	}
+
+	/**
+	 * @return The longest time spent drawing a frame, in nanoseconds.
+	 */
+	public long getMaxFrameNanos() {
+		return maxNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%.1f fps, %.2f ms/frame (max %.2f ms)",
+				getFramesPerSecond(), getAverageFrameNanos() / 1e6,
+				getMaxFrameNanos() / 1e6);
+	}
+}
@@ -114,6 +114,16 @@ public class PacManUI extends JFrame {
 
 	}
 
+	/**
+	 * Returns the statistics of the frames drawn of the game, such as the
+	 * frame rate and the time drawing a frame takes.
+	 * 
+	 * @return The frame statistics, updated while the game is drawn.
+	 */
+	public FrameStats getFrameStats() {
+		return boardPanel.getFrameStats();
+	}
+
 	/**
 	 * Draws the next frame, i.e. refreshes the scores and game.
 	 */
@@ -79,4 +79,35 @@ public class BoardTest {
 	public void verifyX0Y1() {
 		assertEquals(x0y1, board.squareAt(0, 1));
 	}
+
+	/**
+	 * Verifies squares can be looked up by their index, row by row.
+	 */
+	@Test
+	public void verifySquareAtIndex() {
+		assertEquals(6, board.getSquareCount());
+		assertEquals(x0y0, board.squareAt(0));
+		assertEquals(x1y0, board.squareAt(1));
+		assertEquals(x0y1, board.squareAt(2));
+		assertEquals(x1y2, board.squareAt(5));
+	}
+
+	/**
+	 * Verifies the board tells its squares their position.
+	 */
+	@Test
+	public void verifyPositions() {
+		Square[][] grid = new Square[maxWidth][maxHeight];
+		for (int x = 0; x < maxWidth; x++) {
+			for (int y = 0; y < maxHeight; y++) {
+				grid[x][y] = new BasicSquare();
+			}
+		}
+		Board b = new Board(grid);
+		Square square = b.squareAt(1, 2);
+		assertEquals(1, square.getX());
+		assertEquals(2, square.getY());
+		assertEquals(5, square.getIndex());
+		assertEquals(square, b.squareAt(square.getIndex()));
+	}
 }
@@ -0,0 +1,156 @@
+package nl.tudelft.jpacman.board;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.lang.ref.ReferenceQueue;
+import java.util.BitSet;
+
+import nl.tudelft.jpacman.sprite.PacManSprites;
+import nl.tudelft.jpacman.sprite.Sprite;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the terrain, neighbours and pellets of a {@link CompactBoard}.
+ */
+@SuppressWarnings("magicnumber")
+public class CompactBoardTest {
+
+	/**
+	 * The board under test: a 3x2 board with a wall at 1,0 and a pellet at
+	 * 2,1.
+	 */
+	private CompactBoard board;
+
+	/**
+	 * Creates the board.
+	 */
+	@Before
+	public void setUp() {
+		byte[] terrain = new byte[6];
+		terrain[1] = CompactBoard.WALL;
+		BitSet pellets = new BitSet();
+		pellets.set(5);
+		board = new BoardFactory(mock(PacManSprites.class)).createCompactBoard(
+				3, 2, terrain, pellets);
+	}
+
+	/**
+	 * Verifies neighbours wrap around the edges like on a regular board.
+	 */
+	@Test
+	public void neighboursWrapAround() {
+		assertEquals(2, board.neighbour(0, Direction.WEST));
+		assertEquals(1, board.neighbour(0, Direction.EAST));
+		assertEquals(3, board.neighbour(0, Direction.NORTH));
+		assertEquals(0, board.neighbour(3, Direction.SOUTH));
+	}
+
+	/**
+	 * Verifies squares are the same object while in use, know their position
+	 * and are linked to the squares next to them.
+	 */
+	@Test
+	public void squareViews() {
+		Square square = board.squareAt(0, 0);
+		assertSame(square, board.squareAt(0));
+		assertEquals(0, square.getX());
+		assertEquals(0, square.getY());
+		assertSame(board.squareAt(2, 0), square.getSquareAt(Direction.WEST));
+		assertSame(square, square.getSquareAt(Direction.EAST)
+				.getSquareAt(Direction.WEST));
+		assertTrue(square.isAccessibleTo(mock(Unit.class)));
+		assertFalse(board.squareAt(1, 0).isAccessibleTo(mock(Unit.class)));
+	}
+
+	/**
+	 * Verifies the board can be searched by index without creating squares,
+	 * and that units are found on the squares in use.
+	 */
+	@Test
+	public void indexSearch() {
+		Unit unit = new Unit() {
+			@Override
+			public Sprite getSprite() {
+				return null;
+			}
+		};
+		assertTrue(board.isAccessibleTo(0, unit));
+		assertFalse(board.isAccessibleTo(1, unit));
+		assertNull(board.findOccupant(4, Unit.class));
+		assertEquals(0, board.getSquaresInUse());
+
+		unit.occupy(board.squareAt(4));
+		assertSame(unit, board.findOccupant(4, Unit.class));
+		assertSame(board, unit.getSquare().getBoard());
+		assertEquals(1, board.getSquaresInUse());
+	}
+
+	/**
+	 * Verifies squares can be linked to other squares than the ones next to
+	 * them.
+	 */
+	@Test
+	public void link() {
+		Square square = board.squareAt(0, 0);
+		square.link(board.squareAt(2, 1), Direction.NORTH);
+		assertEquals(5, board.neighbour(0, Direction.NORTH));
+		assertSame(board.squareAt(2, 1), square.getSquareAt(Direction.NORTH));
+		assertEquals(3, board.neighbour(0, Direction.SOUTH));
+	}
+
+	/**
+	 * Verifies the table of squares in use finds every square while it grows
+	 * and after squares are removed from it.
+	 */
+	@Test
+	public void squareTable() {
+		CompactBoard.SquareTable table = new CompactBoard.SquareTable();
+		ReferenceQueue<Square> queue = new ReferenceQueue<>();
+		Square square = mock(Square.class);
+		CompactBoard.SquareReference[] references =
+				new CompactBoard.SquareReference[1000];
+		for (int i = 0; i < references.length; i++) {
+			references[i] = new CompactBoard.SquareReference(square, i * 7,
+					queue);
+			table.put(references[i]);
+		}
+		assertEquals(references.length, table.size());
+		for (int i = 0; i < references.length; i += 2) {
+			table.remove(references[i]);
+		}
+		assertEquals(references.length / 2, table.size());
+		for (int i = 0; i < references.length; i++) {
+			if (i % 2 == 0) {
+				assertNull(table.get(i * 7));
+			} else {
+				assertSame(references[i], table.get(i * 7));
+			}
+		}
+	}
+
+	/**
+	 * Verifies pellets can be eaten once, and put back.
+	 */
+	@Test
+	public void eatPellets() {
+		assertEquals(1, board.getPelletCount());
+		assertFalse(board.removePellet(4));
+		assertTrue(board.hasPellet(5));
+		assertTrue(board.removePellet(5));
+		assertFalse(board.hasPellet(5));
+		assertFalse(board.removePellet(5));
+		assertEquals(0, board.getPelletCount());
+		assertEquals(-1, board.nextPellet(0));
+		assertTrue(board.putPellet(5));
+		assertFalse(board.putPellet(5));
+		assertEquals(5, board.nextPellet(0));
+		assertEquals(1, board.getPelletCount());
+	}
+}
@@ -1,9 +1,15 @@
 package nl.tudelft.jpacman.board;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
-import static org.mockito.Mockito.mock;
+
+import java.util.Iterator;
+import java.util.List;
+
+import nl.tudelft.jpacman.sprite.Sprite;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -33,7 +39,7 @@ public class SquareTest {
 	 */
 	@Test
 	public void testOccupy() {
-		Unit occupant = mock(Unit.class);
+		Unit occupant = new BasicUnit();
 		square.put(occupant);
 
 		assertTrue(square.getOccupants().contains(occupant));
@@ -45,7 +51,7 @@ public class SquareTest {
 	 */
 	@Test
 	public void testLeave() {
-		Unit occupant = mock(Unit.class);
+		Unit occupant = new BasicUnit();
 		square.put(occupant);
 		square.remove(occupant);
 
@@ -57,12 +63,40 @@ public class SquareTest {
 	 */
 	@Test
 	public void testOrder() {
-		Unit o1 = mock(Unit.class);
-		Unit o2 = mock(Unit.class);
+		Unit o1 = new BasicUnit();
+		Unit o2 = new BasicUnit();
 		square.put(o1);
 		square.put(o2);
 
 		Object[] occupantsAsArray = square.getOccupants().toArray();
 		assertArrayEquals(new Object[] { o1, o2 }, occupantsAsArray);
 	}
+
+	/**
+	 * Assert that the view reflects changes, and that iterating over it
+	 * while the occupants change sees the occupants from before the change.
+	 */
+	@Test
+	public void testOccupantsView() {
+		Unit o1 = new Unit() {
+			@Override
+			public Sprite getSprite() {
+				return null;
+			}
+		};
+		Unit o2 = new BasicUnit();
+		square.put(o1);
+		List<Unit> view = square.getOccupantsView();
+		Iterator<Unit> iterator = view.iterator();
+		square.put(o2);
+
+		assertEquals(o1, iterator.next());
+		assertFalse(iterator.hasNext());
+		assertEquals(2, square.getOccupantCount());
+		assertEquals(o2, view.get(1));
+		assertSame(o2, square.findOccupant(BasicUnit.class));
+		assertTrue(square.hasOccupantOfType(BasicUnit.class));
+		square.remove(o2);
+		assertFalse(square.hasOccupantOfType(BasicUnit.class));
+	}
 }
@@ -0,0 +1,112 @@
+package nl.tudelft.jpacman.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.level.Level;
+import nl.tudelft.jpacman.level.Level.LevelObserver;
+import nl.tudelft.jpacman.level.LevelFactory;
+import nl.tudelft.jpacman.level.MapParser;
+import nl.tudelft.jpacman.level.Player;
+import nl.tudelft.jpacman.level.PlayerFactory;
+import nl.tudelft.jpacman.npc.ghost.GhostFactory;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests several players playing a single level.
+ */
+public class MultiPlayerGameTest {
+
+	private PacManSprites sprites;
+
+	private MapParser parser;
+
+	/**
+	 * Creates the parser for the levels.
+	 */
+	@Before
+	public void setUp() {
+		sprites = new PacManSprites();
+		parser = new MapParser(new LevelFactory(sprites, new GhostFactory(
+				sprites)), new BoardFactory(sprites));
+	}
+
+	/**
+	 * Creates and starts a game without a driver, advanced manually.
+	 *
+	 * @param level
+	 *            The level to play.
+	 * @return The game, with two players.
+	 */
+	private Game start(Level level) {
+		level.setDriver(null);
+		Game game = new GameFactory(new PlayerFactory(sprites))
+				.createMultiPlayerGame(level, 2);
+		game.start();
+		return game;
+	}
+
+	/**
+	 * Verifies the queued moves of every player are applied at the next tick.
+	 */
+	@Test
+	public void queuedMovesOfAllPlayers() {
+		Level level = parser.parseMap(Lists.newArrayList("#######",
+				"#P...P#", "#######"));
+		Game game = start(level);
+		List<Player> players = game.getPlayers();
+		assertEquals(2, players.size());
+		Player first = players.get(0);
+		Player second = players.get(1);
+
+		game.queueMove(first, Direction.EAST);
+		game.queueMove(second, Direction.WEST);
+		assertEquals(1, first.getSquare().getX());
+		level.tick();
+
+		assertEquals(2, first.getSquare().getX());
+		assertEquals(4, second.getSquare().getX());
+		assertEquals(1, level.remainingPellets());
+		MultiPlayerGame multi = (MultiPlayerGame) game;
+		assertEquals(1, multi.getInputQueue(first).getAppliedCount());
+		assertEquals(1, multi.getInputQueue(second).getAppliedCount());
+	}
+
+	/**
+	 * Verifies the level is only lost once every player has died.
+	 */
+	@Test
+	public void lostWhenAllPlayersDied() {
+		Level level = parser.parseMap(Lists.newArrayList("#####", "#PGP#",
+				"# . #", "#####"));
+		LevelObserver observer = mock(LevelObserver.class);
+		level.addObserver(observer);
+		Game game = start(level);
+		Player first = game.getPlayers().get(0);
+		Player second = game.getPlayers().get(1);
+
+		game.move(first, Direction.EAST);
+		assertFalse(first.isAlive());
+		assertTrue(level.isAnyPlayerAlive());
+		assertTrue(game.isInProgress());
+		verify(observer, never()).levelLost();
+
+		game.move(second, Direction.WEST);
+		assertFalse(level.isAnyPlayerAlive());
+		verify(observer).levelLost();
+		assertFalse(game.isInProgress());
+	}
+}
@@ -0,0 +1,76 @@
+package nl.tudelft.jpacman.level;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import nl.tudelft.jpacman.board.Unit;
+import nl.tudelft.jpacman.level.CollisionInteractionMap.CollisionHandler;
+import nl.tudelft.jpacman.npc.ghost.Ghost;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the lookup of handlers by {@link CollisionInteractionMap}.
+ */
+public class CollisionInteractionMapTest {
+
+	/**
+	 * The map under test.
+	 */
+	private CollisionInteractionMap map;
+
+	private final Player player = mock(Player.class);
+
+	private final Pellet pellet = mock(Pellet.class);
+
+	private final Ghost ghost = mock(Ghost.class);
+
+	/**
+	 * Creates an empty map.
+	 */
+	@Before
+	public void setUp() {
+		map = new CollisionInteractionMap();
+	}
+
+	/**
+	 * Verifies handlers are found for subclasses and in both directions, also
+	 * when asked for repeatedly.
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void handlerForSubclasses() {
+		CollisionHandler<Player, Unit> handler = mock(CollisionHandler.class);
+		map.onCollision(Player.class, Unit.class, handler);
+
+		map.collide(player, pellet);
+		map.collide(player, pellet);
+		map.collide(ghost, player);
+
+		verify(handler, times(2)).handleCollision(player, pellet);
+		verify(handler).handleCollision(player, ghost);
+	}
+
+	/**
+	 * Verifies a handler added after a pair of classes collided without a
+	 * handler is used from then on.
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void handlerAddedLater() {
+		CollisionHandler<Player, Ghost> playerGhost = mock(CollisionHandler.class);
+		map.onCollision(Player.class, Ghost.class, playerGhost);
+		map.collide(player, pellet);
+
+		CollisionHandler<Player, Pellet> playerPellet = mock(CollisionHandler.class);
+		map.onCollision(Player.class, Pellet.class, false, playerPellet);
+		map.collide(player, pellet);
+		map.collide(pellet, player);
+
+		verify(playerPellet).handleCollision(player, pellet);
+		verifyZeroInteractions(playerGhost);
+	}
+}
@@ -0,0 +1,69 @@
+package nl.tudelft.jpacman.level;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.level.Level.LevelObserver;
+import nl.tudelft.jpacman.npc.NPC;
+import nl.tudelft.jpacman.npc.ghost.Ghost;
+import nl.tudelft.jpacman.npc.ghost.strategy.Strategy;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests driving levels with a {@link GameLoop}.
+ */
+@SuppressWarnings("magicnumber")
+public class GameLoopTest {
+
+	/**
+	 * Verifies a level whose tick fails is stopped and its observers told,
+	 * while the other levels on the same loop keep being advanced.
+	 *
+	 * @throws InterruptedException
+	 *             If the test is interrupted.
+	 */
+	@Test(timeout = 10_000L)
+	public void failingLevelIsStopped() throws InterruptedException {
+		GameLoop loop = new GameLoop(new SimulatedClock(), 10L);
+		NPC broken = mock(Ghost.class);
+		when(broken.getInterval()).thenReturn(10L);
+		doThrow(new IllegalStateException("broken")).when(broken).nextMove();
+		Level failing = createLevel(broken);
+		Level healthy = createLevel(mock(Ghost.class));
+		LevelObserver observer = mock(LevelObserver.class);
+		failing.addObserver(observer);
+		failing.setDriver(loop);
+		healthy.setDriver(loop);
+		failing.start();
+		healthy.start();
+
+		while (healthy.getScheduler().getCurrentTick() < 100L) {
+			Thread.sleep(1L);
+		}
+		long failedAt = failing.getScheduler().getCurrentTick();
+		assertTrue(failedAt < 100L);
+		assertTrue(loop.isRunning());
+		assertFalse(failing.isInProgress());
+		verify(observer).levelFailed(any(IllegalStateException.class));
+
+		healthy.stop();
+	}
+
+	private Level createLevel(NPC ghost) {
+		return new Level(mock(Board.class), Lists.newArrayList(ghost),
+				new HashMap<String, Strategy>(), Lists.newArrayList(mock(Square.class)),
+				mock(CollisionMap.class));
+	}
+}
@@ -0,0 +1,155 @@
+package nl.tudelft.jpacman.level;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.npc.ghost.GhostFactory;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests stepping game states.
+ */
+@SuppressWarnings("magicnumber")
+public class GameStateTest {
+
+	private GameRules rules;
+
+	/**
+	 * Creates the rules for a small map with pellets and ghosts.
+	 */
+	@Before
+	public void setUp() {
+		PacManSprites sprites = new PacManSprites();
+		MapParser parser = new MapParser(new LevelFactory(sprites,
+				new GhostFactory(sprites)), new BoardFactory(sprites));
+		LevelTemplate template = parser.parseTemplate(Lists.newArrayList(
+				"############", "#P.........#", "# ######## #", "#.........G#",
+				"############"));
+		rules = new GameRules(template, new PlayerFactory(sprites));
+	}
+
+	/**
+	 * Verifies a step leaves the state it started from as it was, so that
+	 * other moves can be tried from it.
+	 */
+	@Test
+	public void stepLeavesStateUnchanged() {
+		GameState start = rules.getInitialState();
+		assertEquals(1, start.getPlayerX());
+		assertEquals(1, start.getPlayerY());
+		assertEquals(18, start.getRemainingPellets());
+
+		GameState east = rules.step(start, Direction.EAST);
+		assertEquals(2, east.getPlayerX());
+		assertEquals(10, east.getScore());
+		assertEquals(17, east.getRemainingPellets());
+		assertEquals(GameRules.DEFAULT_TICKS_PER_STEP, east.getTick());
+
+		GameState stay = rules.step(start, null);
+		assertEquals(1, stay.getPlayerX());
+		assertEquals(0, stay.getScore());
+		assertEquals(18, stay.getRemainingPellets());
+
+		assertEquals(1, start.getPlayerX());
+		assertEquals(0, start.getScore());
+		assertEquals(18, start.getRemainingPellets());
+		assertEquals(0L, start.getTick());
+		assertEquals(2, east.getPlayerX());
+		assertEquals(17, east.getRemainingPellets());
+	}
+
+	/**
+	 * Verifies a state shares the pellet bits with the state it was stepped
+	 * from when no pellet was eaten, and copies them when one was.
+	 */
+	@Test
+	public void sharesPellets() {
+		GameState start = rules.getInitialState();
+		GameState stay = rules.step(start, null);
+		assertSame(start.getSnapshot().pellets[0],
+				stay.getSnapshot().pellets[0]);
+
+		GameState east = rules.step(stay, Direction.EAST);
+		assertNotSame(stay.getSnapshot().pellets[0],
+				east.getSnapshot().pellets[0]);
+		assertEquals(18, stay.getRemainingPellets());
+	}
+
+	/**
+	 * Verifies a game that is over is not played on.
+	 */
+	@Test
+	public void overStaysOver() {
+		GameState state = rules.getInitialState();
+		Direction[] path = { Direction.EAST, Direction.SOUTH, Direction.WEST };
+		int leg = 0;
+		while (!state.isOver() && state.getTick() < 100_000L) {
+			GameState next = rules.step(state, path[leg]);
+			if (next.getPlayerX() == state.getPlayerX()
+					&& next.getPlayerY() == state.getPlayerY()) {
+				leg = (leg + 1) % path.length;
+			}
+			state = next;
+		}
+		assertTrue(state.isOver());
+		assertSame(state, rules.step(state, Direction.EAST));
+	}
+
+	/**
+	 * Verifies threads can step games from the same state at the same time,
+	 * each ending in a consistent state.
+	 *
+	 * @throws Exception
+	 *             If a thread failed.
+	 */
+	@Test
+	public void parallelRollouts() throws Exception {
+		final GameState start = rules.getInitialState();
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<GameState>> games = new ArrayList<>();
+			for (int t = 0; t < 16; t++) {
+				final long seed = t;
+				games.add(pool.submit(new Callable<GameState>() {
+					@Override
+					public GameState call() {
+						Random random = new Random(seed);
+						Direction[] directions = Direction.values();
+						GameState state = start;
+						for (int i = 0; i < 50; i++) {
+							state = rules.step(state,
+									directions[random.nextInt(directions.length)]);
+						}
+						return state;
+					}
+				}));
+			}
+			for (Future<GameState> game : games) {
+				GameState end = game.get();
+				assertEquals(10 * (18 - end.getRemainingPellets()),
+						end.getScore());
+			}
+		} finally {
+			pool.shutdown();
+		}
+		assertEquals(18, start.getRemainingPellets());
+		assertEquals(1, start.getPlayerX());
+	}
+}
@@ -0,0 +1,92 @@
+package nl.tudelft.jpacman.level;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Unit;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+
+/**
+ * Tests the queueing, coalescing and dropping of commands by
+ * {@link InputQueue}.
+ */
+@SuppressWarnings("magicnumber")
+public class InputQueueTest {
+
+	private final Level level = mock(Level.class);
+
+	private final Unit first = mock(Unit.class);
+
+	private final Unit second = mock(Unit.class);
+
+	/**
+	 * Verifies commands are applied in order, and repetitions of the previous
+	 * command for the same unit are applied once.
+	 */
+	@Test
+	public void appliedInOrderAndCoalesced() {
+		InputQueue queue = new InputQueue();
+		queue.offer(first, Direction.EAST);
+		queue.offer(second, Direction.WEST);
+		queue.offer(first, Direction.EAST);
+		queue.offer(first, Direction.EAST);
+		queue.offer(first, Direction.NORTH);
+		queue.offer(first, Direction.EAST);
+		assertEquals(6, queue.size());
+
+		assertEquals(4, queue.drain(level));
+		InOrder order = inOrder(level);
+		order.verify(level).move(first, Direction.EAST);
+		order.verify(level).move(second, Direction.WEST);
+		order.verify(level).move(first, Direction.NORTH);
+		order.verify(level).move(first, Direction.EAST);
+		verifyNoMoreInteractions(level);
+
+		assertEquals(0, queue.size());
+		assertEquals(4, queue.getAppliedCount());
+		assertEquals(2, queue.getCoalescedCount());
+		assertTrue(queue.getMaxLatencyNanos() >= queue.getAverageLatencyNanos());
+	}
+
+	/**
+	 * Verifies the same command given again after a tick is applied again.
+	 */
+	@Test
+	public void repeatedAcrossTicks() {
+		InputQueue queue = new InputQueue();
+		queue.offer(first, Direction.SOUTH);
+		queue.drain(level);
+		queue.offer(first, Direction.SOUTH);
+		queue.drain(level);
+		verify(level, times(2)).move(first, Direction.SOUTH);
+	}
+
+	/**
+	 * Verifies commands are dropped when the queue is full, and accepted
+	 * again once it has been drained.
+	 */
+	@Test
+	public void droppedWhenFull() {
+		InputQueue queue = new InputQueue(2);
+		assertTrue(queue.offer(first, Direction.EAST));
+		assertTrue(queue.offer(second, Direction.EAST));
+		assertFalse(queue.offer(first, Direction.WEST));
+		assertEquals(1, queue.getDroppedCount());
+
+		queue.drain(level);
+		for (int i = 0; i < 10; i++) {
+			assertTrue(queue.offer(first, Direction.values()[i % 4]));
+			queue.drain(level);
+		}
+		assertEquals(12, queue.getAppliedCount());
+	}
+}
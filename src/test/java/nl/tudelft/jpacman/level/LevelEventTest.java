@@ -0,0 +1,109 @@
+package nl.tudelft.jpacman.level;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.level.Level.LevelEventListener;
+import nl.tudelft.jpacman.npc.ghost.GhostFactory;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests the delivery of level events to subscribers, one batch per tick.
+ */
+public class LevelEventTest {
+
+	/**
+	 * The level under test, with a player and two pellets to the east.
+	 */
+	private Level level;
+
+	/**
+	 * The player on the level.
+	 */
+	private Player player;
+
+	/**
+	 * The batches received.
+	 */
+	private final List<List<LevelEvent>> batches = new ArrayList<>();
+
+	/**
+	 * Creates the level and subscribes to it.
+	 */
+	@Before
+	public void setUp() {
+		PacManSprites sprites = new PacManSprites();
+		MapParser parser = new MapParser(new LevelFactory(sprites,
+				new GhostFactory(sprites)), new BoardFactory(sprites));
+		level = parser.parseMap(Lists.newArrayList("######", "#P.. #",
+				"######"));
+		level.setDriver(null);
+		player = new PlayerFactory(sprites).createPacMan();
+		level.registerPlayer(player);
+		level.subscribe(new LevelEventListener() {
+
+			@Override
+			public void eventsOccurred(List<LevelEvent> batch) {
+				batches.add(batch);
+			}
+		});
+		level.start();
+	}
+
+	/**
+	 * Verifies the events of a tick are delivered in order as one batch.
+	 */
+	@Test
+	public void batchPerTick() {
+		Square start = player.getSquare();
+		level.getInputQueue().offer(player, Direction.EAST);
+		level.tick();
+
+		assertEquals(1, batches.size());
+		List<LevelEvent> batch = batches.get(0);
+		assertEquals(2, batch.size());
+		LevelEvent moved = batch.get(0);
+		assertEquals(LevelEvent.Type.UNIT_MOVED, moved.getType());
+		assertEquals(player, moved.getUnit());
+		assertEquals(start, moved.getPreviousSquare());
+		assertEquals(player.getSquare(), moved.getSquare());
+		LevelEvent eaten = batch.get(1);
+		assertEquals(LevelEvent.Type.PELLET_EATEN, eaten.getType());
+		assertTrue(eaten.getUnit() instanceof Pellet);
+		assertEquals(player.getSquare(), eaten.getPreviousSquare());
+		assertNull(eaten.getSquare());
+	}
+
+	/**
+	 * Verifies nothing is delivered for ticks without events, and events of
+	 * moves between ticks are delivered with the next tick.
+	 */
+	@Test
+	public void movesBetweenTicks() {
+		level.tick();
+		assertTrue(batches.isEmpty());
+
+		level.move(player, Direction.EAST);
+		player.setAlive(false);
+		assertTrue(batches.isEmpty());
+		level.tick();
+
+		assertEquals(1, batches.size());
+		List<LevelEvent> batch = batches.get(0);
+		assertEquals(3, batch.size());
+		assertEquals(LevelEvent.Type.PLAYER_DIED, batch.get(2).getType());
+		assertEquals(0, level.getDroppedEventCount());
+	}
+}
@@ -0,0 +1,152 @@
+package nl.tudelft.jpacman.level;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.level.Level.LevelObserver;
+import nl.tudelft.jpacman.npc.NPC;
+import nl.tudelft.jpacman.npc.ghost.Ghost;
+import nl.tudelft.jpacman.npc.ghost.strategy.Strategy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+
+/**
+ * Tests hosting several levels on a {@link LevelHost}.
+ */
+@SuppressWarnings("magicnumber")
+public class LevelHostTest {
+
+	/**
+	 * The host under test, with two workers and room for two levels.
+	 */
+	private LevelHost host;
+
+	/**
+	 * Creates the host.
+	 */
+	@Before
+	public void setUp() {
+		host = new LevelHost(2, 2, new SimulatedClock(), 10L);
+	}
+
+	/**
+	 * Releases the workers of the host.
+	 */
+	@After
+	public void tearDown() {
+		host.shutdown();
+	}
+
+	/**
+	 * Verifies started levels are advanced by every step, and stopped levels
+	 * are no longer hosted.
+	 */
+	@Test
+	public void stepAdvancesStartedLevels() {
+		NPC ghost = mock(Ghost.class);
+		when(ghost.getInterval()).thenReturn(20L);
+		Level level = createLevel(ghost);
+		level.setDriver(host);
+		level.start();
+		assertEquals(1, host.getLevelCount());
+
+		for (int i = 0; i < 3; i++) {
+			host.step();
+		}
+		assertEquals(3L, level.getScheduler().getCurrentTick());
+		verify(ghost, times(2)).nextMove();
+
+		level.stop();
+		assertEquals(0, host.getLevelCount());
+		host.step();
+		assertEquals(3L, level.getScheduler().getCurrentTick());
+	}
+
+	/**
+	 * Verifies the host refuses levels beyond its capacity.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void capacity() {
+		host.add(createLevel(mock(Ghost.class)));
+		host.add(createLevel(mock(Ghost.class)));
+		assertFalse(host.hasCapacity());
+		host.add(createLevel(mock(Ghost.class)));
+	}
+
+	/**
+	 * Verifies every hosted level gets its tick.
+	 */
+	@Test
+	public void stepIsFair() {
+		Level first = createLevel(mock(Ghost.class));
+		Level second = createLevel(mock(Ghost.class));
+		first.setDriver(host);
+		second.setDriver(host);
+		first.start();
+		second.start();
+		assertEquals(2, host.getLevelCount());
+
+		for (int i = 0; i < 5; i++) {
+			host.step();
+		}
+		assertEquals(5L, first.getScheduler().getCurrentTick());
+		assertEquals(5L, second.getScheduler().getCurrentTick());
+		assertEquals(10L, host.getExecutedTicks());
+	}
+
+	/**
+	 * Verifies a level whose tick throws is reported by the step, counted
+	 * and stopped, while the other levels are still advanced.
+	 */
+	@Test
+	public void failingLevel() {
+		NPC broken = mock(Ghost.class);
+		when(broken.getInterval()).thenReturn(10L);
+		doThrow(new IllegalStateException("broken")).when(broken).nextMove();
+		Level failing = createLevel(broken);
+		Level healthy = createLevel(mock(Ghost.class));
+		LevelObserver observer = mock(LevelObserver.class);
+		failing.addObserver(observer);
+		failing.setDriver(host);
+		healthy.setDriver(host);
+		failing.start();
+		healthy.start();
+
+		try {
+			host.step();
+			fail("The failed tick should be reported.");
+		} catch (IllegalStateException e) {
+			assertEquals("broken", Throwables.getRootCause(e).getMessage());
+		}
+		assertEquals(1L, host.getFailedTicks());
+		assertEquals(1, host.getLevelCount());
+		assertFalse(failing.isInProgress());
+		verify(observer).levelFailed(any(IllegalStateException.class));
+		assertEquals(1L, healthy.getScheduler().getCurrentTick());
+
+		host.step();
+		assertEquals(2L, healthy.getScheduler().getCurrentTick());
+	}
+
+	private Level createLevel(NPC ghost) {
+		return new Level(mock(Board.class), Lists.newArrayList(ghost),
+				new HashMap<String, Strategy>(), Lists.newArrayList(mock(Square.class)),
+				mock(CollisionMap.class));
+	}
+}
@@ -0,0 +1,162 @@
+package nl.tudelft.jpacman.level;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.CompactBoard;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.level.Level.LevelObserver;
+import nl.tudelft.jpacman.npc.ghost.GhostFactory;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests the counting of the pellets remaining on a level.
+ */
+public class LevelPelletTest {
+
+	/**
+	 * The text of the map, with a player and two pellets to the east.
+	 */
+	private static final String[] MAP = {"######", "#P.. #", "######"};
+
+	/**
+	 * The parser of the map.
+	 */
+	private MapParser parser;
+
+	/**
+	 * The sprites of the units.
+	 */
+	private PacManSprites sprites;
+
+	/**
+	 * The level under test, with a player and two pellets to the east.
+	 */
+	private Level level;
+
+	/**
+	 * The player on the level.
+	 */
+	private Player player;
+
+	/**
+	 * Observer of the level.
+	 */
+	private final LevelObserver observer = mock(LevelObserver.class);
+
+	/**
+	 * Creates the level and starts it without a driver.
+	 */
+	@Before
+	public void setUp() {
+		sprites = new PacManSprites();
+		parser = new MapParser(new LevelFactory(sprites,
+				new GhostFactory(sprites)), new BoardFactory(sprites));
+		level = parser.parseMap(Lists.newArrayList(MAP));
+		level.setDriver(null);
+		player = new PlayerFactory(sprites).createPacMan();
+		level.registerPlayer(player);
+		level.addObserver(observer);
+		level.start();
+	}
+
+	/**
+	 * Verifies eaten pellets are no longer counted, and the level is won
+	 * once all are eaten.
+	 */
+	@Test
+	public void eatPellets() {
+		assertEquals(2, level.remainingPellets());
+		level.move(player, Direction.EAST);
+		assertEquals(1, level.remainingPellets());
+		verify(observer, never()).levelWon();
+		level.move(player, Direction.EAST);
+		level.move(player, Direction.EAST);
+		assertEquals(0, level.remainingPellets());
+		verify(observer).levelWon();
+	}
+
+	/**
+	 * Verifies observers are told only once that the level is won, not again
+	 * on every later move.
+	 */
+	@Test
+	public void wonOnce() {
+		level.move(player, Direction.EAST);
+		level.move(player, Direction.EAST);
+		for (int i = 0; i < 5; i++) {
+			level.move(player, Direction.EAST);
+			level.move(player, Direction.WEST);
+		}
+		verify(observer).levelWon();
+	}
+
+	/**
+	 * Verifies the level is lost as soon as its only player dies, and only
+	 * once.
+	 */
+	@Test
+	public void lostOnDeath() {
+		player.setAlive(false);
+		player.setAlive(false);
+		verify(observer).levelLost();
+		level.move(player, Direction.EAST);
+		verify(observer).levelLost();
+	}
+
+	/**
+	 * Verifies players eat the pellets of a compact board, score them and win
+	 * the level, and that snapshots put them back.
+	 *
+	 * @throws IOException
+	 *             When the map could not be read.
+	 */
+	@Test
+	public void compactBoard() throws IOException {
+		Level compact = parser.parseCompactMap(new ByteArrayInputStream(
+				String.join("\n", MAP).getBytes(StandardCharsets.UTF_8)));
+		CompactBoard board = (CompactBoard) compact.getBoard();
+		compact.setDriver(null);
+		Player pacMan = new PlayerFactory(sprites).createPacMan();
+		compact.registerPlayer(pacMan);
+		LevelObserver compactObserver = mock(LevelObserver.class);
+		compact.addObserver(compactObserver);
+		compact.start();
+		assertEquals(2, compact.remainingPellets());
+		assertNotNull(compact.getBoardPellet(board.squareAt(2, 1)));
+		LevelSnapshot start = compact.snapshot();
+
+		compact.move(pacMan, Direction.EAST);
+		assertEquals(1, compact.remainingPellets());
+		assertEquals(10, pacMan.getScore());
+		assertFalse(board.hasPellet(board.indexOf(2, 1)));
+		assertNull(compact.getBoardPellet(pacMan.getSquare()));
+
+		compact.restore(start);
+		assertEquals(2, compact.remainingPellets());
+		assertTrue(board.hasPellet(board.indexOf(2, 1)));
+		assertEquals(0, pacMan.getScore());
+
+		compact.move(pacMan, Direction.EAST);
+		compact.move(pacMan, Direction.EAST);
+		assertEquals(0, compact.remainingPellets());
+		assertEquals(0, board.getPelletCount());
+		verify(compactObserver).levelWon();
+	}
+}
@@ -0,0 +1,169 @@
+package nl.tudelft.jpacman.level;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.level.Level.LevelEventListener;
+import nl.tudelft.jpacman.level.Level.LevelObserver;
+import nl.tudelft.jpacman.npc.ghost.GhostFactory;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests taking snapshots of a level and restoring them.
+ */
+@SuppressWarnings("magicnumber")
+public class LevelSnapshotTest {
+
+	private Level level;
+
+	private Player player;
+
+	private final LevelObserver observer = mock(LevelObserver.class);
+
+	/**
+	 * Creates a level with a player, pellets and ghosts, and starts it
+	 * without a driver.
+	 */
+	@Before
+	public void setUp() {
+		PacManSprites sprites = new PacManSprites();
+		MapParser parser = new MapParser(new LevelFactory(sprites,
+				new GhostFactory(sprites)), new BoardFactory(sprites));
+		level = parser.parseMap(Lists.newArrayList("##########",
+				"#P...   G#", "# ###### #", "#G       #", "##########"));
+		level.setDriver(null);
+		player = new PlayerFactory(sprites).createPacMan();
+		level.registerPlayer(player);
+		level.addObserver(observer);
+		level.start();
+	}
+
+	/**
+	 * Stops the level.
+	 */
+	@After
+	public void tearDown() {
+		level.stop();
+	}
+
+	/**
+	 * Asserts two snapshots hold the same state.
+	 *
+	 * @param expected
+	 *            The expected snapshot.
+	 * @param actual
+	 *            The actual snapshot.
+	 */
+	private static void assertSameState(LevelSnapshot expected,
+			LevelSnapshot actual) {
+		assertEquals(expected.tick, actual.tick);
+		assertEquals(expected.sequence, actual.sequence);
+		assertEquals(expected.pelletCount, actual.pelletCount);
+		assertArrayEquals(expected.pellets, actual.pellets);
+		assertArrayEquals(expected.playerSquares, actual.playerSquares);
+		assertArrayEquals(expected.playerDirections, actual.playerDirections);
+		assertArrayEquals(expected.scores, actual.scores);
+		assertArrayEquals(expected.ghostSquares, actual.ghostSquares);
+		assertArrayEquals(expected.ghostDirections, actual.ghostDirections);
+		assertEquals(expected.timers, actual.timers);
+		assertArrayEquals(expected.strategies, actual.strategies);
+		assertArrayEquals(expected.references, actual.references);
+		assertArrayEquals(expected.counters, actual.counters);
+		assertArrayEquals(expected.limits, actual.limits);
+		assertArrayEquals(expected.due, actual.due);
+		assertArrayEquals(expected.order, actual.order);
+	}
+
+	/**
+	 * Verifies restoring a snapshot taken while the ghosts are moving puts
+	 * back the pellets, the score, the positions, the time and the ghost
+	 * timers.
+	 */
+	@Test
+	public void rewind() {
+		for (int i = 0; i < 30; i++) {
+			level.tick();
+		}
+		LevelSnapshot before = level.snapshot();
+		assertTrue(before.timers);
+		assertEquals(3, before.getRemainingPellets());
+
+		level.move(player, Direction.EAST);
+		level.move(player, Direction.EAST);
+		for (int i = 0; i < 300; i++) {
+			level.tick();
+		}
+		assertEquals(1, level.remainingPellets());
+		assertEquals(20, player.getScore());
+		assertNotEquals(before.getTick(), level.getScheduler()
+				.getCurrentTick());
+
+		level.restore(before);
+		assertEquals(3, level.remainingPellets());
+		assertEquals(0, player.getScore());
+		assertEquals(1, player.getSquare().getX());
+		assertEquals(30L, level.getScheduler().getCurrentTick());
+		assertEquals(2, level.getScheduler().getPendingCount());
+		assertSameState(before, level.snapshot());
+
+		// the level plays on from the snapshot, and can be rewound again
+		level.move(player, Direction.EAST);
+		assertEquals(2, level.remainingPellets());
+		level.restore(before);
+		assertSameState(before, level.snapshot());
+	}
+
+	/**
+	 * Verifies a player that died after the snapshot is alive again, and the
+	 * level is lost again when the player dies again.
+	 */
+	@Test
+	public void reviveSilently() {
+		LevelSnapshot before = level.snapshot();
+		player.setAlive(false);
+		verify(observer).levelLost();
+
+		level.restore(before);
+		assertTrue(player.isAlive());
+		assertTrue(level.isAnyPlayerAlive());
+		player.setAlive(false);
+		verify(observer, times(2)).levelLost();
+		assertFalse(player.isAlive());
+	}
+
+	/**
+	 * Verifies subscribers are told the level was restored.
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void restoredEvent() {
+		LevelEventListener listener = mock(LevelEventListener.class);
+		LevelSnapshot before = level.snapshot();
+		level.subscribe(listener);
+		level.restore(before);
+		level.tick();
+
+		ArgumentCaptor<List<LevelEvent>> batch = (ArgumentCaptor<List<LevelEvent>>)
+				(ArgumentCaptor<?>) ArgumentCaptor.forClass(List.class);
+		verify(listener).eventsOccurred(batch.capture());
+		assertEquals(LevelEvent.Type.LEVEL_RESTORED,
+				batch.getValue().get(0).getType());
+	}
+}
@@ -0,0 +1,79 @@
+package nl.tudelft.jpacman.level;
+
+import static nl.tudelft.jpacman.level.MapParserTest.assertSameBoard;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.util.List;
+
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.npc.ghost.GhostFactory;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests creating levels from a {@link LevelTemplate}.
+ */
+@SuppressWarnings("magicnumber")
+public class LevelTemplateTest {
+
+	private static final List<String> MAP = Lists.newArrayList("#####",
+			"#.G #", "#G.P#", "#####");
+
+	private final PacManSprites sprites = new PacManSprites();
+
+	/**
+	 * @return A new parser with a level factory of its own.
+	 */
+	private MapParser newParser() {
+		return new MapParser(new LevelFactory(sprites, new GhostFactory(
+				sprites)), new BoardFactory(sprites));
+	}
+
+	/**
+	 * Verifies every level of a template equals the level parsed from the
+	 * same map, including the kinds of ghosts.
+	 */
+	@Test
+	public void sameAsParsed() {
+		Level expected = newParser().parseMap(MAP);
+		LevelTemplate template = newParser().parseTemplate(MAP);
+		assertEquals(5, template.getWidth());
+		assertEquals(4, template.getHeight());
+		for (int i = 0; i < 3; i++) {
+			Level level = template.createLevel();
+			assertSameBoard(expected.getBoard(), level.getBoard());
+			assertEquals(2, level.remainingPellets());
+		}
+	}
+
+	/**
+	 * Verifies playing a level of a template leaves its other levels
+	 * untouched.
+	 */
+	@Test
+	public void levelsIndependent() {
+		LevelTemplate template = newParser().parseTemplate(MAP);
+		Level first = template.createLevel();
+		Level second = template.createLevel();
+		assertNotSame(first.getBoard().squareAt(1, 1),
+				second.getBoard().squareAt(1, 1));
+
+		first.setDriver(null);
+		Player player = new PlayerFactory(sprites).createPacMan();
+		first.registerPlayer(player);
+		first.start();
+		first.move(player, Direction.WEST);
+		first.stop();
+
+		assertEquals(1, first.remainingPellets());
+		assertEquals(2, second.remainingPellets());
+		assertEquals(2, second.getBoard().squareAt(2, 2).getOccupants()
+				.size() + second.getBoard().squareAt(1, 1).getOccupants()
+				.size());
+	}
+}
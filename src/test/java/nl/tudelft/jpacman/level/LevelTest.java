@@ -1,16 +1,21 @@
 package nl.tudelft.jpacman.level;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.Direction;
 import nl.tudelft.jpacman.board.Square;
 import nl.tudelft.jpacman.npc.NPC;
 import nl.tudelft.jpacman.npc.ghost.Ghost;
@@ -19,6 +24,8 @@ import nl.tudelft.jpacman.npc.ghost.strategy.Strategy;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import com.google.common.collect.Lists;
 
@@ -109,6 +116,38 @@ public class LevelTest {
 		assertFalse(level.isInProgress());
 	}
 
+	/**
+	 * Verifies a manually driven level moves its NPCs after half their
+	 * interval has passed in logical time.
+	 */
+	@Test
+	@SuppressWarnings("PMD.JUnitTestsShouldIncludeAssert")
+	public void manualTicks() {
+		level.setDriver(null);
+		level.start();
+		for (int i = 0; i < 4; i++) {
+			level.tick();
+		}
+		verify(ghost, never()).nextMove();
+		level.tick();
+		verify(ghost).nextMove();
+	}
+
+	/**
+	 * Verifies a stopped level no longer moves its NPCs.
+	 */
+	@Test
+	@SuppressWarnings("PMD.JUnitTestsShouldIncludeAssert")
+	public void noTicksWhenStopped() {
+		level.setDriver(null);
+		level.start();
+		level.stop();
+		for (int i = 0; i < 10; i++) {
+			level.tick();
+		}
+		verify(ghost, never()).nextMove();
+	}
+
 	/**
 	 * Verifies registering a player puts the player on the correct starting
 	 * square.
@@ -162,4 +201,56 @@ public class LevelTest {
 		level.registerPlayer(p3);
 		verify(p3).occupy(square1);
 	}
+
+	/**
+	 * Verifies ticks called from two threads at once are executed one after
+	 * the other, as when a stopped driver finishes a tick while a new one
+	 * starts.
+	 *
+	 * @throws InterruptedException
+	 *             If the test is interrupted.
+	 */
+	@Test(timeout = 10_000L)
+	public void ticksDoNotOverlap() throws InterruptedException {
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger overlaps = new AtomicInteger();
+		NPC other = mock(Ghost.class);
+		level = new Level(board, Lists.newArrayList(ghost, other), strategy,
+				Lists.newArrayList(square1), collisions);
+		Answer<Direction> slowMove = new Answer<Direction>() {
+			@Override
+			public Direction answer(InvocationOnMock invocation)
+					throws InterruptedException {
+				if (running.incrementAndGet() > 1) {
+					overlaps.incrementAndGet();
+				}
+				Thread.sleep(1L);
+				running.decrementAndGet();
+				return null;
+			}
+		};
+		// the ghosts move on different ticks, so that each thread can find
+		// one due while the other one is moving
+		when(ghost.getInterval()).thenReturn(20L);
+		when(other.getInterval()).thenReturn(40L);
+		doAnswer(slowMove).when(ghost).nextMove();
+		doAnswer(slowMove).when(other).nextMove();
+		level.setDriver(null);
+		level.start();
+
+		Runnable ticks = new Runnable() {
+			@Override
+			public void run() {
+				for (int i = 0; i < 50; i++) {
+					level.tick();
+				}
+			}
+		};
+		Thread second = new Thread(ticks);
+		second.start();
+		ticks.run();
+		second.join();
+		assertEquals(0, overlaps.get());
+		assertEquals(100L, level.getScheduler().getCurrentTick());
+	}
 }
@@ -0,0 +1,344 @@
+package nl.tudelft.jpacman.level;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import nl.tudelft.jpacman.PacmanConfigurationException;
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.CompactBoard;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.board.Unit;
+import nl.tudelft.jpacman.npc.ghost.GhostFactory;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests reading maps from text, streams, files and the binary format.
+ */
+@SuppressWarnings("magicnumber")
+public class MapParserTest {
+
+	/**
+	 * The map used by most tests, with ghosts in an order that differs by
+	 * row and by column.
+	 */
+	private static final List<String> MAP = Lists.newArrayList("#####",
+			"#.G #", "#G.P#", "#####");
+
+	/**
+	 * Folder for map files.
+	 */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final PacManSprites sprites = new PacManSprites();
+
+	private final MapParser parser = newParser();
+
+	/**
+	 * @return A new parser. The level factory of a parser cycles through the
+	 *         kinds of ghosts across levels, so levels compared by their
+	 *         ghosts are created by parsers of their own.
+	 */
+	private MapParser newParser() {
+		return new MapParser(new LevelFactory(sprites, new GhostFactory(
+				sprites)), new BoardFactory(sprites));
+	}
+
+	/**
+	 * @param text
+	 *            The text.
+	 * @return A stream of the UTF-8 encoded text.
+	 */
+	private static InputStream stream(String text) {
+		return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Asserts two boards hold the same terrain and the same kinds of units
+	 * on the same squares.
+	 *
+	 * @param expected
+	 *            The expected board.
+	 * @param actual
+	 *            The actual board.
+	 */
+	static void assertSameBoard(Board expected, Board actual) {
+		assertEquals(expected.getWidth(), actual.getWidth());
+		assertEquals(expected.getHeight(), actual.getHeight());
+		for (int i = 0; i < expected.getSquareCount(); i++) {
+			Square e = expected.squareAt(i);
+			Square a = actual.squareAt(i);
+			assertEquals(e.getClass(), a.getClass());
+			List<Unit> eu = e.getOccupants();
+			List<Unit> au = a.getOccupants();
+			assertEquals(eu.size(), au.size());
+			for (int u = 0; u < eu.size(); u++) {
+				assertEquals(eu.get(u).getClass(), au.get(u).getClass());
+			}
+		}
+	}
+
+	/**
+	 * Verifies a stream, with or without a line break at the end and with
+	 * Windows line breaks, gives the same level as a list of rows, including
+	 * the kinds of ghosts.
+	 *
+	 * @throws IOException
+	 *             When the stream could not be read.
+	 */
+	@Test
+	public void streamSameAsList() throws IOException {
+		Board expected = parser.parseMap(MAP).getBoard();
+		String text = "#####\n#.G #\n#G.P#\n#####";
+		assertSameBoard(expected, newParser().parseMap(stream(text))
+				.getBoard());
+		assertSameBoard(expected, newParser().parseMap(stream(text + "\n"))
+				.getBoard());
+		assertSameBoard(expected, newParser().parseMap(
+				stream(text.replace("\n", "\r\n"))).getBoard());
+	}
+
+	/**
+	 * Verifies a memory mapped file gives the same level as a list of rows.
+	 *
+	 * @throws IOException
+	 *             When the file could not be written or read.
+	 */
+	@Test
+	public void fileSameAsList() throws IOException {
+		Path file = folder.newFile("map.txt").toPath();
+		Files.write(file, MAP, StandardCharsets.UTF_8);
+		Level level = newParser().parseMap(file);
+		assertSameBoard(parser.parseMap(MAP).getBoard(), level.getBoard());
+		assertEquals(2, level.remainingPellets());
+	}
+
+	/**
+	 * Verifies a compact board holds the terrain and pellets of the map.
+	 *
+	 * @throws IOException
+	 *             When the file could not be written or read.
+	 */
+	@Test
+	public void compactBoard() throws IOException {
+		Path file = folder.newFile("map.txt").toPath();
+		Files.write(file, MAP, StandardCharsets.UTF_8);
+		for (CompactBoard board : new CompactBoard[] {
+				parser.parseCompactBoard(file),
+				parser.parseCompactBoard(Files.newInputStream(file)) }) {
+			assertEquals(5, board.getWidth());
+			assertEquals(4, board.getHeight());
+			assertEquals(2, board.getPelletCount());
+			assertTrue(board.hasPellet(board.indexOf(1, 1)));
+			assertFalse(board.isAccessible(board.indexOf(4, 2)));
+			assertTrue(board.isAccessible(board.indexOf(3, 2)));
+		}
+	}
+
+	/**
+	 * Verifies a level on a compact board has the ghosts and start square of
+	 * the map, and can be played.
+	 *
+	 * @throws IOException
+	 *             When the file could not be written or read.
+	 */
+	@Test
+	public void compactLevel() throws IOException {
+		Path file = folder.newFile("map.txt").toPath();
+		Files.write(file, MAP, StandardCharsets.UTF_8);
+		Level level = parser.parseCompactMap(file);
+		assertEquals(2, level.remainingPellets());
+		Board board = level.getBoard();
+		assertTrue(board.squareAt(2, 1).hasOccupantOfType(Unit.class));
+		assertTrue(board.squareAt(1, 2).hasOccupantOfType(Unit.class));
+
+		Player player = new PlayerFactory(sprites).createPacMan();
+		level.setDriver(null);
+		level.registerPlayer(player);
+		assertEquals(3, player.getSquare().getX());
+		assertEquals(2, player.getSquare().getY());
+		level.start();
+		for (int i = 0; i < 100; i++) {
+			level.tick();
+		}
+		level.stop();
+		assertEquals(100L, level.getScheduler().getCurrentTick());
+	}
+
+	/**
+	 * Verifies rows of different widths are rejected.
+	 *
+	 * @throws IOException
+	 *             When the stream could not be read.
+	 */
+	@Test(expected = PacmanConfigurationException.class)
+	public void unequalRows() throws IOException {
+		parser.parseMap(stream("###\n##\n###\n"));
+	}
+
+	/**
+	 * Verifies an empty stream is rejected.
+	 *
+	 * @throws IOException
+	 *             When the stream could not be read.
+	 */
+	@Test(expected = PacmanConfigurationException.class)
+	public void emptyStream() throws IOException {
+		parser.parseMap(stream(""));
+	}
+
+	/**
+	 * Verifies unsupported characters are rejected.
+	 *
+	 * @throws IOException
+	 *             When the stream could not be read.
+	 */
+	@Test(expected = PacmanConfigurationException.class)
+	public void invalidCharacter() throws IOException {
+		parser.parseCompactBoard(stream("#x#\n"));
+	}
+
+	/**
+	 * Verifies a map with more accessible squares than a table of distances
+	 * can cover still gives a level, whose ghosts search their paths.
+	 */
+	@Test
+	public void largeMap() {
+		int size = 200;
+		char[] walls = new char[size];
+		Arrays.fill(walls, '#');
+		char[] ground = walls.clone();
+		Arrays.fill(ground, 1, size - 1, ' ');
+		List<String> rows = Lists.newArrayList(new String(walls));
+		for (int y = 1; y < size - 1; y++) {
+			rows.add(new String(ground));
+		}
+		rows.add(new String(walls));
+		char[] first = ground.clone();
+		first[1] = 'P';
+		first[size - 2] = 'G';
+		rows.set(1, new String(first));
+
+		Level level = parser.parseMap(rows);
+		assertEquals(size, level.getBoard().getWidth());
+		level.setDriver(null);
+		level.registerPlayer(new PlayerFactory(sprites).createPacMan());
+		level.start();
+		for (int i = 0; i < 100; i++) {
+			level.tick();
+		}
+		level.stop();
+		assertEquals(100L, level.getScheduler().getCurrentTick());
+	}
+
+	/**
+	 * Verifies the binary representation of a map gives the same level as
+	 * its text, including the kinds of ghosts and the start square.
+	 */
+	@Test
+	public void binarySameAsText() {
+		Level expected = parser.parseMap(MAP);
+		Level actual = newParser().parseBinaryMap(
+				ByteBuffer.wrap(BinaryMapFormat.toBytes(MAP)));
+		assertSameBoard(expected.getBoard(), actual.getBoard());
+		assertEquals(2, actual.remainingPellets());
+
+		Player player = new PlayerFactory(sprites).createPacMan();
+		actual.registerPlayer(player);
+		assertEquals(3, player.getSquare().getX());
+		assertEquals(2, player.getSquare().getY());
+	}
+
+	/**
+	 * Verifies maps stored one after the other are read in turn, including
+	 * terrain runs longer than fit in a single byte.
+	 */
+	@Test
+	public void binaryMapsInOneBuffer() {
+		char[] walls = new char[300];
+		Arrays.fill(walls, '#');
+		char[] ground = walls.clone();
+		Arrays.fill(ground, 1, ground.length - 1, ' ');
+		ground[1] = 'P';
+		List<String> wide = Lists.newArrayList(new String(walls),
+				new String(ground), new String(walls));
+
+		byte[] first = BinaryMapFormat.toBytes(wide);
+		byte[] second = BinaryMapFormat.toBytes(MAP);
+		ByteBuffer buffer = ByteBuffer.allocate(first.length + second.length);
+		buffer.put(first).put(second).flip();
+
+		assertSameBoard(parser.parseMap(wide).getBoard(),
+				parser.parseBinaryMap(buffer).getBoard());
+		assertEquals(first.length, buffer.position());
+		assertSameBoard(newParser().parseMap(MAP).getBoard(),
+				newParser().parseBinaryMap(buffer).getBoard());
+		assertFalse(buffer.hasRemaining());
+	}
+
+	/**
+	 * Verifies a binary map that ends too soon is rejected, wherever it is
+	 * cut off: in the header, the terrain, the pellets, the ghosts or the
+	 * start squares.
+	 */
+	@Test
+	public void binaryTruncated() {
+		byte[] bytes = BinaryMapFormat.toBytes(MAP);
+		int starts = bytes.length - 2 * Integer.BYTES;
+		int ghosts = starts - 3 * Integer.BYTES;
+		int pellets = ghosts - (MAP.size() * MAP.get(0).length() + 7) / 8;
+		int[] cuts = {10, 17, pellets + 1, ghosts + 6, starts + 2,
+				bytes.length - 1};
+		for (int cut : cuts) {
+			try {
+				parser.parseBinaryMap(ByteBuffer.wrap(bytes, 0, cut));
+				fail("Map cut off after " + cut + " bytes was accepted.");
+			} catch (PacmanConfigurationException e) {
+				assertTrue(e.getMessage().contains("truncated"));
+			}
+		}
+	}
+
+	/**
+	 * Verifies a binary map claiming a size far larger than its data is
+	 * rejected before any square is created.
+	 */
+	@Test(expected = PacmanConfigurationException.class)
+	public void binaryHugeHeader() {
+		ByteBuffer buffer = ByteBuffer.wrap(BinaryMapFormat.toBytes(MAP));
+		// width and height follow the magic, the version and a reserved short
+		buffer.putInt(8, 40000).putInt(12, 40000);
+		parser.parseBinaryMap(buffer);
+	}
+
+	/**
+	 * Verifies a binary map placing a ghost on a wall is rejected.
+	 */
+	@Test(expected = PacmanConfigurationException.class)
+	public void binaryGhostOnWall() {
+		ByteBuffer buffer = ByteBuffer.wrap(BinaryMapFormat.toBytes(MAP));
+		// the last int is the start square, preceded by the count of starts
+		// and by the second ghost
+		buffer.putInt(buffer.limit() - 12, 0);
+		parser.parseBinaryMap(buffer);
+	}
+}
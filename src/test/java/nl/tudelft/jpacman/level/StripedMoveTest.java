@@ -0,0 +1,164 @@
+package nl.tudelft.jpacman.level;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.board.Unit;
+import nl.tudelft.jpacman.npc.ghost.GhostFactory;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Stress tests moving many players at the same time on a level with striped
+ * locking.
+ */
+@SuppressWarnings("magicnumber")
+public class StripedMoveTest {
+
+	/**
+	 * The number of players, each moved by a thread of its own.
+	 */
+	private static final int PLAYERS = 8;
+
+	/**
+	 * The number of moves per player.
+	 */
+	private static final int MOVES = 20000;
+
+	/**
+	 * The points a pellet is worth on levels of the level factory.
+	 */
+	private static final int PELLET_VALUE = 10;
+
+	/**
+	 * The width and height of the board.
+	 */
+	private static final int SIZE = 24;
+
+	private Level level;
+
+	private final List<Player> players = new ArrayList<>();
+
+	private ExecutorService threads;
+
+	/**
+	 * Creates a level full of pellets with the players on the diagonal.
+	 */
+	@Before
+	public void setUp() {
+		PacManSprites sprites = new PacManSprites();
+		MapParser parser = new MapParser(new LevelFactory(sprites,
+				new GhostFactory(sprites)), new BoardFactory(sprites));
+		char[] row = new char[SIZE];
+		Arrays.fill(row, '.');
+		List<String> map = new ArrayList<>();
+		for (int y = 0; y < SIZE; y++) {
+			map.add(new String(row));
+		}
+		level = parser.parseMap(map);
+		level.setDriver(null);
+		level.setStripedLocking(true);
+		PlayerFactory factory = new PlayerFactory(sprites);
+		for (int i = 0; i < PLAYERS; i++) {
+			Player player = factory.createPacMan();
+			player.occupy(level.getBoard().squareAt(i * 3, i * 3));
+			players.add(player);
+		}
+		level.start();
+		threads = Executors.newFixedThreadPool(PLAYERS);
+	}
+
+	/**
+	 * Stops the threads.
+	 */
+	@After
+	public void tearDown() {
+		threads.shutdownNow();
+		level.stop();
+	}
+
+	/**
+	 * Verifies that after many concurrent random moves every unit is on
+	 * exactly one square, and every pellet eaten was counted and scored
+	 * exactly once.
+	 *
+	 * @throws Exception
+	 *             When a mover failed.
+	 */
+	@Test
+	public void concurrentMoves() throws Exception {
+		int pellets = level.remainingPellets();
+		List<Future<Void>> movers = new ArrayList<>();
+		for (int i = 0; i < PLAYERS; i++) {
+			movers.add(threads.submit(new Mover(players.get(i), i)));
+		}
+		for (Future<Void> mover : movers) {
+			mover.get();
+		}
+
+		Board board = level.getBoard();
+		int units = 0;
+		int pelletsOnBoard = 0;
+		for (int i = 0; i < board.getSquareCount(); i++) {
+			Square square = board.squareAt(i);
+			for (Unit unit : square.getOccupants()) {
+				assertEquals(square, unit.getSquare());
+				units++;
+				if (unit instanceof Pellet) {
+					pelletsOnBoard++;
+				}
+			}
+		}
+		assertEquals(PLAYERS + pelletsOnBoard, units);
+		assertEquals(pelletsOnBoard, level.remainingPellets());
+
+		int points = 0;
+		for (Player player : players) {
+			points += player.getScore();
+		}
+		int eaten = pellets - pelletsOnBoard;
+		assertTrue(eaten > 0);
+		assertEquals(eaten * PELLET_VALUE, points);
+	}
+
+	/**
+	 * Moves a player around at random.
+	 */
+	private final class Mover implements Callable<Void> {
+
+		private final Player player;
+
+		private final Random random;
+
+		private Mover(Player p, long seed) {
+			this.player = p;
+			this.random = new Random(seed);
+		}
+
+		@Override
+		public Void call() {
+			Direction[] directions = Direction.values();
+			for (int i = 0; i < MOVES; i++) {
+				level.move(player,
+						directions[random.nextInt(directions.length)]);
+			}
+			return null;
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package nl.tudelft.jpacman.level;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the logical time keeping of the {@link TickScheduler}.
+ */
+@SuppressWarnings("magicnumber")
+public class TickSchedulerTest {
+
+	/**
+	 * The scheduler under test.
+	 */
+	private TickScheduler scheduler;
+
+	/**
+	 * The names of the tasks in the order they were executed.
+	 */
+	private final List<String> executed = new ArrayList<>();
+
+	/**
+	 * Creates a scheduler with ticks of 10 ms.
+	 */
+	@Before
+	public void setUp() {
+		scheduler = new TickScheduler(10L);
+	}
+
+	/**
+	 * Verifies a task runs exactly on the tick it is due.
+	 */
+	@Test
+	public void runsWhenDue() {
+		scheduler.schedule(record("a"), 3);
+		scheduler.tick();
+		scheduler.tick();
+		assertEquals(0, executed.size());
+		scheduler.tick();
+		assertEquals(1, executed.size());
+		assertEquals(0, scheduler.getPendingCount());
+	}
+
+	/**
+	 * Verifies tasks due on the same tick run in the order they were
+	 * scheduled, and earlier tasks before later ones.
+	 */
+	@Test
+	public void deterministicOrder() {
+		scheduler.schedule(record("late"), 2);
+		scheduler.schedule(record("first"), 1);
+		scheduler.schedule(record("second"), 1);
+		scheduler.tick();
+		scheduler.tick();
+		assertEquals(3, executed.size());
+		assertEquals("first", executed.get(0));
+		assertEquals("second", executed.get(1));
+		assertEquals("late", executed.get(2));
+	}
+
+	/**
+	 * Verifies durations are rounded up to whole ticks.
+	 */
+	@Test
+	public void toTicks() {
+		assertEquals(1L, scheduler.toTicks(0L));
+		assertEquals(1L, scheduler.toTicks(10L));
+		assertEquals(26L, scheduler.toTicks(251L));
+	}
+
+	/**
+	 * Verifies the logical time follows the ticks.
+	 */
+	@Test
+	public void elapsedTime() {
+		for (int i = 0; i < 5; i++) {
+			scheduler.tick();
+		}
+		assertEquals(5L, scheduler.getCurrentTick());
+		assertEquals(50L, scheduler.getElapsedMillis());
+	}
+
+	/**
+	 * Verifies cleared tasks are never executed.
+	 */
+	@Test
+	public void clear() {
+		scheduler.schedule(record("a"), 1);
+		scheduler.clear();
+		scheduler.tick();
+		assertEquals(0, executed.size());
+	}
+
+	private Runnable record(final String name) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				executed.add(name);
+			}
+		};
+	}
+}
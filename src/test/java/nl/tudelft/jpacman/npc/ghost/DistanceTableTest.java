@@ -0,0 +1,189 @@
+package nl.tudelft.jpacman.npc.ghost;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.board.Unit;
+import nl.tudelft.jpacman.level.LevelFactory;
+import nl.tudelft.jpacman.level.MapParser;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests the {@link DistanceTable} against the searches of {@link Navigation}.
+ */
+@SuppressWarnings("magicnumber")
+public class DistanceTableTest {
+
+	/**
+	 * Map parser used to construct boards.
+	 */
+	private MapParser parser;
+
+	/**
+	 * The unit travelling the board.
+	 */
+	private final Unit traveller = mock(Unit.class);
+
+	/**
+	 * Set up the map parser.
+	 */
+	@Before
+	public void setUp() {
+		PacManSprites sprites = new PacManSprites();
+		parser = new MapParser(new LevelFactory(sprites, new GhostFactory(
+				sprites)), new BoardFactory(sprites));
+	}
+
+	/**
+	 * Verifies the table finds the same distances and first steps as a
+	 * breadth first search, between all accessible squares of the default
+	 * board.
+	 *
+	 * @throws IOException if board reading fails.
+	 */
+	@Test
+	public void sameAsNavigation() throws IOException {
+		Board b = parser.parseMap(getClass().getResourceAsStream("/board.txt"))
+				.getBoard();
+		assertAllPairs(new DistanceTable(b, traveller), b);
+	}
+
+	/**
+	 * Verifies a table that may only keep a few rows at a time still gives
+	 * the correct answers.
+	 *
+	 * @throws IOException if board reading fails.
+	 */
+	@Test
+	public void lazyRows() throws IOException {
+		Board b = parser.parseMap(getClass().getResourceAsStream("/board.txt"))
+				.getBoard();
+		DistanceTable table = new DistanceTable(b, traveller, 4096L);
+		assertFalse(table.isComplete());
+		assertAllPairs(table, b);
+		assertTrue(table.getMemoryBytes() < 4096L + 16L * b.getSquareCount());
+	}
+
+	/**
+	 * Verifies threads sharing a table that computes and discards rows while
+	 * they read it all get the correct answers.
+	 *
+	 * @throws Exception if board reading fails or a thread failed.
+	 */
+	@Test
+	public void sharedLazyRows() throws Exception {
+		final Board b = parser.parseMap(
+				getClass().getResourceAsStream("/board.txt")).getBoard();
+		final DistanceTable expected = new DistanceTable(b, traveller);
+		final DistanceTable shared = new DistanceTable(b, traveller, 4096L);
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				final int offset = t * 37;
+				results.add(pool.submit(new Callable<Integer>() {
+					@Override
+					public Integer call() {
+						int wrong = 0;
+						int count = b.getSquareCount();
+						for (int i = 0; i < count; i++) {
+							Square from = b.squareAt((i + offset) % count);
+							for (int j = 0; j < count; j += 3) {
+								Square to = b.squareAt(j);
+								if (shared.distance(from, to) != expected
+										.distance(from, to)) {
+									wrong++;
+								}
+							}
+						}
+						return wrong;
+					}
+				}));
+			}
+			for (Future<Integer> result : results) {
+				assertEquals(Integer.valueOf(0), result.get());
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Verifies unreachable and inaccessible squares have no distance.
+	 */
+	@Test
+	public void unreachable() {
+		Board b = parser
+				.parseMap(Lists.newArrayList("#####", "# # #", "#####"))
+				.getBoard();
+		DistanceTable table = new DistanceTable(b, traveller);
+		assertTrue(table.isComplete());
+		assertEquals(2, table.getSize());
+		Square s1 = b.squareAt(1, 1);
+		Square s2 = b.squareAt(3, 1);
+		assertEquals(DistanceTable.UNREACHABLE, table.distance(s1, s2));
+		assertEquals(DistanceTable.UNREACHABLE,
+				table.distance(s1, b.squareAt(0, 0)));
+		assertNull(table.nextDirection(s1, s2));
+		assertEquals(0, table.distance(s1, s1));
+		assertNull(table.nextDirection(s1, s1));
+	}
+
+	/**
+	 * Verifies paths wrap around the edges of the board.
+	 */
+	@Test
+	public void wrapAround() {
+		Board b = parser.parseMap(Lists.newArrayList("#####", "     ", "#####"))
+				.getBoard();
+		DistanceTable table = new DistanceTable(b, traveller);
+		assertEquals(1, table.distance(b.squareAt(0, 1), b.squareAt(4, 1)));
+		assertEquals(Direction.WEST,
+				table.nextDirection(b.squareAt(0, 1), b.squareAt(4, 1)));
+	}
+
+	private void assertAllPairs(DistanceTable table, Board b) {
+		for (int from = 0; from < b.getSquareCount(); from++) {
+			Square start = b.squareAt(from);
+			if (!start.isAccessibleTo(traveller)) {
+				continue;
+			}
+			for (int to = 0; to < b.getSquareCount(); to++) {
+				Square destination = b.squareAt(to);
+				if (!destination.isAccessibleTo(traveller)) {
+					continue;
+				}
+				List<Direction> path = Navigation.shortestPath(start,
+						destination, traveller);
+				if (path == null) {
+					assertEquals(DistanceTable.UNREACHABLE,
+							table.distance(start, destination));
+				} else {
+					assertEquals(path.size(), table.distance(start, destination));
+					Direction first = path.isEmpty() ? null : path.get(0);
+					assertEquals(first, table.nextDirection(start, destination));
+				}
+			}
+		}
+	}
+}
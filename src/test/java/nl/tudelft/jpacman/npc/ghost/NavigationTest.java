@@ -5,12 +5,16 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import nl.tudelft.jpacman.board.Board;
 import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.CompactBoard;
 import nl.tudelft.jpacman.board.Direction;
 import nl.tudelft.jpacman.board.Square;
 import nl.tudelft.jpacman.board.Unit;
@@ -122,6 +126,28 @@ public class NavigationTest {
 				path.toArray(new Direction[] {}));
 	}
 
+	/**
+	 * Verifies that searches on boards of different sizes in a row do not
+	 * see each other's visited squares.
+	 */
+	@Test
+	public void testConsecutiveBoards() {
+		StringBuilder row = new StringBuilder();
+		for (int i = 0; i < 600; i++) {
+			row.append(' ');
+		}
+		Board large = parser.parseMap(Lists.newArrayList(row.toString()))
+				.getBoard();
+		List<Direction> path = Navigation.shortestPath(large.squareAt(0, 0),
+				large.squareAt(599, 0), null);
+		assertEquals(1, path.size());
+		assertEquals(300, Navigation.shortestPath(large.squareAt(0, 0),
+				large.squareAt(300, 0), null).size());
+
+		testCornerPath();
+		testCornerPath();
+	}
+
 	/**
 	 * Verifies that the nearest object is detected.
 	 */
@@ -147,6 +173,42 @@ public class NavigationTest {
 		assertNull(unit);
 	}
 	
+	/**
+	 * Verifies that paths and units are found on a compact board, without
+	 * creating the squares on the way.
+	 * 
+	 * @throws IOException if the map can not be read.
+	 */
+	@Test
+	public void testCompactBoard() throws IOException {
+		String map = "#######\n#P   G#\n# ### #\n#     #\n#######\n";
+		CompactBoard b = (CompactBoard) parser.parseCompactMap(
+				new ByteArrayInputStream(map.getBytes(StandardCharsets.UTF_8)))
+				.getBoard();
+		Square ghostSquare = b.squareAt(5, 1);
+		Square target = b.squareAt(1, 3);
+		int inUse = b.getSquaresInUse();
+
+		List<Direction> path = Navigation.shortestPath(ghostSquare, target,
+				ghostSquare.getOccupants().get(0));
+		assertEquals(6, path.size());
+		assertNull(Navigation.findNearest(Pellet.class, target));
+		assertNotNull(Navigation.findNearest(Ghost.class, target));
+		assertEquals(inUse, b.getSquaresInUse());
+	}
+
+	/**
+	 * Verifies that searching from a square that is not on a board fails
+	 * clearly.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testSquareNotOnBoard() {
+		Board b = parser.parseMap(Lists.newArrayList(" ")).getBoard();
+		Square loose = mock(Square.class);
+		when(loose.getIndex()).thenReturn(-1);
+		Navigation.shortestPath(loose, b.squareAt(0, 0), null);
+	}
+
 	/**
 	 * Verifies that there is ghost on the default board
 	 * next to cell [1, 1].
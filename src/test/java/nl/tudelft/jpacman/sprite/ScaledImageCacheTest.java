@@ -0,0 +1,143 @@
+package nl.tudelft.jpacman.sprite;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * Tests the caching of scaled images.
+ */
+@SuppressWarnings("magicnumber")
+public class ScaledImageCacheTest {
+
+	/**
+	 * Creates a 16 by 16 image with a red and a blue half.
+	 *
+	 * @return The image.
+	 */
+	private static BufferedImage createImage() {
+		BufferedImage image = new BufferedImage(16, 16,
+				BufferedImage.TYPE_INT_ARGB);
+		Graphics g = image.getGraphics();
+		g.setColor(Color.RED);
+		g.fillRect(0, 0, 8, 16);
+		g.setColor(Color.BLUE);
+		g.fillRect(8, 0, 8, 16);
+		g.dispose();
+		return image;
+	}
+
+	/**
+	 * Verifies an image is scaled once per size.
+	 */
+	@Test
+	public void scaledOncePerSize() {
+		ScaledImageCache cache = new ScaledImageCache(4);
+		Image source = createImage();
+		Image scaled = cache.get(source, 4, 4);
+		assertEquals(4, scaled.getWidth(null));
+		assertEquals(4, scaled.getHeight(null));
+		assertSame(scaled, cache.get(source, 4, 4));
+		assertNotSame(scaled, cache.get(source, 8, 4));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertNotSame(scaled, cache.get(source, 4, 4));
+	}
+
+	/**
+	 * Verifies the least recently used image is evicted when the cache is
+	 * full.
+	 */
+	@Test
+	public void leastRecentlyUsedEvicted() {
+		ScaledImageCache cache = new ScaledImageCache(2);
+		Image source = createImage();
+		Image small = cache.get(source, 2, 2);
+		Image medium = cache.get(source, 4, 4);
+		assertSame(small, cache.get(source, 2, 2));
+		cache.get(source, 8, 8);
+
+		assertEquals(2, cache.size());
+		assertSame(small, cache.get(source, 2, 2));
+		assertNotSame(medium, cache.get(source, 4, 4));
+	}
+
+	/**
+	 * Verifies threads drawing at different sizes at the same time find
+	 * their images, and the cache stays within its capacity.
+	 *
+	 * @throws Exception
+	 *             If a thread failed.
+	 */
+	@Test
+	public void sharedBetweenThreads() throws Exception {
+		final ScaledImageCache cache = new ScaledImageCache(8);
+		final Image source = createImage();
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> draws = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				final int size = 4 * (t + 1);
+				draws.add(pool.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						boolean sized = true;
+						for (int i = 0; i < 1000; i++) {
+							Image scaled = cache.get(source, size, size);
+							sized &= scaled.getWidth(null) == size;
+						}
+						return sized;
+					}
+				}));
+			}
+			for (Future<Boolean> draw : draws) {
+				assertTrue(draw.get());
+			}
+		} finally {
+			pool.shutdown();
+		}
+		assertEquals(4, cache.size());
+		assertEquals(4000, cache.getHitCount() + cache.getMissCount());
+	}
+
+	/**
+	 * Verifies a sprite drawn from the cache looks the same as the image
+	 * scaled while drawing it.
+	 */
+	@Test
+	public void drawnAsScaled() {
+		BufferedImage source = createImage();
+		BufferedImage expected = new BufferedImage(20, 20,
+				BufferedImage.TYPE_INT_RGB);
+		Graphics g = expected.getGraphics();
+		g.drawImage(source, 2, 2, 10, 10, 0, 0, 16, 16, null);
+		g.dispose();
+
+		BufferedImage actual = new BufferedImage(20, 20,
+				BufferedImage.TYPE_INT_RGB);
+		g = actual.getGraphics();
+		new ImageSprite(source).draw(g, 2, 2, 8, 8);
+		g.dispose();
+
+		assertArrayEquals(expected.getRGB(0, 0, 20, 20, null, 0, 20),
+				actual.getRGB(0, 0, 20, 20, null, 0, 20));
+	}
+}
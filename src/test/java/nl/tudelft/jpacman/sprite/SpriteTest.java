@@ -1,9 +1,13 @@
 package nl.tudelft.jpacman.sprite;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -108,4 +112,38 @@ public class SpriteTest {
 		Sprite split = sprite.split(10, 10, 64, 10);
 		assertTrue(split instanceof EmptySprite);
 	}
+
+	/**
+	 * Verifies preloaded sprites are decoded once and then taken from the
+	 * store.
+	 *
+	 * @throws Exception
+	 *             When the sprites could not be loaded.
+	 */
+	@Test
+	public void preloadAll() throws Exception {
+		SpriteStore fresh = new SpriteStore();
+		Future<Void> preload = fresh.preloadAll(Arrays.asList(
+				"/sprite/64x64white.png", "/sprite/pacman.png",
+				"/sprite/64x64white.png"));
+		Sprite white = fresh.loadSprite("/sprite/64x64white.png");
+		preload.get();
+		assertEquals(2, fresh.getDecodeCount());
+		assertTrue(fresh.getDecodeNanos() > 0);
+		assertSame(white, fresh.loadSprite("/sprite/64x64white.png"));
+		fresh.loadSprite("/sprite/pacman.png");
+		assertEquals(2, fresh.getDecodeCount());
+	}
+
+	/**
+	 * Verifies a missing resource fails the preload.
+	 *
+	 * @throws Exception
+	 *             Since the sprite cannot be loaded.
+	 */
+	@Test(expected = ExecutionException.class)
+	public void preloadMissing() throws Exception {
+		store.preloadAll(Arrays.asList("/sprite/nonexistingresource.png"))
+				.get();
+	}
 }
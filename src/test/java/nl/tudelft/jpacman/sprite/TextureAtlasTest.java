@@ -0,0 +1,109 @@
+package nl.tudelft.jpacman.sprite;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import org.junit.Test;
+
+/**
+ * Tests that sprites packed into a texture atlas look the same as sprites
+ * loaded as separate images.
+ */
+@SuppressWarnings("magicnumber")
+public class TextureAtlasTest {
+
+	private final PacManSprites separate = new PacManSprites(false);
+
+	private final PacManSprites packed = new PacManSprites(true);
+
+	/**
+	 * Draws a sprite on a new image.
+	 *
+	 * @param sprite
+	 *            The sprite to draw.
+	 * @param size
+	 *            The width and height to draw the sprite at.
+	 * @return The pixels of the image.
+	 */
+	private static int[] draw(Sprite sprite, int size) {
+		BufferedImage image = new BufferedImage(size + 2, size + 2,
+				BufferedImage.TYPE_INT_RGB);
+		Graphics g = image.getGraphics();
+		sprite.draw(g, 1, 1, size, size);
+		g.dispose();
+		return image.getRGB(0, 0, size + 2, size + 2, null, 0, size + 2);
+	}
+
+	/**
+	 * Verifies every packed sprite sheet and frame looks the same as the
+	 * separately loaded one, at its own size and scaled.
+	 */
+	@Test
+	public void sameAsSeparateImages() {
+		String[] sheets = { "/sprite/pacman.png", "/sprite/dead.png",
+				"/sprite/ghost_red.png", "/sprite/wall.png",
+				"/sprite/pellet.png" };
+		for (String sheet : sheets) {
+			Sprite expected = separate.loadSprite(sheet);
+			Sprite actual = packed.loadSprite(sheet);
+			assertEquals(expected.getWidth(), actual.getWidth());
+			assertEquals(expected.getHeight(), actual.getHeight());
+			for (int x = 0; x < expected.getWidth(); x += 16) {
+				for (int y = 0; y < expected.getHeight(); y += 16) {
+					Sprite expectedFrame = expected.split(x, y, 16, 16);
+					Sprite actualFrame = actual.split(x, y, 16, 16);
+					for (int size : new int[] { 16, 4, 13, 40 }) {
+						assertArrayEquals(sheet + " " + x + "," + y + "@"
+								+ size, draw(expectedFrame, size),
+								draw(actualFrame, size));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Verifies all sprites and their frames are views on the same atlas.
+	 *
+	 * @throws IOException
+	 *             When the atlas could not be packed.
+	 */
+	@Test
+	public void framesAreViews() throws IOException {
+		Sprite pacman = packed.getPacmanSprites().values().iterator().next();
+		assertTrue(pacman instanceof AnimatedSprite);
+		Sprite frame = packed.loadSprite("/sprite/pacman.png").split(16, 0,
+				16, 16);
+		assertTrue(frame instanceof AtlasSprite);
+		assertTrue(packed.getWallSprite() instanceof AtlasSprite);
+		assertTrue(packed.loadSprite("/sprite/pacman.png").split(60, 0, 16,
+				16) instanceof EmptySprite);
+		BufferedImage atlas = packed.getAtlas().getImage();
+		assertEquals(256, atlas.getWidth());
+	}
+
+	/**
+	 * Verifies packing the atlas decodes every sprite sheet once, reusing
+	 * the sheets decoded by a preload.
+	 *
+	 * @throws Exception
+	 *             When the sheets could not be loaded.
+	 */
+	@Test
+	public void sheetsDecodedOnce() throws Exception {
+		int sheets = packed.getResources().size();
+		packed.preloadAll(packed.getResources().subList(0, 2)).get();
+		assertEquals(2, packed.getDecodeCount());
+
+		TextureAtlas atlas = packed.getAtlas();
+		assertEquals(sheets, packed.getDecodeCount());
+		assertSame(atlas, packed.getAtlas());
+		assertEquals(sheets, packed.getDecodeCount());
+	}
+}
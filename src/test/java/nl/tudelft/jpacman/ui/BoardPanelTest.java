@@ -0,0 +1,130 @@
+package nl.tudelft.jpacman.ui;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.game.Game;
+import nl.tudelft.jpacman.game.GameFactory;
+import nl.tudelft.jpacman.level.Level;
+import nl.tudelft.jpacman.level.LevelFactory;
+import nl.tudelft.jpacman.level.MapParser;
+import nl.tudelft.jpacman.level.PlayerFactory;
+import nl.tudelft.jpacman.npc.ghost.GhostFactory;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests that drawing only the changed squares of a board gives the same
+ * picture as drawing the whole board.
+ */
+@SuppressWarnings("magicnumber")
+public class BoardPanelTest {
+
+	/**
+	 * The size of the panel in pixels.
+	 */
+	private static final int PIXELS = 96;
+
+	private final PacManSprites sprites = new PacManSprites();
+
+	/**
+	 * Creates a game that is advanced manually.
+	 *
+	 * @return The game, not started yet.
+	 */
+	private Game createGame() {
+		MapParser parser = new MapParser(new LevelFactory(sprites,
+				new GhostFactory(sprites)), new BoardFactory(sprites));
+		Level level = parser.parseMap(Lists.newArrayList("######",
+				"#P...#", "#.##.#", "#....#", "#....#", "######"));
+		level.setDriver(null);
+		return new GameFactory(new PlayerFactory(sprites))
+				.createSinglePlayerGame(level);
+	}
+
+	/**
+	 * Creates a panel showing a game.
+	 *
+	 * @param game
+	 *            The game to show.
+	 * @return The panel.
+	 */
+	private BoardPanel createPanel(Game game) {
+		BoardPanel panel = new BoardPanel(game);
+		panel.setSize(PIXELS, PIXELS);
+		return panel;
+	}
+
+	/**
+	 * @param panel
+	 *            The panel to paint.
+	 * @param image
+	 *            The image to paint the panel on.
+	 * @return The pixels of the image after painting.
+	 */
+	private int[] paint(BoardPanel panel, BufferedImage image) {
+		Graphics g = image.getGraphics();
+		try {
+			panel.paint(g);
+		} finally {
+			g.dispose();
+		}
+		return image.getRGB(0, 0, PIXELS, PIXELS, null, 0, PIXELS);
+	}
+
+	/**
+	 * Verifies the frame drawn after moves matches a fresh drawing of the
+	 * whole board.
+	 */
+	@Test
+	public void changedSquaresMatchFullDrawing() {
+		Game game = createGame();
+		BoardPanel panel = createPanel(game);
+		BufferedImage image = new BufferedImage(PIXELS, PIXELS,
+				BufferedImage.TYPE_INT_RGB);
+		paint(panel, image);
+
+		game.start();
+		game.move(game.getPlayers().get(0), Direction.EAST);
+		game.move(game.getPlayers().get(0), Direction.EAST);
+		game.getLevel().tick();
+		int[] incremental = paint(panel, image);
+
+		BoardPanel fresh = createPanel(game);
+		int[] full = paint(fresh, new BufferedImage(PIXELS, PIXELS,
+				BufferedImage.TYPE_INT_RGB));
+		assertArrayEquals(full, incremental);
+	}
+
+	/**
+	 * Verifies the background is drawn once, and again when the panel
+	 * changes size, and every paint is counted as a frame.
+	 */
+	@Test
+	public void backgroundDrawnOncePerSize() {
+		BoardPanel panel = createPanel(createGame());
+		BufferedImage image = new BufferedImage(PIXELS, PIXELS,
+				BufferedImage.TYPE_INT_RGB);
+		paint(panel, image);
+		paint(panel, image);
+		paint(panel, image);
+		assertEquals(1, panel.getBackgroundLayer().getRenderCount());
+
+		panel.setSize(PIXELS / 2, PIXELS / 2);
+		paint(panel, image);
+		assertEquals(2, panel.getBackgroundLayer().getRenderCount());
+
+		FrameStats stats = panel.getFrameStats();
+		assertEquals(4, stats.getFrameCount());
+		assertTrue(stats.getMaxFrameNanos() >= stats.getAverageFrameNanos());
+	}
+}